@@ -9,7 +9,7 @@ allprojects {
 
     java {
         toolchain {
-            languageVersion = JavaLanguageVersion.of(17)
+            languageVersion = JavaLanguageVersion.of(24)
         }
     }
 
@@ -41,4 +41,13 @@ subprojects {
             standardInput = System.`in`
             javaLauncher.set(javaToolchains.launcherFor(java.toolchain))
         }
+
+    // e.g. ./gradlew :simaquarium:runExperiments -PexperimentArgs="--agents 10,50 --food LITTLE,NORMAL --repetitions 3"
+    tasks.register<JavaExec>("runExperiments") {
+            group = "run"
+            classpath = sourceSets.getByName("main").runtimeClasspath
+            mainClass.set("launcher.ExperimentRunner")
+            args = project.findProperty("experimentArgs")?.toString()?.split(" ")?.filter { it.isNotBlank() } ?: emptyList()
+            javaLauncher.set(javaToolchains.launcherFor(java.toolchain))
+        }
 }
@@ -9,6 +9,7 @@ dependencyResolutionManagement {
 rootProject.name = "ise-lab-code-jason"
 
 include("simaquarium")
+include("simaquarium-bench")
 
 develocity {
     buildScan {
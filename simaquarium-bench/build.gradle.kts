@@ -0,0 +1,17 @@
+plugins {
+    id("me.champeau.jmh") version "0.7.2"
+}
+
+dependencies {
+    jmh(project(":simaquarium"))
+}
+
+jmh {
+    jmhVersion = "1.37"
+    warmupIterations = 3
+    iterations = 5
+    fork = 1
+    resultFormat = "JSON"
+    // Restrict the run from the command line, e.g. -PjmhInclude=ModelQueryBenchmark
+    project.findProperty("jmhInclude")?.let { includes.add(it.toString()) }
+}
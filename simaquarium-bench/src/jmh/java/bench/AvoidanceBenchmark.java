@@ -0,0 +1,164 @@
+package bench;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import env.AvoidanceMode;
+import env.SimAquariumEnvironment;
+import env.model.Amount;
+import env.model.AquariumModelImpl;
+import env.model.Fish;
+import env.model.Obstacle;
+import env.model.Speed;
+import env.model.Vector2D;
+import utils.AvoidanceSolver;
+
+/**
+ * Compares the avoidance modes on a dense school: each invocation steers every fish with the `AvoidanceSolver`,
+ * fed as the environment would in the given mode, bouncing off the walls before and after, then moves it at its
+ * normal speed, or slower when the velocity mode slows it down.
+ * The `collisions` counter reports how many fish overlap another one after their move.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class AvoidanceBenchmark {
+    @Param({"100", "400"})
+    int population;
+
+    @Param({"STATIC", "VELOCITY"})
+    AvoidanceMode mode;
+
+    /** Whether the fish move together at the end of the tick, like outside lock-step, or one after the other. */
+    @Param({"true", "false"})
+    boolean batchedMoves;
+
+    private AquariumModelImpl model;
+    private List<Fish> school;
+    private Vector2D[] directions;
+    private double[] moveX;
+    private double[] moveY;
+
+    /**
+     * Counts the collisions per invocation, reported next to the time.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Collisions {
+        public long collisions;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            this.collisions = 0;
+        }
+    }
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        Random random = new Random(BenchmarkFixtures.SEED);
+        this.model = new AquariumModelImpl();
+        this.model.setAquariumDimensions(BenchmarkFixtures.WIDTH, BenchmarkFixtures.HEIGHT);
+        BenchmarkFixtures.addObstacles(this.model, Amount.NORMAL, random);
+        this.directions = new Vector2D[this.population];
+        this.moveX = new double[this.population];
+        this.moveY = new double[this.population];
+        for (int i = 0; i < this.population; i++) {
+            double weight = BenchmarkFixtures.randomWeight(random);
+            // Enough energy for the fish never to starve during an iteration.
+            this.model.addFish(BenchmarkFixtures.fishName(i), weight, Double.MAX_VALUE / 2, Double.MAX_VALUE, BenchmarkFixtures.randomPosition(random));
+            this.directions[i] = Vector2D.of(1, 0).rotateBy(random.nextDouble() * 2 * Math.PI);
+        }
+    }
+
+    @Benchmark
+    public void tick(Collisions counters) {
+        for (int i = 0; i < this.population; i++) {
+            String name = BenchmarkFixtures.fishName(i);
+            Fish fish = this.model.getAgent(name);
+            Vector2D direction = this.bounce(fish, this.directions[i]);
+            Vector2D velocity = this.steer(name, fish, direction);
+            double throttle = Math.min(1, velocity.getLength());
+            if (throttle > 0) {
+                direction = this.bounce(fish, velocity.normalize());
+            }
+            this.directions[i] = direction;
+            this.moveX[i] = direction.getX() * throttle;
+            this.moveY[i] = direction.getY() * throttle;
+            if (!this.batchedMoves) {
+                this.model.moveTowards(name, this.moveX[i], this.moveY[i], Speed.NORMAL);
+            }
+        }
+        if (this.batchedMoves) {
+            for (int i = 0; i < this.population; i++) {
+                this.model.moveTowards(BenchmarkFixtures.fishName(i), this.moveX[i], this.moveY[i], Speed.NORMAL);
+            }
+        }
+        for (int i = 0; i < this.population; i++) {
+            String name = BenchmarkFixtures.fishName(i);
+            Fish fish = this.model.getAgent(name);
+            for (Fish other : this.model.getNearestFish(name, 1)) {
+                if (Math.hypot(other.getX() - fish.getX(), other.getY() - fish.getY()) < (fish.getSize() + other.getSize()) / 2) {
+                    counters.collisions++;
+                }
+            }
+        }
+    }
+
+    /**
+     * Steers a fish like `utils.steer` does once it bounced off the walls.
+     *
+     * @return The new direction, whose length is the fraction of its normal speed the fish keeps.
+     */
+    private Vector2D steer(String name, Fish fish, Vector2D direction) {
+        AvoidanceSolver solver = new AvoidanceSolver(fish.getSize() / 2);
+        double x = fish.getX();
+        double y = fish.getY();
+        int limit = SimAquariumEnvironment.DEFAULT_PERCEIVED_OBSTACLES;
+        for (Obstacle o : this.model.getNearestObstacles(name, limit)) {
+            solver.addObstacle(o.getX() - x, o.getY() - y, o.getRadius());
+        }
+        if (this.mode == AvoidanceMode.STATIC) {
+            for (Fish f : this.model.getNearestFish(name, limit)) {
+                solver.addObstacle(f.getX() - x, f.getY() - y, f.getSize() / 2);
+            }
+            return solver.solve(direction);
+        }
+        double speed = fish.getBaseSpeed() * Speed.NORMAL.getSpeed();
+        Vector2D velocity = fish.getDirection().times(speed);
+        for (Fish f : this.model.getNearestFish(name, limit, SimAquariumEnvironment.neighbourRange(fish))) {
+            double neighbourSpeed = f.getBaseSpeed() * Speed.NORMAL.getSpeed();
+            solver.addNeighbour(f.getX() - x, f.getY() - y, f.getSize() / 2, f.getDirX() * neighbourSpeed, f.getDirY() * neighbourSpeed, velocity);
+        }
+        return solver.solveVelocity(direction.times(speed), velocity).times(1 / speed);
+    }
+
+    /**
+     * Turns back a fish about to leave the aquarium, like `utils.check_aquarium_borders`.
+     */
+    private Vector2D bounce(Fish fish, Vector2D direction) {
+        double step = fish.getBaseSpeed() * Speed.NORMAL.getSpeed();
+        double nextX = fish.getX() + direction.getX() * step;
+        double nextY = fish.getY() + direction.getY() * step;
+        double dx = direction.getX();
+        double dy = direction.getY();
+        if (nextX < 0 || nextX > this.model.getWidth()) {
+            dx = -dx;
+        }
+        if (nextY < 0 || nextY > this.model.getHeight()) {
+            dy = -dy;
+        }
+        return Vector2D.of(dx, dy);
+    }
+}
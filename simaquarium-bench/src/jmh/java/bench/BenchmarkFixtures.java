@@ -0,0 +1,60 @@
+package bench;
+
+import java.util.Random;
+
+import env.SimAquariumEnvironment;
+import env.model.Amount;
+import env.model.AquariumModel;
+import env.model.Position;
+
+/**
+ * The `BenchmarkFixtures` class builds the seeded aquarium scenarios shared by the benchmarks,
+ * so that every run measures exactly the same population, obstacles and food layout.
+ */
+final class BenchmarkFixtures {
+    static final long SEED = 42;
+    static final int WIDTH = 600;
+    static final int HEIGHT = 520;
+    static final int FOOD_DROPS_IN_TANK = 4;
+    private static final int MIN_WEIGHT = 30;
+    private static final int MAX_WEIGHT = 120;
+
+    private BenchmarkFixtures() {
+    }
+
+    /**
+     * Retrieves the name Jason gives to the i-th agent of the `fish #N` declaration.
+     */
+    static String fishName(int index) {
+        return "fish" + (index + 1);
+    }
+
+    /**
+     * Retrieves a random weight in the range used by `utils.agent_init`.
+     */
+    static double randomWeight(Random random) {
+        return MIN_WEIGHT + random.nextDouble() * (MAX_WEIGHT - MIN_WEIGHT);
+    }
+
+    static Position randomPosition(Random random) {
+        return new Position(random.nextDouble() * WIDTH, random.nextDouble() * HEIGHT);
+    }
+
+    /**
+     * Places the obstacles the environment would create for the given amount.
+     */
+    static void addObstacles(AquariumModel model, Amount obstacles, Random random) {
+        for (int i = 0; i < SimAquariumEnvironment.numberOfObstaclesFor(obstacles); i++) {
+            model.addObstacle(randomPosition(random), (random.nextDouble() * 0.1 + 0.02) * HEIGHT);
+        }
+    }
+
+    /**
+     * Scatters the food of a few drops of the given amount across the aquarium.
+     */
+    static void addFood(AquariumModel model, Amount food, Random random) {
+        for (int i = 0; i < SimAquariumEnvironment.foodQuantityFor(food) * FOOD_DROPS_IN_TANK; i++) {
+            model.addFood(randomPosition(random));
+        }
+    }
+}
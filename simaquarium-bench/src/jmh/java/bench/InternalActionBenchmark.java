@@ -0,0 +1,119 @@
+package bench;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import env.SimAquariumEnvironment;
+import env.model.Amount;
+import jason.architecture.AgArch;
+import jason.asSemantics.Agent;
+import jason.asSemantics.TransitionSystem;
+import jason.asSemantics.Unifier;
+import jason.asSyntax.ASSyntax;
+import jason.asSyntax.ListTerm;
+import jason.asSyntax.ListTermImpl;
+import jason.asSyntax.Literal;
+import jason.asSyntax.Term;
+import utils.AgentState;
+import utils.FishAgent;
+import utils.avoid_obstacles;
+import utils.check_aquarium_borders;
+import utils.find_nearest;
+import utils.steer;
+
+/**
+ * Measures the steering internal actions run by every `!step` of a fish, against a standalone agent
+ * whose beliefs mimic a fish surrounded by the perceived obstacles and food.
+ * The steering actions rewrite the direction of the fish, so it is reset before each call to keep the
+ * workload identical across invocations.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class InternalActionBenchmark {
+    private static final Literal INITIAL_DIRECTION = Literal.parseLiteral("direction(1, 0)");
+    private static final double PERCEPTION_RANGE = 100;
+
+    @Param({"LITTLE", "NORMAL", "MANY"})
+    Amount obstacles;
+
+    @Param({"LITTLE", "NORMAL", "MANY"})
+    Amount food;
+
+    private final avoid_obstacles avoidObstacles = new avoid_obstacles();
+    private final find_nearest findNearest = new find_nearest();
+    private final check_aquarium_borders checkAquariumBorders = new check_aquarium_borders();
+    private final steer steer = new steer();
+    private Agent agent;
+    private TransitionSystem ts;
+    private Term[] obstacleArgs;
+    private Term[] foodArgs;
+    private final Term[] noArgs = new Term[0];
+
+    @Setup
+    public void setUp() throws Exception {
+        Random random = new Random(BenchmarkFixtures.SEED);
+        this.agent = new FishAgent();
+        this.agent.initAg();
+        this.ts = new TransitionSystem(this.agent, null, null, new AgArch());
+        this.agent.addBel(INITIAL_DIRECTION);
+        this.agent.addBel(Literal.parseLiteral("half_size(15)"));
+        this.agent.addBel(Literal.parseLiteral("weight(60)"));
+        this.agent.addBel(Literal.parseLiteral("borders([border(left, 4), border(top, 6)])"));
+
+        ListTerm obstacleList = new ListTermImpl();
+        for (int i = 0; i < SimAquariumEnvironment.numberOfObstaclesFor(this.obstacles); i++) {
+            obstacleList.add(ASSyntax.createLiteral("obstacle", relativeCoordinate(random), relativeCoordinate(random),
+                ASSyntax.createNumber(5 + random.nextDouble() * 40)));
+        }
+        this.obstacleArgs = new Term[]{obstacleList};
+        this.agent.addBel(ASSyntax.createLiteral("obstacles", obstacleList));
+
+        ListTerm foodList = new ListTermImpl();
+        for (int i = 0; i < SimAquariumEnvironment.foodQuantityFor(this.food) * BenchmarkFixtures.FOOD_DROPS_IN_TANK; i++) {
+            foodList.add(ASSyntax.createLiteral("food_elem", relativeCoordinate(random), relativeCoordinate(random),
+                ASSyntax.createAtom("food" + i)));
+        }
+        this.foodArgs = new Term[]{foodList};
+    }
+
+    private static Term relativeCoordinate(Random random) {
+        return ASSyntax.createNumber((random.nextDouble() * 2 - 1) * PERCEPTION_RANGE);
+    }
+
+    private void resetDirection() {
+        AgentState.of(this.ts).setDirection(1, 0);
+    }
+
+    @Benchmark
+    public Object avoidObstacles() throws Exception {
+        this.resetDirection();
+        return this.avoidObstacles.execute(this.ts, new Unifier(), this.obstacleArgs);
+    }
+
+    @Benchmark
+    public Object findNearest() throws Exception {
+        return this.findNearest.execute(this.ts, new Unifier(), this.foodArgs);
+    }
+
+    @Benchmark
+    public Object checkAquariumBorders() throws Exception {
+        this.resetDirection();
+        return this.checkAquariumBorders.execute(this.ts, new Unifier(), this.noArgs);
+    }
+
+    @Benchmark
+    public Object steer() throws Exception {
+        this.resetDirection();
+        return this.steer.execute(this.ts, new Unifier(), this.noArgs);
+    }
+}
@@ -0,0 +1,80 @@
+package bench;
+
+import java.util.Collection;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import env.model.Amount;
+import env.model.AquariumModelImpl;
+import env.model.Fish;
+
+/**
+ * Measures the `AquariumModelImpl` queries hit by every perception and action cycle.
+ * Each invocation targets the next fish in turn, so that the whole population is covered.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ModelQueryBenchmark {
+    @Param({"10", "100", "1000"})
+    int population;
+
+    @Param({"LITTLE", "NORMAL", "MANY"})
+    Amount obstacles;
+
+    @Param({"LITTLE", "NORMAL", "MANY"})
+    Amount food;
+
+    private AquariumModelImpl model;
+    private int cursor;
+    private long nextFoodId;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(BenchmarkFixtures.SEED);
+        this.model = new AquariumModelImpl();
+        this.model.setAquariumDimensions(BenchmarkFixtures.WIDTH, BenchmarkFixtures.HEIGHT);
+        BenchmarkFixtures.addObstacles(this.model, this.obstacles, random);
+        for (int i = 0; i < this.population; i++) {
+            double weight = BenchmarkFixtures.randomWeight(random);
+            this.model.addFish(BenchmarkFixtures.fishName(i), weight, weight * 5, weight * 5, BenchmarkFixtures.randomPosition(random));
+        }
+        BenchmarkFixtures.addFood(this.model, this.food, random);
+        this.nextFoodId = this.model.getAllFood().size();
+        this.cursor = 0;
+    }
+
+    private String nextAgent() {
+        this.cursor = (this.cursor + 1) % this.population;
+        return BenchmarkFixtures.fishName(this.cursor);
+    }
+
+    @Benchmark
+    public Collection<Fish> getNearbyFish() {
+        return this.model.getNearbyFish(this.nextAgent());
+    }
+
+    @Benchmark
+    public double getFairnessIndex() {
+        return this.model.getFairnessIndex();
+    }
+
+    /**
+     * Drops a piece of food on a fish and lets it eat it. The model assigns food ids sequentially.
+     */
+    @Benchmark
+    public boolean eat() {
+        String agent = this.nextAgent();
+        this.model.addFood(this.model.getAgent(agent).getPosition());
+        return this.model.eat(agent, "food" + this.nextFoodId++);
+    }
+}
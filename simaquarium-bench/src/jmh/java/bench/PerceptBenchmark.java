@@ -0,0 +1,98 @@
+package bench;
+
+import java.util.Collection;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import env.SimAquariumEnvironment;
+import env.model.Amount;
+import env.model.Speed;
+import jason.asSyntax.Literal;
+import jason.asSyntax.Structure;
+
+/**
+ * Measures `SimAquariumEnvironment.getPercepts` on a headless environment whose engine is stopped, so that the
+ * aquarium only changes when a benchmark changes it. Percepts are cached per agent, hence three cases:
+ * - `getPercepts`: nothing changed, the cached percepts are kept;
+ * - `getPerceptsAfterMove`: the fish moved, so its percepts are recomputed and only the changed ones re-published;
+ * - `getPerceptsFromScratch`: the percepts are forgotten, so they are all recomputed and published again.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class PerceptBenchmark {
+    @Param({"10", "100", "1000"})
+    int population;
+
+    @Param({"LITTLE", "NORMAL", "MANY"})
+    Amount obstacles;
+
+    @Param({"LITTLE", "NORMAL", "MANY"})
+    Amount food;
+
+    private SimAquariumEnvironment environment;
+    private int cursor;
+    private int pass;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(BenchmarkFixtures.SEED);
+        this.environment = new SimAquariumEnvironment();
+        this.environment.init(new String[]{this.food.toString(), this.obstacles.toString(), SimAquariumEnvironment.HEADLESS,
+            String.valueOf(BenchmarkFixtures.WIDTH), String.valueOf(BenchmarkFixtures.HEIGHT), "0",
+            String.valueOf(BenchmarkFixtures.SEED)});
+        this.environment.getEngine().stop();
+        for (int i = 0; i < this.population; i++) {
+            double weight = BenchmarkFixtures.randomWeight(random);
+            Structure init = (Structure) Literal.parseLiteral(String.format("init(%d, %d, %d)", (int) weight, (int) weight * 5, (int) weight * 5));
+            this.environment.executeAction(BenchmarkFixtures.fishName(i), init);
+        }
+        BenchmarkFixtures.addFood(this.environment.getModel(), this.food, random);
+        this.cursor = 0;
+    }
+
+    @TearDown
+    public void tearDown() {
+        this.environment.stop();
+    }
+
+    private String nextAgent() {
+        this.cursor = (this.cursor + 1) % this.population;
+        if (this.cursor == 0) {
+            this.pass++;
+        }
+        return BenchmarkFixtures.fishName(this.cursor);
+    }
+
+    @Benchmark
+    public Collection<Literal> getPercepts() {
+        return this.environment.getPercepts(this.nextAgent());
+    }
+
+    /**
+     * Moves the fish back and forth on alternate passes over the population, so that it stays in place on average.
+     */
+    @Benchmark
+    public Collection<Literal> getPerceptsAfterMove() {
+        String agent = this.nextAgent();
+        this.environment.getModel().moveTowards(agent, (this.pass & 1) == 0 ? 1 : -1, 0, Speed.SLOW);
+        return this.environment.getPercepts(agent);
+    }
+
+    @Benchmark
+    public Collection<Literal> getPerceptsFromScratch() {
+        String agent = this.nextAgent();
+        this.environment.resetPercepts(agent);
+        return this.environment.getPercepts(agent);
+    }
+}
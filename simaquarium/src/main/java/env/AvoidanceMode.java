@@ -0,0 +1,28 @@
+package env;
+
+import java.util.Locale;
+
+/**
+ * The `AvoidanceMode` enum selects how fish perceive each other, hence how they avoid each other.
+ */
+public enum AvoidanceMode {
+    /** Other fish are perceived as static obstacles in the `obstacles` percept, and steered around like rocks. */
+    STATIC,
+    /**
+     * Other fish are perceived with their velocity in a separate `neighbours` percept, so `utils.steer` picks a
+     * velocity that stays clear of where they are going, in the manner of ORCA (optimal reciprocal collision avoidance),
+     * slowing the fish down if need be.
+     */
+    VELOCITY;
+
+    public static final String PROPERTY = "simaquarium.avoidance";
+
+    /**
+     * Retrieves the mode set by the `simaquarium.avoidance` system property, e.g. `-Dsimaquarium.avoidance=velocity`.
+     *
+     * @return The mode, {@link #STATIC} by default.
+     */
+    public static AvoidanceMode fromSystemProperty() {
+        return valueOf(System.getProperty(PROPERTY, STATIC.name()).toUpperCase(Locale.ROOT));
+    }
+}
@@ -0,0 +1,66 @@
+package env;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.Consumer;
+
+import env.model.Speed;
+import jason.asSyntax.Structure;
+
+/**
+ * The `MoveBatch` class collects the `move_towards` actions requested by the agents during a tick, so that the engine
+ * applies all of them in a single pass at the end of the tick instead of one executor task per action.
+ */
+class MoveBatch {
+
+    /**
+     * The `Move` class is a queued `move_towards` action, with what is needed to report its outcome to the agent.
+     */
+    static final class Move {
+        final String agent;
+        final double x;
+        final double y;
+        final Speed speed;
+        final Structure action;
+        final Object infraData;
+
+        Move(String agent, double x, double y, Speed speed, Structure action, Object infraData) {
+            this.agent = agent;
+            this.x = x;
+            this.y = y;
+            this.speed = speed;
+            this.action = action;
+            this.infraData = infraData;
+        }
+    }
+
+    private final Queue<Move> queue = new ConcurrentLinkedQueue<>();
+
+    /**
+     * Queues a move. Can be called from any thread.
+     *
+     * @param move The move to queue.
+     */
+    void add(Move move) {
+        this.queue.add(move);
+    }
+
+    /**
+     * Hands every queued move to the consumer, in the order they were queued, and empties the batch.
+     *
+     * @param consumer The consumer applying the moves.
+     * @return The number of moves drained.
+     */
+    int drain(Consumer<Move> consumer) {
+        int drained = 0;
+        for (Move move = this.queue.poll(); move != null; move = this.queue.poll()) {
+            consumer.accept(move);
+            drained++;
+        }
+        return drained;
+    }
+
+    int size() {
+        return this.queue.size();
+    }
+}
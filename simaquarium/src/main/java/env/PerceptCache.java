@@ -0,0 +1,72 @@
+package env;
+
+import java.util.Objects;
+import java.util.function.Consumer;
+
+import jason.asSyntax.Literal;
+
+/**
+ * The `PerceptCache` class remembers the percepts last published for an agent, together with the
+ * position of the agent, the perception version of the model and the pause state they were computed for.
+ * The environment only recomputes the percepts of an agent when any of them changes, and then
+ * publishes the literals that actually differ from the previous ones.
+ */
+class PerceptCache {
+    private final Literal[] slots;
+    private long version = -1;
+    private double x = Double.NaN;
+    private double y = Double.NaN;
+    private boolean paused;
+
+    /**
+     * Constructs an empty cache with a fixed number of percept slots.
+     *
+     * @param size The number of percepts the environment publishes per agent.
+     */
+    PerceptCache(int size) {
+        this.slots = new Literal[size];
+    }
+
+    /**
+     * Checks whether the cached percepts were computed for the given state.
+     *
+     * @param version The current perception version of the agent.
+     * @param x The current x-coordinate of the agent.
+     * @param y The current y-coordinate of the agent.
+     * @param paused Whether the simulation is paused.
+     * @return True if the percepts do not need to be recomputed.
+     */
+    boolean isUpToDate(long version, double x, double y, boolean paused) {
+        return this.version == version && this.x == x && this.y == y && this.paused == paused;
+    }
+
+    /**
+     * Replaces the cached percepts, reporting only the literals that changed.
+     *
+     * @param version The perception version the percepts were computed at.
+     * @param x The x-coordinate of the agent the percepts were computed at.
+     * @param y The y-coordinate of the agent the percepts were computed at.
+     * @param paused Whether the simulation is paused.
+     * @param fresh The new percepts, one per slot, null for an absent percept.
+     * @param removed Invoked with every stale literal.
+     * @param added Invoked with every new literal.
+     */
+    void update(long version, double x, double y, boolean paused, Literal[] fresh, Consumer<Literal> removed, Consumer<Literal> added) {
+        for (int i = 0; i < this.slots.length; i++) {
+            if (Objects.equals(this.slots[i], fresh[i])) {
+                continue;
+            }
+            if (this.slots[i] != null) {
+                removed.accept(this.slots[i]);
+            }
+            if (fresh[i] != null) {
+                added.accept(fresh[i]);
+            }
+            this.slots[i] = fresh[i];
+        }
+        this.version = version;
+        this.x = x;
+        this.y = y;
+        this.paused = paused;
+    }
+}
@@ -1,261 +1,614 @@
 package env;
 
 import jason.NoValueException;
-import jason.asSemantics.Unifier;
+import jason.asSyntax.ASSyntax;
+import jason.asSyntax.Atom;
 import jason.asSyntax.ListTerm;
 import jason.asSyntax.ListTermImpl;
 import jason.asSyntax.Literal;
+import jason.asSyntax.NumberTermImpl;
 import jason.asSyntax.Structure;
 import jason.environment.Environment;
 
 import static utils.Utils.*;
 
+import java.io.IOException;
+import java.nio.file.Path;
 import java.util.Collection;
+import java.util.EnumMap;
 import java.util.List;
 import java.util.Locale;
+import java.util.Map;
 import java.util.Optional;
-import java.util.Random;
-import java.util.stream.Collectors;
-import java.util.stream.Stream;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongConsumer;
 
 import env.model.Amount;
 import env.model.AquariumModel;
 import env.model.AquariumModelImpl;
+import env.model.Direction;
 import env.model.DomainEvent;
+import env.model.EventJournal;
 import env.model.Fish;
+import env.model.Food;
+import env.model.Obstacle;
 import env.model.Pair;
 import env.model.Position;
 import env.model.Speed;
-import env.model.Vector2D;
+import env.model.TrajectoryRecorder;
 import env.view.FishSimulationApp;
+import utils.RandomStreams;
+import utils.SimulationMetrics;
 
 public class SimAquariumEnvironment extends Environment {
-    private static final Random RAND = new Random();
-    private Thread foodSimulationThread;
-    private boolean paused;
+    public static final String HEADLESS = "headless";
+    /** The system property naming the file every tick is recorded to from the start, see {@link #startRecording(Path)}. */
+    public static final String RECORD_PROPERTY = "simaquarium.record";
+    public static final int DEFAULT_HEADLESS_WIDTH = 600;
+    public static final int DEFAULT_HEADLESS_HEIGHT = 520;
+    private static final int PERCEPT_SLOTS = 6;
+    public static final int DEFAULT_PERCEIVED_OBSTACLES = 8;
+    /** The system property overriding {@link #DEFAULT_PERCEIVED_OBSTACLES}, see {@link #setPerceivedObstacles(int)}. */
+    public static final String PERCEIVED_OBSTACLES_PROPERTY = "simaquarium.perceivedObstacles";
+    /** How many ticks of swimming at normal speed away from a fish its neighbours are perceived, in velocity mode. */
+    public static final int NEIGHBOUR_RANGE_TICKS = 2;
+    private final Map<String, PerceptCache> perceptCaches = new ConcurrentHashMap<>();
+    private final MoveBatch moves = new MoveBatch();
+    private Thread engineThread;
+    private SimulationEngine engine;
+    private TrajectoryRecorder recorder;
+    private LongConsumer recordingListener;
+    private RandomStreams streams;
+    private SplittableRandom random;
+    private volatile boolean paused;
+    private volatile int perceivedObstacles = DEFAULT_PERCEIVED_OBSTACLES;
+    private volatile AvoidanceMode avoidanceMode = AvoidanceMode.fromSystemProperty();
     private int foodQuantity;
     private int numberOfObstacles;
 
-    // Action literals.
-    public static final Literal moveTowards = Literal.parseLiteral("move_towards(X, Y, Speed)");
-    public static final Literal eat = Literal.parseLiteral("eat(Food)");
-    public static final Literal die = Literal.parseLiteral("die");
-    public static final Literal init = Literal.parseLiteral("init(Weight, Energy, MaxEnergy)");
+    // Action functors, dispatched on with a switch instead of unifying the action with a literal per action:
+    // init(Weight, Energy, MaxEnergy), move_towards(X, Y, Speed), eat(Food) and die.
+    private static final String INIT = "init";
+    private static final String MOVE_TOWARDS = "move_towards";
+    private static final String EAT = "eat";
+    private static final String DIE = "die";
+
+    // Percept functors and constant terms, built once instead of formatted and parsed on every cycle.
+    private static final String FOOD = "food";
+    private static final String FOOD_ELEM = "food_elem";
+    private static final String CLOSE_TO_FOOD = "close_to_food";
+    private static final String OBSTACLES = "obstacles";
+    private static final String OBSTACLE = "obstacle";
+    private static final String NEIGHBOURS = "neighbours";
+    private static final String NEIGHBOUR = "fish";
+    private static final String BORDERS = "borders";
+    private static final String BORDER = "border";
+    // The percept is the same literal every time, so it is built once, like the border atoms below.
+    private static final Literal PAUSED = Literal.parseLiteral("paused");
+    private static final Map<Direction, Atom> BORDER_ATOMS = new EnumMap<>(Direction.class);
+    private static final SimulationMetrics.Timer GET_PERCEPTS_TIMER = SimulationMetrics.timer("env.getPercepts");
+    private static final SimulationMetrics.Timer APPLY_MOVES_TIMER = SimulationMetrics.timer("env.applyMoves");
+    private static final String EXECUTE_ACTION_TIMER = "env.executeAction.";
+    private static final SimulationMetrics.Timer INIT_TIMER = SimulationMetrics.timer(EXECUTE_ACTION_TIMER + INIT);
+    private static final SimulationMetrics.Timer MOVE_TOWARDS_TIMER = SimulationMetrics.timer(EXECUTE_ACTION_TIMER + MOVE_TOWARDS);
+    private static final SimulationMetrics.Timer EAT_TIMER = SimulationMetrics.timer(EXECUTE_ACTION_TIMER + EAT);
+    private static final SimulationMetrics.Timer DIE_TIMER = SimulationMetrics.timer(EXECUTE_ACTION_TIMER + DIE);
+    private static final SimulationMetrics.Timer UNKNOWN_ACTION_TIMER = SimulationMetrics.timer(EXECUTE_ACTION_TIMER + "unknown");
+    static {
+        for (Direction d : Direction.values()) {
+            BORDER_ATOMS.put(d, new Atom(d.toString().toLowerCase()));
+        }
+    }
 
     private AquariumModel model;
     FishSimulationApp view;
 
-    private Position getRandomPositionInsideAquarium(){
-        return new Position(RAND.nextDouble() * this.model.getWidth(), RAND.nextDouble() * this.model.getHeight());
+    private Position getRandomPositionInsideAquarium(SplittableRandom random){
+        return new Position(random.nextDouble() * this.model.getWidth(), random.nextDouble() * this.model.getHeight());
     }
 
-    @Override
-    public void init(final String[] args) {
-        switch (Amount.valueOf(args[0])) {
+    /**
+     * Retrieves the number of food pieces dropped at once for the given amount.
+     *
+     * @param amount The amount of food.
+     * @return The number of food pieces per drop.
+     */
+    public static int foodQuantityFor(Amount amount) {
+        switch (amount) {
             case LITTLE:
-                this.foodQuantity = 3;
-                break;
+                return 3;
             case MANY:
-                this.foodQuantity = 10;
-                break;
+                return 10;
             default:
-                this.foodQuantity = 5;
-                break;
+                return 5;
         }
-        
-        switch (Amount.valueOf(args[1])) {
+    }
+
+    /**
+     * Retrieves the number of obstacles placed in the aquarium for the given amount.
+     *
+     * @param amount The amount of obstacles.
+     * @return The number of obstacles.
+     */
+    public static int numberOfObstaclesFor(Amount amount) {
+        switch (amount) {
             case LITTLE:
-                this.numberOfObstacles = 5;
-                break;
+                return 5;
             case MANY:
-                this.numberOfObstacles = 20;
-                break;
+                return 20;
             default:
-                this.numberOfObstacles = 10;
-                break;
+                return 10;
         }
+    }
+
+    @Override
+    public void init(final String[] args) {
+        this.foodQuantity = foodQuantityFor(Amount.valueOf(args[0]));
+        this.numberOfObstacles = numberOfObstaclesFor(Amount.valueOf(args[1]));
+        // Optional headless arguments: headless, width, height, tick duration in ms (0 = as fast as possible),
+        // then seed and number of agents for a reproducible lock-step run, then avoidance mode.
+        boolean headless = args.length > 2 && HEADLESS.equals(args[2]);
+        long tickMillis = args.length > 5 ? Long.parseLong(args[5]) : SimulationClock.SIMULATED_TICK_MILLIS;
+        // MAS parameters are Jason numbers, i.e. doubles: the seed may come formatted as such.
+        long seed = args.length > 6 ? (long) Double.parseDouble(args[6]) : new SplittableRandom().nextLong();
+        int lockStepAgents = args.length > 7 ? Integer.parseInt(args[7]) : 0;
+        if (args.length > 8) {
+            this.setAvoidanceMode(AvoidanceMode.valueOf(args[8].toUpperCase(Locale.ROOT)));
+        }
+        this.streams = new RandomStreams(seed);
+        RandomStreams.setCurrent(this.streams);
+        this.random = this.streams.forKey(RandomStreams.ENVIRONMENT);
+        this.setPerceivedObstacles(Integer.getInteger(PERCEIVED_OBSTACLES_PROPERTY, DEFAULT_PERCEIVED_OBSTACLES));
+
         Locale.setDefault(Locale.UK);
-        this.model = new AquariumModelImpl();
+        AquariumModelImpl model = new AquariumModelImpl(EventJournal.fromSystemProperty());
+        this.model = model;
         this.model.setFoodQuantity(foodQuantity);
-        this.view = new FishSimulationApp(this.model, this);
-        this.view.setVisible(true);
-        this.model.setAquariumDimensions(this.view.getPanelWidth(), this.view.getPanelHeight());
+        SimulationMetrics.gauge("model.fish", () -> model.getStatistics().getFishAlive());
+        SimulationMetrics.gauge("model.food", () -> model.getAllFood().size());
+        SimulationMetrics.gauge("model.events", () -> model.getEventJournal().getRecordedEvents());
+        if (headless) {
+            int width = args.length > 3 ? Integer.parseInt(args[3]) : DEFAULT_HEADLESS_WIDTH;
+            int height = args.length > 4 ? Integer.parseInt(args[4]) : DEFAULT_HEADLESS_HEIGHT;
+            this.model.setAquariumDimensions(width, height);
+        } else {
+            this.view = new FishSimulationApp(this.model, this);
+            this.view.setVisible(true);
+            this.model.setAquariumDimensions(this.view.getPanelWidth(), this.view.getPanelHeight());
+        }
         this.paused = false;
         for (int i = 0; i < this.numberOfObstacles; i++){
-            this.model.addObstacle(this.getRandomPositionInsideAquarium(), (RAND.nextDouble() * 0.1 + 0.02) * this.model.getHeight());
+            this.model.addObstacle(this.getRandomPositionInsideAquarium(this.random), (this.random.nextDouble() * 0.1 + 0.02) * this.model.getHeight());
         }
-        this.foodSimulationThread = new Thread(new Runnable(){
-            @Override
-            public void run() {
-                long untilNextFoodDrop = 5000;
-                long lastCycle = System.currentTimeMillis();
-                while (true) { 
-                    long time = System.currentTimeMillis();
-                    if(!paused) {
-                        untilNextFoodDrop -= time-lastCycle;
-                        lastCycle = time;
-                        if (untilNextFoodDrop <= 0) {
-                            untilNextFoodDrop += 10000;
-                            for(int i = 0; i < foodQuantity; i++){
-                                model.addFood(new Position((RAND.nextDouble() * 0.8 + 0.1) * model.getWidth(), 0));
-                            }
-                            notifyModelChangedToView(Optional.of(DomainEvent.of("Food dropped")));
-                        } 
-                        model.sinkStep();
-                    }
-                    try {
-                        Thread.sleep(200);
-                    } catch (InterruptedException e) {
-                        e.printStackTrace();
-                    }
-                }
+        SimulationClock clock = lockStepAgents > 0 ? SimulationClock.lockStep(lockStepAgents) : new SimulationClock(tickMillis);
+        SimulationClock.setCurrent(clock);
+        this.engine = new SimulationEngine(this.model, clock, this.streams.forKey(RandomStreams.ENGINE),
+            () -> notifyModelChangedToView(Optional.of(DomainEvent.of("Food dropped"))));
+        if (!clock.isLockStep()) {
+            this.engine.addEndOfTickTask(this::applyMoves);
+        }
+        if (this.view != null) {
+            this.model.publishFrame(clock.getTick());
+            this.engine.addTickListener(this.model::publishFrame);
+        }
+        String recording = System.getProperty(RECORD_PROPERTY);
+        if (recording != null) {
+            try {
+                this.startRecording(Path.of(recording));
+            } catch (IOException e) {
+                e.printStackTrace();
             }
-        });
-        this.foodSimulationThread.start();
+        }
+        this.engineThread = new Thread(this.engine, "simulation-engine");
+        this.engineThread.setDaemon(true);
+        this.engineThread.start();
+    }
+
+    @Override
+    public void stop() {
+        if (this.engine != null) {
+            this.engine.stop();
+        }
+        this.stopRecording();
+        super.stop();
+    }
+
+    /**
+     * Starts recording the state of the aquarium at every tick, replacing any recording in progress.
+     * Frames are written by the engine thread, so agents never wait for the recorder.
+     *
+     * @param file The file to record to.
+     * @throws IOException If the file cannot be created.
+     */
+    public synchronized void startRecording(Path file) throws IOException {
+        this.stopRecording();
+        TrajectoryRecorder recorder = new TrajectoryRecorder(file);
+        this.recorder = recorder;
+        this.recordingListener = tick -> {
+            try {
+                this.model.recordFrame(recorder, tick);
+            } catch (IOException e) {
+                e.printStackTrace();
+                this.abortRecording(recorder);
+            }
+        };
+        this.engine.addTickListener(this.recordingListener);
+    }
+
+    private synchronized void abortRecording(TrajectoryRecorder failed) {
+        if (this.recorder == failed) {
+            this.stopRecording();
+        }
+    }
+
+    /**
+     * Stops the recording in progress, if any, and closes its file.
+     */
+    public synchronized void stopRecording() {
+        if (this.recorder == null) {
+            return;
+        }
+        if (this.engine != null) {
+            this.engine.removeTickListener(this.recordingListener);
+        }
+        this.recordingListener = null;
+        try {
+            this.recorder.close();
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+        this.recorder = null;
     }
 
     private void notifyModelChangedToView(Optional<DomainEvent> event) {
-        view.notifyModelChanged(event);
+        if (view != null) {
+            view.notifyModelChanged(event);
+        }
     }
 
+    /**
+     * Retrieves the percepts of an agent. They are only recomputed when the model reports that something the agent
+     * perceives has changed, and only the differing literals are re-published through `addPercept`/`removePercept`.
+     * As with any Jason environment, null is returned when the agent's percepts did not change since the last call.
+     */
     @Override
     public Collection<Literal> getPercepts(String agName) {
         if(!this.model.containsAgent(agName)){
             return List.of();
         }
-        return Stream.of(
-                pausePercept(),
-                foodInRangePercept(agName),
-                closestFoodPercept(agName),
-                obstaclePercept(agName),
-                borderPercept(agName)
-        ).flatMap(Collection::stream)
-        .collect(Collectors.toList());
-    }
-
-    private Collection<Literal> borderPercept(String agent) {
-        Fish fish = model.getAgent(agent);
-        var borders = model.getNearbyBorders(agent)
-            .stream()
-            .map(b -> {
-                double distance;
-                switch (b) {
-                    case TOP:
-                        distance = fish.getY();
-                        break;
-                    case BOTTOM:
-                        distance = model.getHeight() - fish.getY();
-                        break;
-                    case LEFT:
-                        distance = fish.getX();
-                        break;
-                    default:
-                        distance = model.getWidth() - fish.getX();
-                        break;
-                }
-                return Literal.parseLiteral(String.format("border(%s,%f)", b.toString().toLowerCase(), distance));
-            })
-            .collect(ListTermImpl::new, ListTerm::add, ListTerm::addAll);
-        return Stream.of(Literal.parseLiteral(String.format("borders(%s)", borders))).collect(Collectors.toList());
-    }
-
-    private Collection<Literal> foodInRangePercept(String agent) {
-        Fish fish = this.model.getAgent(agent);
-
-        var coordinates = model.getNearbyFood(agent)
-            .stream()
-            .map(f -> Literal.parseLiteral(String.format("food_elem(%f,%f,%s)", f.getPosition().getX() - fish.getX(), f.getPosition().getY() - fish.getY(), f.getId())))
-            .collect(ListTermImpl::new, ListTerm::add, ListTerm::addAll);
-        return Stream.of(Literal.parseLiteral(String.format("food(%s)", coordinates))).collect(Collectors.toList());
-    }
-
-    private Collection<Literal> pausePercept() {
-        Literal paused = Literal.parseLiteral("paused");
-        return this.paused ? List.of(paused) : List.of();
-    }
-
-    private Collection<Literal> closestFoodPercept(String agent) {
+        try {
+            this.engine.getClock().awaitTurn(agName);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        }
+        // Timed after the turn, so the lock-step wait is not mistaken for percept generation.
+        long start = SimulationMetrics.start();
+        try {
+            return this.updatePercepts(agName);
+        } finally {
+            GET_PERCEPTS_TIMER.stop(start);
+        }
+    }
+
+    private Collection<Literal> updatePercepts(String agName) {
+        PerceptCache cache = this.perceptCaches.computeIfAbsent(agName, k -> new PerceptCache(PERCEPT_SLOTS));
+        synchronized(cache){
+            boolean paused = this.paused;
+            Fish fish = this.model.getAgent(agName);
+            double x = fish.getX();
+            double y = fish.getY();
+            long version = this.avoidanceMode == AvoidanceMode.VELOCITY
+                ? this.model.getPerceptionVersion(agName, neighbourRange(fish))
+                : this.model.getPerceptionVersion(agName);
+            if (!cache.isUpToDate(version, x, y, paused)) {
+                cache.update(version, x, y, paused, computePercepts(agName, paused),
+                    l -> removePercept(agName, l), l -> addPercept(agName, l));
+            }
+        }
+        return super.getPercepts(agName);
+    }
+
+    private Literal[] computePercepts(String agName, boolean paused) {
+        Fish fish = this.model.getAgent(agName);
+        return new Literal[]{
+            paused ? PAUSED : null,
+            foodInRangePercept(agName, fish),
+            closestFoodPercept(agName),
+            obstaclePercept(agName, fish),
+            borderPercept(agName, fish),
+            this.avoidanceMode == AvoidanceMode.VELOCITY ? neighbourPercept(agName, fish) : null
+        };
+    }
+
+    private Literal borderPercept(String agent, Fish fish) {
+        ListTerm borders = new ListTermImpl();
+        ListTerm tail = borders;
+        for (Direction b : Direction.values()) {
+            if (!model.isAgentCloseToBorder(agent, b)) {
+                continue;
+            }
+            double distance;
+            switch (b) {
+                case TOP:
+                    distance = fish.getY();
+                    break;
+                case BOTTOM:
+                    distance = model.getHeight() - fish.getY();
+                    break;
+                case LEFT:
+                    distance = fish.getX();
+                    break;
+                default:
+                    distance = model.getWidth() - fish.getX();
+                    break;
+            }
+            tail = tail.append(ASSyntax.createLiteral(BORDER, BORDER_ATOMS.get(b), new NumberTermImpl(distance)));
+        }
+        return ASSyntax.createLiteral(BORDERS, borders);
+    }
+
+    private Literal foodInRangePercept(String agent, Fish fish) {
+        ListTerm coordinates = new ListTermImpl();
+        ListTerm tail = coordinates;
+        for (Food f : model.getNearbyFood(agent)) {
+            tail = tail.append(ASSyntax.createLiteral(FOOD_ELEM,
+                new NumberTermImpl(f.getX() - fish.getX()), new NumberTermImpl(f.getY() - fish.getY()), new Atom(f.getId())));
+        }
+        return ASSyntax.createLiteral(FOOD, coordinates);
+    }
+
+    private Literal closestFoodPercept(String agent) {
         var foodOpt = this.model.getClosestFoodThatCanBeEaten(agent);
-        model.addEventToList(new Pair<String,String>(agent, "food_percept"));
-        return foodOpt.isPresent() ? List.of(Literal.parseLiteral(String.format("close_to_food(%s)", foodOpt.get().getId()))) : List.of();
+        model.addEventToList(new Pair<String,String>(agent, EventJournal.FOOD_PERCEPT));
+        return foodOpt.isPresent() ? ASSyntax.createLiteral(CLOSE_TO_FOOD, new Atom(foodOpt.get().getId())) : null;
     }
 
-    private Collection<Literal> obstaclePercept(String agent) {
-        Fish fish = this.model.getAgent(agent);
+    private Literal obstaclePercept(String agent, Fish fish) {
+        double x = fish.getX();
+        double y = fish.getY();
+        ListTerm coords = new ListTermImpl();
+        ListTerm tail = coords;
 
-        var obstacleStream = this.model.getNearbyObstacles(agent)
-            .stream()
-            .sorted((o1, o2) -> Double.compare(Vector2D.of(o1.getX() - fish.getX(), o1.getY() - fish.getY()).getLength(), Vector2D.of(o2.getX() - fish.getX(), o2.getY() - fish.getY()).getLength()))
-            .map(o -> Literal.parseLiteral(String.format("obstacle(%f,%f,%f)", o.getX() - fish.getX(), o.getY() - fish.getY(), o.getRadius())));
+        int limit = this.perceivedObstacles;
+        for (Obstacle o : this.model.getNearestObstacles(agent, limit)) {
+            tail = tail.append(obstacleTerm(o.getX() - x, o.getY() - y, o.getRadius()));
+        }
+
+        if (this.avoidanceMode == AvoidanceMode.STATIC) {
+            for (Fish f : this.model.getNearestFish(agent, limit)) {
+                tail = tail.append(obstacleTerm(f.getX() - x, f.getY() - y, f.getSize() / 2));
+            }
+        }
 
-        var fishStream = this.model.getNearbyFish(agent)
-            .stream()
-            .sorted((f1, f2) -> Double.compare(Vector2D.of(f1.getX() - fish.getX(), f1.getY() - fish.getY()).getLength(), Vector2D.of(f2.getX() - fish.getX(), f2.getY() - fish.getY()).getLength()))
-            .map(f -> Literal.parseLiteral(String.format("obstacle(%f,%f,%f)", f.getX() - fish.getX(), f.getY() - fish.getY(), f.getSize() / 2)));
+        return ASSyntax.createLiteral(OBSTACLES, coords);
+    }
+
+    /**
+     * Lists the closest fish with their velocity, as `fish(DX, DY, Radius, VX, VY)` relative to the perceiving fish.
+     * The velocity is the last move of a fish at its normal speed, slowed down like that move was, since the speed
+     * it will pick is not known yet.
+     */
+    private Literal neighbourPercept(String agent, Fish fish) {
+        double x = fish.getX();
+        double y = fish.getY();
+        ListTerm neighbours = new ListTermImpl();
+        ListTerm tail = neighbours;
+        for (Fish f : this.model.getNearestFish(agent, this.perceivedObstacles, neighbourRange(fish))) {
+            double speed = f.getBaseSpeed() * Speed.NORMAL.getSpeed();
+            tail = tail.append(ASSyntax.createLiteral(NEIGHBOUR, new NumberTermImpl(f.getX() - x), new NumberTermImpl(f.getY() - y),
+                new NumberTermImpl(f.getSize() / 2), new NumberTermImpl(f.getDirX() * speed), new NumberTermImpl(f.getDirY() * speed)));
+        }
+        return ASSyntax.createLiteral(NEIGHBOURS, neighbours);
+    }
 
-        var coords = Stream.concat(obstacleStream, fishStream).collect(ListTermImpl::new, ListTerm::add, ListTerm::addAll);
-        
-        return Stream.of(Literal.parseLiteral(String.format("obstacles(%s)", coords))).collect(Collectors.toList());
+    /**
+     * Retrieves how far from its body a fish perceives its neighbours in velocity mode: beyond the obstacle range,
+     * which a fish may swim across in a single tick, so that it sees them coming.
+     */
+    public static double neighbourRange(Fish fish) {
+        return NEIGHBOUR_RANGE_TICKS * fish.getBaseSpeed() * Speed.NORMAL.getSpeed();
     }
 
+    private static Literal obstacleTerm(double dx, double dy, double radius) {
+        return ASSyntax.createLiteral(OBSTACLE, new NumberTermImpl(dx), new NumberTermImpl(dy), new NumberTermImpl(radius));
+    }
+
+    /**
+     * Schedules an action of an agent. Outside lock-step, `move_towards` actions are not handed to the executor but
+     * queued, the agent being done with the tick, and the engine applies all of them at the end of the tick with
+     * {@link #applyMoves()}. Every other action is executed right away by {@link #executeAction(String, Structure)}.
+     * In lock-step, actions are executed on the thread of the agent, during its turn, so that the agent gets their
+     * outcome at the same point of its reasoning on every run.
+     */
     @Override
-    public boolean executeAction(final String ag, final Structure action) {
-        Unifier un = new Unifier();
-        if(un.unifies(init, action)){
-            if (model.containsAgent(ag)) {
-                return false;
-            }
+    public void scheduleAction(String agName, Structure action, Object infraData) {
+        SimulationClock clock = this.engine.getClock();
+        if (clock.isLockStep()) {
+            // The agent keeps its turn until its actions are done.
+            clock.actionScheduled(agName);
+            boolean success = this.executeAction(agName, action);
+            getEnvironmentInfraTier().actionExecuted(agName, action, success, infraData);
+            return;
+        } else if (MOVE_TOWARDS.equals(action.getFunctor()) && action.getArity() == 3) {
             try {
-                double weight = termToDouble(un.get("Weight"));
-                double energy = termToDouble(un.get("Energy"));
-                double maxEnergy = termToDouble(un.get("MaxEnergy"));
-                this.model.addFish(ag,  weight, energy, maxEnergy, this.getRandomPositionInsideAquarium());
-                notifyModelChangedToView(Optional.empty());
-                return true;
+                this.moves.add(new MoveBatch.Move(agName, termToDouble(action.getTerm(0)), termToDouble(action.getTerm(1)),
+                    termToSpeed(action.getTerm(2)), action, infraData));
+                clock.arrive(agName);
+                return;
             } catch (NoValueException e) {
-                e.printStackTrace();
-                return false;
+                // Not a valid move: executing it reports the failure as usual.
             }
         }
-        else if(un.unifies(moveTowards, action)){
-            double x;
-            double y;
-            Speed s;
+        super.scheduleAction(agName, action, infraData);
+    }
+
+    /**
+     * Applies the moves queued during the tick in one pass and reports their outcome to the agents.
+     * Runs on the engine thread, before the clock moves to the next tick.
+     */
+    void applyMoves() {
+        long start = SimulationMetrics.start();
+        this.moves.drain(move -> {
+            boolean moved;
             try {
-                x = termToDouble(un.get("X"));
-                y = termToDouble(un.get("Y"));
-                s = termToSpeed(un.get("Speed"));
-                this.model.moveTowards(ag, x, y, s);
-                notifyModelChangedToView(Optional.empty());
-                return true;
+                this.model.moveTowards(move.agent, move.x, move.y, move.speed);
+                moved = true;
+            } catch (IllegalArgumentException e) {
+                // The agent died after queueing its move.
+                moved = false;
+            }
+            getEnvironmentInfraTier().actionExecuted(move.agent, move.action, moved, move.infraData);
+        });
+        APPLY_MOVES_TIMER.stop(start);
+    }
 
-            } catch (NoValueException e) {
-                e.printStackTrace();
-                return false;
+    @Override
+    public boolean executeAction(final String ag, final Structure action) {
+        long start = SimulationMetrics.start();
+        try {
+            return this.applyAction(ag, action);
+        } finally {
+            if (start != 0) {
+                actionTimer(action.getFunctor()).stop(start);
             }
-        } else if(un.unifies(eat, action)){
-            String foodId;
-            try {
-                foodId = termToString(un.get("Food"));
-                boolean eaten = this.model.eat(ag, foodId);
-                if(eaten){
-                    notifyModelChangedToView(Optional.of(DomainEvent.of(String.format("%s has eaten (%d pcs)", ag, this.model.getAgent(ag).getNumberOfFoodEaten()))));
-                }
-                return eaten;
-            } catch (NoValueException e) {
-                e.printStackTrace();
-                return false;
+            if (this.engine.getClock().isLockStep()) {
+                this.engine.getClock().actionCompleted(ag);
             }
-        } else if(un.unifies(die, action)){
-            this.model.removeAgent(ag);
-            notifyModelChangedToView(Optional.of(DomainEvent.of(String.format("%s is dead", ag))));
-            return true;
         }
-        notifyModelChangedToView(Optional.empty());
-        return false;
+    }
+
+    private static SimulationMetrics.Timer actionTimer(String functor) {
+        switch (functor) {
+            case INIT:
+                return INIT_TIMER;
+            case MOVE_TOWARDS:
+                return MOVE_TOWARDS_TIMER;
+            case EAT:
+                return EAT_TIMER;
+            case DIE:
+                return DIE_TIMER;
+            default:
+                return UNKNOWN_ACTION_TIMER;
+        }
+    }
+
+    private boolean applyAction(final String ag, final Structure action) {
+        try {
+            switch (action.getFunctor()) {
+                case INIT:
+                    return action.getArity() == 3 && this.init(ag, termToDouble(action.getTerm(0)),
+                        termToDouble(action.getTerm(1)), termToDouble(action.getTerm(2)));
+                case MOVE_TOWARDS:
+                    if (action.getArity() != 3) {
+                        return false;
+                    }
+                    this.model.moveTowards(ag, termToDouble(action.getTerm(0)), termToDouble(action.getTerm(1)), termToSpeed(action.getTerm(2)));
+                    return true;
+                case EAT:
+                    return action.getArity() == 1 && this.eat(ag, termToString(action.getTerm(0)));
+                case DIE:
+                    return action.getArity() == 0 && this.die(ag);
+                default:
+                    return false;
+            }
+        } catch (NoValueException e) {
+            e.printStackTrace();
+            return false;
+        }
+    }
+
+    private boolean init(String ag, double weight, double energy, double maxEnergy) {
+        if (model.containsAgent(ag)) {
+            return false;
+        }
+        this.model.addFish(ag,  weight, energy, maxEnergy, this.getRandomPositionInsideAquarium(this.streams.fresh(ag + "/position")));
+        this.engine.getClock().register(ag);
+        return true;
+    }
+
+    private boolean eat(String ag, String foodId) {
+        boolean eaten = this.model.eat(ag, foodId);
+        if(eaten){
+            notifyModelChangedToView(Optional.of(DomainEvent.of(String.format("%s has eaten (%d pcs)", ag, this.model.getAgent(ag).getNumberOfFoodEaten()))));
+        }
+        return eaten;
+    }
+
+    private boolean die(String ag) {
+        this.model.removeAgent(ag);
+        this.engine.getClock().unregister(ag);
+        this.perceptCaches.remove(ag);
+        clearPercepts(ag);
+        notifyModelChangedToView(Optional.of(DomainEvent.of(String.format("%s is dead", ag))));
+        return true;
+    }
+
+    /**
+     * Forgets the percepts published for an agent, so that the next call to {@link #getPercepts(String)} computes and
+     * publishes all of them again, as for a new agent.
+     *
+     * @param agName The name of the agent.
+     */
+    public void resetPercepts(String agName) {
+        this.perceptCaches.remove(agName);
+        clearPercepts(agName);
+    }
+
+    /**
+     * Sets how many obstacles, and separately how many other fish, a fish perceives at most: only the closest ones
+     * are part of its `obstacles` percept. Applies to the percepts computed from then on. The default comes from the
+     * `simaquarium.perceivedObstacles` system property.
+     *
+     * @param k The maximum number of perceived obstacles and of perceived fish, positive.
+     */
+    public void setPerceivedObstacles(int k) {
+        if (k <= 0) {
+            throw new IllegalArgumentException("The number of perceived obstacles must be positive: " + k);
+        }
+        this.perceivedObstacles = k;
+    }
+
+    public int getPerceivedObstacles() {
+        return this.perceivedObstacles;
+    }
+
+    /**
+     * Sets how fish perceive each other, for the percepts computed from then on. The default comes from the
+     * ninth environment argument if any, otherwise from the `simaquarium.avoidance` system property.
+     *
+     * @param avoidanceMode The avoidance mode.
+     */
+    public void setAvoidanceMode(AvoidanceMode avoidanceMode) {
+        this.avoidanceMode = avoidanceMode;
+    }
+
+    public AvoidanceMode getAvoidanceMode() {
+        return this.avoidanceMode;
     }
 
     public void setPaused(boolean paused) {
         this.paused = paused;
+        this.engine.setPaused(paused);
+        informAgsEnvironmentChanged();
+    }
+
+    /**
+     * Retrieves the model of the aquarium.
+     *
+     * @return The aquarium model.
+     */
+    public AquariumModel getModel() {
+        return this.model;
+    }
+
+    /**
+     * Retrieves the engine advancing the simulation.
+     *
+     * @return The simulation engine.
+     */
+    public SimulationEngine getEngine() {
+        return this.engine;
     }
 }
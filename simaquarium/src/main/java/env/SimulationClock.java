@@ -0,0 +1,594 @@
+package env;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * The `SimulationClock` class is the explicit tick clock driving the simulation.
+ * Every tick stands for {@link #SIMULATED_TICK_MILLIS} milliseconds of simulated time, regardless of how long
+ * it takes in wall-clock time.
+ *
+ * The clock can run in three modes:
+ * - real time: each tick lasts `tickMillis` wall-clock milliseconds, as the original `Thread.sleep` pacing did;
+ * - as fast as possible (`tickMillis == 0`): a tick ends as soon as every registered agent has asked for the next one
+ *   or left the clock (see {@link #leave(String)}), e.g. while it sits in `.wait`, or after a short grace period,
+ *   so that agents blocked elsewhere cannot stall the whole run;
+ * - lock-step (see {@link #lockStep(int)}): within a tick the registered agents take turns in the order of their names,
+ *   and a turn only ends once the agent has asked for the next tick and all its scheduled actions are done.
+ *   The model is then only changed by one agent at a time, in the same order on every run, which makes runs with
+ *   the same seed reproducible.
+ *
+ * Waiting goes through a `ReentrantLock` condition rather than `Object.wait`, so that agents running on virtual
+ * threads release their carrier thread while they wait for a tick.
+ * Agents can also ask to be called back at the next tick with {@link #onNextTick(String, Runnable)}, so that no
+ * thread waits at all: `utils.move_towards` suspends the intention of the fish until then.
+ */
+public class SimulationClock {
+    public static final long SIMULATED_TICK_MILLIS = 100;
+    public static final long DEFAULT_GRACE_MILLIS = 20;
+
+    private static volatile SimulationClock current = new SimulationClock(SIMULATED_TICK_MILLIS);
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition changed = this.lock.newCondition();
+    private final long tickMillis;
+    private final long graceMillis;
+    private final boolean lockStep;
+    private final int expectedAgents;
+    private final Set<String> participants = new TreeSet<>();
+    private final Set<String> arrived = new HashSet<>();
+    private final Set<String> away = new HashSet<>();
+    private final Map<String, Integer> pendingActions = new HashMap<>();
+    private final Map<String, Long> arrivedEarly = new HashMap<>();
+    private final Map<String, Waiter> waiters = new HashMap<>();
+    private final Set<String> delivering = new HashSet<>();
+    private String turn;
+    private long tick;
+    private long nextTickAt;
+    private boolean stopped;
+
+    /**
+     * Constructs a clock with the given wall-clock duration of a tick.
+     *
+     * @param tickMillis The wall-clock duration of a tick, or 0 to run as fast as possible.
+     */
+    public SimulationClock(long tickMillis) {
+        this(tickMillis, DEFAULT_GRACE_MILLIS);
+    }
+
+    /**
+     * Constructs a clock with the given wall-clock duration of a tick and grace period.
+     *
+     * @param tickMillis The wall-clock duration of a tick, or 0 to run as fast as possible.
+     * @param graceMillis How long an unpaced tick waits for late agents before ending anyway.
+     */
+    public SimulationClock(long tickMillis, long graceMillis) {
+        this(tickMillis, graceMillis, false, 0);
+    }
+
+    private SimulationClock(long tickMillis, long graceMillis, boolean lockStep, int expectedAgents) {
+        if (tickMillis < 0 || graceMillis < 0) {
+            throw new IllegalArgumentException("Clock durations cannot be negative");
+        }
+        this.tickMillis = tickMillis;
+        this.graceMillis = graceMillis;
+        this.lockStep = lockStep;
+        this.expectedAgents = expectedAgents;
+        this.nextTickAt = System.currentTimeMillis() + tickMillis;
+    }
+
+    /**
+     * Constructs an unpaced clock scheduling the agents in lock-step.
+     * The first tick only starts once the given number of agents has registered, so that every agent
+     * enters the simulation at the same tick on every run.
+     *
+     * @param expectedAgents The number of agents taking part in the simulation.
+     * @return The lock-step clock.
+     */
+    public static SimulationClock lockStep(int expectedAgents) {
+        return new SimulationClock(0, 0, true, expectedAgents);
+    }
+
+    /**
+     * Retrieves the clock of the running simulation, used by the internal actions to pace the agents.
+     *
+     * @return The current clock.
+     */
+    public static SimulationClock current() {
+        return current;
+    }
+
+    /**
+     * Sets the clock of the running simulation.
+     *
+     * @param clock The new current clock.
+     */
+    public static void setCurrent(SimulationClock clock) {
+        current = clock;
+    }
+
+    /**
+     * Retrieves the number of ticks elapsed since the start of the simulation.
+     *
+     * @return The current tick.
+     */
+    public long getTick() {
+        this.lock.lock();
+        try {
+            return this.tick;
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    /**
+     * Retrieves the simulated time elapsed since the start of the simulation.
+     *
+     * @return The simulated time in milliseconds.
+     */
+    public long getSimulatedMillis() {
+        this.lock.lock();
+        try {
+            return this.tick * SIMULATED_TICK_MILLIS;
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    /**
+     * Retrieves the wall-clock duration of a tick.
+     *
+     * @return The duration in milliseconds, 0 if the clock runs as fast as possible.
+     */
+    public long getTickMillis() {
+        return this.tickMillis;
+    }
+
+    /**
+     * Checks whether the clock is paced on wall-clock time.
+     *
+     * @return True if ticks last a fixed wall-clock time, false if they run as fast as possible.
+     */
+    public boolean isRealTime() {
+        return this.tickMillis > 0;
+    }
+
+    /**
+     * Checks whether the clock schedules the agents in lock-step.
+     *
+     * @return True if the agents take turns within each tick.
+     */
+    public boolean isLockStep() {
+        return this.lockStep;
+    }
+
+    /**
+     * Registers an agent whose moves the clock waits for before ending an unpaced tick.
+     *
+     * @param agent The name of the agent.
+     */
+    public void register(String agent) {
+        this.lock.lock();
+        try {
+            this.participants.add(agent);
+            this.changed.signalAll();
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    /**
+     * Unregisters an agent, e.g. because it died.
+     *
+     * @param agent The name of the agent.
+     */
+    public void unregister(String agent) {
+        List<Runnable> ready;
+        this.lock.lock();
+        try {
+            this.participants.remove(agent);
+            this.arrived.remove(agent);
+            this.away.remove(agent);
+            this.pendingActions.remove(agent);
+            this.arrivedEarly.remove(agent);
+            if (agent.equals(this.turn)) {
+                this.turn = this.nextTurn();
+            }
+            this.changed.signalAll();
+            ready = this.releaseTurn();
+        } finally {
+            this.lock.unlock();
+        }
+        ready.forEach(Runnable::run);
+    }
+
+    /**
+     * Notifies the clock that an action of an agent has been scheduled: in lock-step, the agent keeps its turn
+     * until the action is done.
+     *
+     * @param agent The name of the agent.
+     */
+    public void actionScheduled(String agent) {
+        this.lock.lock();
+        try {
+            this.pendingActions.merge(agent, 1, Integer::sum);
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    /**
+     * Notifies the clock that a scheduled action of an agent is done.
+     *
+     * @param agent The name of the agent.
+     */
+    public void actionCompleted(String agent) {
+        List<Runnable> ready = List.of();
+        this.lock.lock();
+        try {
+            if (this.pendingActions.computeIfPresent(agent, (k, n) -> n > 1 ? n - 1 : null) == null) {
+                this.changed.signalAll();
+                Waiter waiter = this.waiters.get(agent);
+                if (waiter != null && waiter.startTick < 0) {
+                    ready = this.arriveAndRelease(agent, waiter);
+                }
+            }
+        } finally {
+            this.lock.unlock();
+        }
+        ready.forEach(Runnable::run);
+    }
+
+    /**
+     * Blocks the calling agent until the clock moves to the next tick.
+     *
+     * @param agent The name of the agent.
+     * @throws InterruptedException If the thread is interrupted while waiting.
+     */
+    public void awaitNextTick(String agent) throws InterruptedException {
+        this.lock.lock();
+        try {
+            this.away.remove(agent);
+            long startTick = this.tick;
+            Long arrivedAt = this.arrivedEarly.remove(agent);
+            if (arrivedAt != null) {
+                // The agent was done with that tick before asking for the next one, which may already have started.
+                startTick = arrivedAt;
+            } else if (this.participants.contains(agent)) {
+                while (this.lockStep && !this.stopped && this.pendingActions.containsKey(agent)) {
+                    this.changed.await();
+                }
+                this.arriveNow(agent);
+            }
+            while (!this.stopped && (this.tick == startTick || this.isWaitingForTurn(agent))) {
+                this.changed.await();
+            }
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    /**
+     * Calls back an agent once the clock moves to the next tick, like {@link #awaitNextTick(String)} but without
+     * blocking the calling thread. The callback runs on the thread that moves the clock, or right away on the calling
+     * thread if that tick has already started; it must not block.
+     * An agent has at most one callback at a time: a new one replaces the previous one.
+     *
+     * @param agent The name of the agent.
+     * @param wakeUp The callback.
+     */
+    public void onNextTick(String agent, Runnable wakeUp) {
+        List<Runnable> ready;
+        this.lock.lock();
+        try {
+            this.away.remove(agent);
+            Waiter waiter = new Waiter(wakeUp);
+            Long arrivedAt = this.arrivedEarly.remove(agent);
+            if (arrivedAt != null) {
+                waiter.startTick = arrivedAt;
+            } else if (!this.participants.contains(agent)) {
+                waiter.startTick = this.tick;
+            }
+            this.waiters.put(agent, waiter);
+            if (waiter.startTick < 0 && !(this.lockStep && this.pendingActions.containsKey(agent))) {
+                ready = this.arriveAndRelease(agent, waiter);
+            } else {
+                ready = new ArrayList<>();
+            }
+            if (this.isReady(agent, waiter)) {
+                this.waiters.remove(agent);
+                ready.add(this.delivery(agent, wakeUp));
+            }
+        } finally {
+            this.lock.unlock();
+        }
+        ready.forEach(Runnable::run);
+    }
+
+    private void arriveNow(String agent) {
+        this.arrived.add(agent);
+        if (agent.equals(this.turn)) {
+            this.turn = this.nextTurn();
+        }
+        this.changed.signalAll();
+    }
+
+    /**
+     * Makes the agent of a callback arrive, now that it has no pending action, and collects the callback of the agent
+     * whose turn it then is, if it can already run.
+     */
+    private List<Runnable> arriveAndRelease(String agent, Waiter waiter) {
+        this.arriveNow(agent);
+        waiter.startTick = this.tick;
+        return this.releaseTurn();
+    }
+
+    /**
+     * Collects the callback of the agent whose turn it is, if it can run. Outside lock-step, no callback can run
+     * before the next tick.
+     */
+    private List<Runnable> releaseTurn() {
+        List<Runnable> ready = new ArrayList<>();
+        Waiter waiter = this.turn == null ? null : this.waiters.get(this.turn);
+        if (waiter != null && this.isReady(this.turn, waiter)) {
+            this.waiters.remove(this.turn);
+            ready.add(this.delivery(this.turn, waiter.wakeUp));
+        }
+        return ready;
+    }
+
+    /**
+     * Collects, and forgets, every callback that can run.
+     */
+    private List<Runnable> releaseAll() {
+        List<Runnable> ready = new ArrayList<>();
+        for (Iterator<Map.Entry<String, Waiter>> it = this.waiters.entrySet().iterator(); it.hasNext();) {
+            Map.Entry<String, Waiter> entry = it.next();
+            if (this.isReady(entry.getKey(), entry.getValue())) {
+                it.remove();
+                ready.add(this.delivery(entry.getKey(), entry.getValue().wakeUp));
+            }
+        }
+        return ready;
+    }
+
+    /**
+     * Wraps a callback about to run outside the lock. In lock-step, its agent does not start its turn before the
+     * callback is done, so that what the agent does in its turn does not depend on which thread gets there first.
+     */
+    private Runnable delivery(String agent, Runnable wakeUp) {
+        if (!this.lockStep) {
+            return wakeUp;
+        }
+        this.delivering.add(agent);
+        return () -> {
+            try {
+                wakeUp.run();
+            } finally {
+                this.lock.lock();
+                try {
+                    this.delivering.remove(agent);
+                    this.changed.signalAll();
+                } finally {
+                    this.lock.unlock();
+                }
+            }
+        };
+    }
+
+    private boolean isReady(String agent, Waiter waiter) {
+        return this.stopped || waiter.startTick >= 0 && this.tick != waiter.startTick && !this.isWaitingForTurn(agent);
+    }
+
+    /**
+     * Marks an agent as done with the current tick before it asks for the next one, e.g. because its move was queued
+     * to be applied at the end of the tick. Its next call to {@link #awaitNextTick(String)} then returns as soon as
+     * the tick after this one has started, even if that happened before the call.
+     * Not supported in lock-step, where turns already order the agents.
+     *
+     * @param agent The name of the agent.
+     */
+    public void arrive(String agent) {
+        this.lock.lock();
+        try {
+            if (this.lockStep) {
+                throw new IllegalStateException("Agents cannot arrive early in lock-step");
+            }
+            if (this.participants.contains(agent)) {
+                this.away.remove(agent);
+                this.arrived.add(agent);
+                this.arrivedEarly.put(agent, this.tick);
+                this.changed.signalAll();
+            }
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    /**
+     * Tells the clock that an agent will not ask for a tick for a while, e.g. because it is about to wait in `.wait`,
+     * so that unpaced ticks end without waiting the grace period for it. The agent is waited for again from its next
+     * call to {@link #awaitNextTick(String)}, {@link #onNextTick(String, Runnable)} or {@link #arrive(String)}.
+     * Does nothing in lock-step, where every agent takes its turn in every tick.
+     *
+     * @param agent The name of the agent.
+     */
+    public void leave(String agent) {
+        this.lock.lock();
+        try {
+            if (!this.lockStep && this.participants.contains(agent)) {
+                this.away.add(agent);
+                this.changed.signalAll();
+            }
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    /**
+     * In lock-step, blocks the calling agent until it is its turn, so that it only perceives and acts while the other
+     * agents are idle, and once its callback for the tick, if any, has run. Before the first tick, waiting for the turn
+     * counts as being ready for it.
+     * Returns immediately in the other modes.
+     *
+     * @param agent The name of the agent.
+     * @throws InterruptedException If the thread is interrupted while waiting.
+     */
+    public void awaitTurn(String agent) throws InterruptedException {
+        this.lock.lock();
+        try {
+            while (!this.stopped && (this.isWaitingForTurn(agent) || this.delivering.contains(agent))) {
+                if (this.tick == 0 && this.arrived.add(agent)) {
+                    this.changed.signalAll();
+                }
+                this.changed.await();
+            }
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    private boolean isWaitingForTurn(String agent) {
+        return this.lockStep && this.participants.contains(agent) && !agent.equals(this.turn);
+    }
+
+    private String nextTurn() {
+        if (!this.lockStep) {
+            return null;
+        }
+        for (String agent : this.participants) {
+            if (!this.arrived.contains(agent)) {
+                return agent;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Blocks the engine until the current tick is over: either its wall-clock slot has elapsed
+     * or, when unpaced, every registered agent is waiting for the next tick or has left the clock.
+     * In lock-step there is no grace period: the tick waits for every agent to finish its turn.
+     *
+     * @throws InterruptedException If the thread is interrupted while waiting.
+     */
+    public void awaitTickEnd() throws InterruptedException {
+        if (this.isRealTime()) {
+            long delay;
+            this.lock.lock();
+            try {
+                delay = this.nextTickAt - System.currentTimeMillis();
+                this.nextTickAt = Math.max(this.nextTickAt, System.currentTimeMillis() - this.tickMillis) + this.tickMillis;
+            } finally {
+                this.lock.unlock();
+            }
+            if (delay > 0) {
+                Thread.sleep(delay);
+            }
+            return;
+        }
+        if (this.lockStep) {
+            this.lock.lock();
+            try {
+                while (!this.stopped && (this.tick == 0 && this.participants.size() < this.expectedAgents
+                        || !this.arrived.containsAll(this.participants))) {
+                    this.changed.await();
+                }
+            } finally {
+                this.lock.unlock();
+            }
+            return;
+        }
+        this.lock.lock();
+        try {
+            long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(this.graceMillis);
+            while (!this.stopped && (this.participants.isEmpty() || !this.hasEveryoneArrived())) {
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0) {
+                    break;
+                }
+                this.changed.awaitNanos(remaining);
+            }
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    private boolean hasEveryoneArrived() {
+        for (String agent : this.participants) {
+            if (!this.arrived.contains(agent) && !this.away.contains(agent)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Moves the clock to the next tick and wakes up the agents waiting for it.
+     */
+    public void advance() {
+        List<Runnable> ready;
+        this.lock.lock();
+        try {
+            this.tick++;
+            this.arrived.clear();
+            this.turn = this.nextTurn();
+            this.changed.signalAll();
+            ready = this.releaseAll();
+        } finally {
+            this.lock.unlock();
+        }
+        ready.forEach(Runnable::run);
+    }
+
+    /**
+     * Stops the clock, releasing every waiting agent.
+     */
+    public void stop() {
+        List<Runnable> ready;
+        this.lock.lock();
+        try {
+            this.stopped = true;
+            this.changed.signalAll();
+            ready = this.releaseAll();
+        } finally {
+            this.lock.unlock();
+        }
+        ready.forEach(Runnable::run);
+    }
+
+    /**
+     * Checks whether the clock has been stopped.
+     *
+     * @return True if the clock is stopped.
+     */
+    public boolean isStopped() {
+        this.lock.lock();
+        try {
+            return this.stopped;
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    /**
+     * A callback waiting for the next tick, with the tick its agent arrived at, or -1 while it still waits for its
+     * pending actions in lock-step.
+     */
+    private static final class Waiter {
+        private final Runnable wakeUp;
+        private long startTick = -1;
+
+        private Waiter(Runnable wakeUp) {
+            this.wakeUp = wakeUp;
+        }
+    }
+}
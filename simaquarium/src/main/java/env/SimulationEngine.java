@@ -0,0 +1,163 @@
+package env;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.LongConsumer;
+import java.util.random.RandomGenerator;
+
+import env.model.AquariumModel;
+import env.model.Position;
+
+/**
+ * The `SimulationEngine` class advances the aquarium with a fixed timestep, independently of any view.
+ * Each call to {@link #step()} simulates one tick of the {@link SimulationClock}: food sinks and is dropped
+ * according to simulated time, and the agents waiting on the clock are released for their next move.
+ * When run as a thread, the engine steps as fast as the clock allows, each time the current tick has ended.
+ */
+public class SimulationEngine implements Runnable {
+    static final long FIRST_FOOD_DROP_MILLIS = 5000;
+    static final long FOOD_DROP_INTERVAL_MILLIS = 10000;
+    static final long SINK_INTERVAL_MILLIS = 200;
+
+    private final AquariumModel model;
+    private final SimulationClock clock;
+    private final RandomGenerator random;
+    private final Runnable onFoodDropped;
+    private final List<Runnable> endOfTickTasks = new CopyOnWriteArrayList<>();
+    private final List<LongConsumer> tickListeners = new CopyOnWriteArrayList<>();
+    private volatile boolean paused;
+    private volatile boolean running;
+    private long untilNextFoodDrop;
+    private long untilNextSink;
+
+    /**
+     * Constructs a new engine for the given model.
+     *
+     * @param model The model to advance.
+     * @param clock The clock to tick.
+     * @param random The random generator used to place the dropped food.
+     * @param onFoodDropped The callback invoked every time food is dropped.
+     */
+    public SimulationEngine(AquariumModel model, SimulationClock clock, RandomGenerator random, Runnable onFoodDropped) {
+        this.model = model;
+        this.clock = clock;
+        this.random = random;
+        this.onFoodDropped = onFoodDropped;
+        this.untilNextFoodDrop = FIRST_FOOD_DROP_MILLIS;
+        this.untilNextSink = SINK_INTERVAL_MILLIS;
+    }
+
+    /**
+     * Simulates a single tick. Nothing happens while the engine is paused.
+     */
+    public void step() {
+        if (this.paused) {
+            return;
+        }
+        this.untilNextFoodDrop -= SimulationClock.SIMULATED_TICK_MILLIS;
+        if (this.untilNextFoodDrop <= 0) {
+            this.untilNextFoodDrop += FOOD_DROP_INTERVAL_MILLIS;
+            this.dropFood();
+        }
+        this.untilNextSink -= SimulationClock.SIMULATED_TICK_MILLIS;
+        if (this.untilNextSink <= 0) {
+            this.untilNextSink += SINK_INTERVAL_MILLIS;
+            this.model.sinkStep();
+        }
+        for (Runnable task : this.endOfTickTasks) {
+            task.run();
+        }
+        this.clock.advance();
+        long tick = this.clock.getTick();
+        for (LongConsumer listener : this.tickListeners) {
+            listener.accept(tick);
+        }
+    }
+
+    private void dropFood() {
+        for (int i = 0; i < this.model.getFoodQuantity(); i++) {
+            this.model.addFood(new Position((this.random.nextDouble() * 0.8 + 0.1) * this.model.getWidth(), 0));
+        }
+        this.onFoodDropped.run();
+    }
+
+    @Override
+    public void run() {
+        this.running = true;
+        while (this.running) {
+            // The tick ends before it is stepped, tick 0 included, so that a lock-step clock holds the first step
+            // until every agent has joined.
+            try {
+                this.clock.awaitTickEnd();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            if (this.running) {
+                this.step();
+            }
+        }
+    }
+
+    /**
+     * Stops the engine loop and its clock.
+     */
+    public void stop() {
+        this.running = false;
+        this.clock.stop();
+    }
+
+    /**
+     * Pauses or resumes the engine.
+     *
+     * @param paused True to pause the simulation, false to resume it.
+     */
+    public void setPaused(boolean paused) {
+        this.paused = paused;
+    }
+
+    /**
+     * Checks whether the engine is paused.
+     *
+     * @return True if the engine is paused.
+     */
+    public boolean isPaused() {
+        return this.paused;
+    }
+
+    /**
+     * Adds a task run on the engine thread at the end of every simulated tick, before the clock moves to the next one.
+     *
+     * @param task The task to add.
+     */
+    public void addEndOfTickTask(Runnable task) {
+        this.endOfTickTasks.add(task);
+    }
+
+    /**
+     * Adds a callback invoked on the engine thread at the end of every simulated tick, with the new tick.
+     *
+     * @param listener The callback to add.
+     */
+    public void addTickListener(LongConsumer listener) {
+        this.tickListeners.add(listener);
+    }
+
+    /**
+     * Removes a callback previously added with {@link #addTickListener(LongConsumer)}.
+     *
+     * @param listener The callback to remove.
+     */
+    public void removeTickListener(LongConsumer listener) {
+        this.tickListeners.remove(listener);
+    }
+
+    /**
+     * Retrieves the clock ticked by this engine.
+     *
+     * @return The simulation clock.
+     */
+    public SimulationClock getClock() {
+        return this.clock;
+    }
+}
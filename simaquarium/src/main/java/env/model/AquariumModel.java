@@ -1,6 +1,9 @@
 package env.model;
 
+import java.io.IOException;
 import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
 import java.util.Optional;
 import java.util.Set;
 import java.util.stream.Collectors;
@@ -147,6 +150,20 @@ public interface AquariumModel {
         .collect(Collectors.toList());
     }
     
+    /** 
+     * Retrieves the k obstacles closest to a specific agent among its nearby obstacles, closest first.
+     * @param agent The name of the agent.
+     * @param k The maximum number of obstacles to retrieve.
+     * @return At most k nearby `Obstacle` objects, by increasing distance from the agent.
+     */
+    default List<Obstacle> getNearestObstacles(String agent, int k) {
+        Position fishPos = this.getAgent(agent).getPosition();
+        return this.getNearbyObstacles(agent).stream()
+            .sorted(Comparator.comparingDouble(o -> fishPos.distanceFrom(o.getPosition())))
+            .limit(k)
+            .collect(Collectors.toList());
+    }
+
     /** 
      * Checks whether two agents are close to each other.
      * @param agent1 The name of the first agent.
@@ -166,6 +183,39 @@ public interface AquariumModel {
             .collect(Collectors.toList());
     }
 
+    /** 
+     * Retrieves the k agents closest to a specific agent among its nearby agents, closest first.
+     * @param agent The name of the agent.
+     * @param k The maximum number of agents to retrieve.
+     * @return At most k nearby `Fish` objects, by increasing distance from the agent.
+     */
+    default List<Fish> getNearestFish(String agent, int k) {
+        Position fishPos = this.getAgent(agent).getPosition();
+        return this.getNearbyFish(agent).stream()
+            .sorted(Comparator.comparingDouble(f -> fishPos.distanceFrom(f.getPosition())))
+            .limit(k)
+            .collect(Collectors.toList());
+    }
+
+    /** 
+     * Retrieves the k agents closest to a specific agent among those whose body is within a range of its own,
+     * closest first.
+     * @param agent The name of the agent.
+     * @param k The maximum number of agents to retrieve.
+     * @param range The largest gap between the bodies of the agents.
+     * @return At most k `Fish` objects within range, by increasing distance from the agent.
+     */
+    default List<Fish> getNearestFish(String agent, int k, double range) {
+        Fish fish = this.getAgent(agent);
+        Position fishPos = fish.getPosition();
+        double reach = fish.getSize() / 2 + range;
+        return this.getAllAgents().stream()
+            .filter(f -> f != fish && fishPos.distanceFrom(f.getPosition()) <= reach + f.getSize() / 2)
+            .sorted(Comparator.comparingDouble(f -> fishPos.distanceFrom(f.getPosition())))
+            .limit(k)
+            .collect(Collectors.toList());
+    }
+
     /** 
      * Retrieves the total number of food items eaten in the environment.
      * @return The total number of food items eaten.
@@ -215,8 +265,27 @@ public interface AquariumModel {
             .collect(Collectors.toList());
     }
 
+    /** 
+     * Retrieves a version stamp of everything an agent can perceive: the fish, food and obstacles around it.
+     * For a given position of the agent, the stamp changes whenever any of them may have changed, so an unchanged
+     * stamp at an unchanged position means unchanged percepts.
+     * @param agent The name of the agent.
+     * @return The perception version of the agent.
+     */
+    long getPerceptionVersion(String agent);
+
+    /** 
+     * Retrieves a version stamp like {@link #getPerceptionVersion(String)}, for an agent that also perceives the fish
+     * within a wider range, as given to {@link #getNearestFish(String, int, double)}.
+     * @param agent The name of the agent.
+     * @param fishRange The largest gap between the bodies of the agent and of a fish it perceives.
+     * @return The perception version of the agent.
+     */
+    long getPerceptionVersion(String agent, double fishRange);
+
     /** 
      * Moves an agent towards a specific position at a given speed.
+     * The position is relative to the agent: when closer than 1, the agent only covers that fraction of its step.
      * @param agent The name of the agent.
      * @param x The x-coordinate of the target position.
      * @param y The y-coordinate of the target position.
@@ -292,7 +361,16 @@ public interface AquariumModel {
      * Calculates the fairness index of the environment based on food distribution.
      * @return The fairness index.
      */
-    double getFairnessIndex();
+    default double getFairnessIndex() {
+        return this.getStatistics().getFairnessIndex();
+    }
+
+    /** 
+     * Retrieves the survival and food statistics of the fish, maintained as they are added, eat and die.
+     * Reading them takes constant time and no lock.
+     * @return The latest statistics.
+     */
+    FishStatistics getStatistics();
 
     /** 
      * Verifies the sequence of events in the environment.
@@ -305,4 +383,25 @@ public interface AquariumModel {
      * @param event The event to add, represented as a pair of agent ID and event type.
      */
     void addEventToList(Pair<String, String> event);
+
+    /** 
+     * Records the current position, direction and energy of every fish and the position of every piece of food.
+     * @param recorder The recorder to write the frame to.
+     * @param tick The tick of the frame.
+     * @throws IOException If the frame cannot be written.
+     */
+    void recordFrame(TrajectoryRecorder recorder, long tick) throws IOException;
+
+    /** 
+     * Takes a snapshot of the aquarium and makes it the latest frame. Must always be called by the same thread.
+     * @param tick The tick of the frame.
+     */
+    void publishFrame(long tick);
+
+    /** 
+     * Retrieves the latest frame published with {@link #publishFrame(long)}. Must always be called by the same thread,
+     * and the returned snapshot only stays unchanged until that thread calls this method again.
+     * @return The latest frame.
+     */
+    FrameSnapshot getLatestFrame();
 }
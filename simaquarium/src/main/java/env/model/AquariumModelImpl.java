@@ -1,26 +1,61 @@
 package env.model;
 
+import java.io.IOException;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
+import utils.SimulationMetrics;
 import utils.Utils;
 
+/**
+ * The `AquariumModelImpl` class is the concurrent implementation of the aquarium model.
+ * Agents, food and the spatial indexes live in concurrent maps, so that the agent threads do not serialise on
+ * shared monitors:
+ * - the state of the fish lives in the columns of a `FishStore`; a `Fish` is moved by the engine thread and fed by
+ *   the thread executing its `eat` action, so the energy and food eaten it shares between both change atomically;
+ * - food is only moved by the simulation engine, and a piece of food is claimed atomically by the first fish eating it;
+ * - obstacles are only added while the aquarium is initialised.
+ */
 public class AquariumModelImpl implements AquariumModel {
     private static final int FOOD_OFFSET = 7;
-    private final Map<String, Fish> agents = Collections.synchronizedMap(new HashMap<>());
-    private final Map<String, Food> food = Collections.synchronizedMap(new HashMap<>());
-    private final Set<Fish> recentEaters = Collections.synchronizedSet(new HashSet<>());
-    private final List<Pair<String, String>> events = Collections.synchronizedList(new ArrayList<>());
-    private List<Obstacle> obstacles;
-    private int width;
-    private int height;
-    private long foodId;
-    private int totalNumberOfFoodEaten;
-    private int foodQuantity;
-
+    private static final double GRID_CELL_SIZE = 64;
+    private static final SimulationMetrics.Timer EAT_TIMER = SimulationMetrics.timer("model.eat");
+    private static final SimulationMetrics.Counter EAT_LOST_COUNTER = SimulationMetrics.counter("model.eat.lost");
+    private final Map<String, Fish> agents = new ConcurrentHashMap<>();
+    private final FishStore fishStore = new FishStore();
+    private final FrameBuffer frames = new FrameBuffer();
+    private final Map<String, Food> food = new ConcurrentHashMap<>();
+    private final EventJournal journal;
+    private final SpatialGrid<Fish> fishIndex = new SpatialGrid<>(GRID_CELL_SIZE);
+    private final SpatialGrid<Food> foodIndex = new SpatialGrid<>(GRID_CELL_SIZE);
+    private final SpatialGrid<Obstacle> obstacleIndex = new SpatialGrid<>(GRID_CELL_SIZE);
+    private final List<Obstacle> obstacles = new CopyOnWriteArrayList<>();
+    private final AtomicLong foodId = new AtomicLong();
+    private final AtomicInteger totalNumberOfFoodEaten = new AtomicInteger();
+    private final FishStatisticsAccumulator statistics = new FishStatisticsAccumulator();
+    private volatile double maxFishHalfSize;
+    private volatile double maxObstacleRadius;
+    private volatile int width;
+    private volatile int height;
+    private volatile int foodQuantity;
+
+    /**
+     * Constructs an empty aquarium whose event journal keeps no raw log.
+     */
     public AquariumModelImpl() {
-        this.obstacles = Collections.synchronizedList(new ArrayList<>());
-        this.foodId = 0;
-        this.totalNumberOfFoodEaten = 0;
+        this(new EventJournal());
+    }
+
+    /**
+     * Constructs an empty aquarium recording the events of the agents in the given journal.
+     *
+     * @param journal The journal validating the events.
+     */
+    public AquariumModelImpl(EventJournal journal) {
+        this.journal = journal;
     }
 
     @Override
@@ -31,25 +66,26 @@ public class AquariumModelImpl implements AquariumModel {
 
     @Override
     public boolean containsAgent(String name) {
-        synchronized(this.agents){
-            return agents.containsKey(name);
-        }
+        return agents.containsKey(name);
     }
 
     @Override
     public Set<Fish> getAllAgents() {
-        synchronized(this.agents){
-            return new HashSet<>(agents.values());
-        }
+        Set<Fish> fish = new HashSet<>();
+        this.fishStore.forEach(fish::add);
+        return fish;
     }
 
     @Override
     public void removeAgent(String name){
-        synchronized(this.agents){
-            this.ensureAgentExists(name);
-            this.agents.remove(name);        
-            this.addEventToList(new Pair<>(name, "die"));
+        Fish fish = this.agents.remove(name);
+        if (fish == null) {
+            throw new IllegalArgumentException("No such an agent: " + name);
         }
+        this.statistics.removed(fish.getNumberOfFoodEaten());
+        this.fishIndex.remove(fish);
+        this.fishStore.remove(fish);
+        this.addEventToList(new Pair<>(name, EventJournal.DIE));
     }
 
     @Override
@@ -67,85 +103,73 @@ public class AquariumModelImpl implements AquariumModel {
         return x >= 0 && x < width && y >= 0 && y < height ;
     }
 
-    private void ensureAgentExists(String agent) {
-        if (!containsAgent(agent)) {
-            throw new IllegalArgumentException("No such an agent: " + agent);
-        }
-    }
-
     @Override
     public Set<Food> getAllFood() {
-        synchronized(this.food){
-            return new HashSet<>(this.food.values());
-        }
+        return new HashSet<>(this.food.values());
     }
 
     @Override
     public Fish getAgent(String agent) {
-        synchronized(this.agents){
-            this.ensureAgentExists(agent);
-            return this.agents.get(agent);
+        Fish fish = this.agents.get(agent);
+        if (fish == null) {
+            throw new IllegalArgumentException("No such an agent: " + agent);
         }
+        return fish;
     }
 
     @Override
     public boolean isAgentCloseToFood(String agent, String food) {
-        synchronized(this){
-            this.ensureAgentExists(agent);
-            Food f = this.food.get(food);
-            if(f == null){
-                return false;
-            }
-            Position foodPos = f.getPosition();
-            Fish fish = this.agents.get(agent);
-            Vector2D dir = Vector2D.fromPositions(fish.getPosition(), foodPos);
-            return dir.getLength() <= fish.getRange();
+        Fish fish = this.getAgent(agent);
+        Food f = this.food.get(food);
+        if(f == null){
+            return false;
         }
+        return distance(fish.getX(), fish.getY(), f.getX(), f.getY()) <= fish.getRange();
     }
 
     @Override
     public boolean isFoodWithinObstacle(String food) {
-        synchronized(this){
-            Food f = this.food.get(food);
-            if(f == null){
-                return false;
-            }
-            Position foodPos = f.getPosition();
-            return this.obstacles.stream().anyMatch(o -> Vector2D.fromPositions(foodPos, o.getPosition()).getLength() < o.getRadius());
+        Food f = this.food.get(food);
+        if(f == null){
+            return false;
         }
+        return this.isInsideObstacle(f.getX(), f.getY());
     }
 
     @Override
     public void moveTowards(String agent, double x, double y, Speed speed) {
-        synchronized(this.agents){
-            this.ensureAgentExists(agent);
-            Fish fish = this.agents.get(agent);
-            Position pos = fish.getPosition();
-            pos.addX(x);
-            pos.addY(y);
-            fish.moveTowards(pos, speed);
-        }
-            
+        Fish fish = this.getAgent(agent);
+        Position pos = fish.getPosition();
+        pos.addX(x);
+        pos.addY(y);
+        fish.moveTowards(pos, speed, Math.min(1, Math.hypot(x, y)));
+        this.fishIndex.move(fish, fish.getX(), fish.getY());
     }
 
     @Override
     public void sink(String food) {
-        synchronized(this.food){
-            if(!this.food.containsKey(food)){
-                throw new IllegalArgumentException("No such food: " + food);
-            }
+        Food f = this.food.get(food);
+        if(f == null){
+            throw new IllegalArgumentException("No such food: " + food);
+        }
+        f.sink();
+        this.foodIndex.move(f, f.getX(), f.getY());
+    }
 
-            this.food.get(food).sink(); 
+    @Override
+    public void sinkStep() {
+        for (Food f : this.food.values()) {
+            f.sink();
+            // A piece eaten in the meantime is no longer indexed, and is not re-inserted.
+            this.foodIndex.move(f, f.getX(), f.getY());
         }
     }
 
     @Override
     public Optional<Food> getFoodByPosition(double x, double y) {
-        synchronized(this.food){
-            return this.food.values().stream()
-                                        .filter(f -> f.getPosition().getX() == x && f.getPosition().getY() == y)
-                                        .findFirst();
-        }
+        return this.food.values().stream()
+                                    .filter(f -> f.getPosition().getX() == x && f.getPosition().getY() == y)
+                                    .findFirst();
     }
 
     @Override
@@ -155,101 +179,240 @@ public class AquariumModelImpl implements AquariumModel {
 
     @Override
     public boolean isAgentCloseToObstacle(String agent, Obstacle obstacle) {
-        synchronized(this.agents){
-            this.ensureAgentExists(agent);
-            Position obstaclePos = new Position(obstacle.getX(), obstacle.getY());
-            Fish fish = this.agents.get(agent);
-            Vector2D dir = Vector2D.fromPositions(fish.getPosition(), obstaclePos);
-            return dir.getLength() <= fish.getSize() / 2 + fish.getObstacleRange() + obstacle.getRadius();
-        }
+        Fish fish = this.getAgent(agent);
+        return distance(fish.getX(), fish.getY(), obstacle.getX(), obstacle.getY()) <= fish.getSize() / 2 + fish.getObstacleRange() + obstacle.getRadius();
     }
 
     @Override
     public boolean eat(String agent, String foodId) {
-        synchronized(this){
-            this.ensureAgentExists(agent);
-            if (!this.food.containsKey(foodId)) {
-                return false;
-            }
-            if (!this.isAgentCloseToFood(agent, foodId)) {
-                return false;
-            }
-            Fish fish = this.agents.get(agent);
-            this.addEventToList(new Pair<>(agent, "eat"));
-            fish.addEnergy(Utils.FOOD_ENERGY_INCREASE);
-            this.food.remove(foodId);
-            if(!this.recentEaters.add(fish)){
-                this.recentEaters.remove(fish);
-                this.recentEaters.add(fish);
-            }
-            this.totalNumberOfFoodEaten++;
-            fish.incrementFoodEaten();
-            this.addEventToList(new Pair<>(agent, "digest"));
-            return true;
+        long start = SimulationMetrics.start();
+        try {
+            return this.tryEat(agent, foodId);
+        } finally {
+            EAT_TIMER.stop(start);
         }
     }
 
+    private boolean tryEat(String agent, String foodId) {
+        Fish fish = this.getAgent(agent);
+        Food f = this.food.get(foodId);
+        if (f == null) {
+            return false;
+        }
+        if (distance(fish.getX(), fish.getY(), f.getX(), f.getY()) > fish.getRange()) {
+            return false;
+        }
+        // Atomic claim: only one of the fish racing for the same piece removes it.
+        if (!this.food.remove(foodId, f)) {
+            EAT_LOST_COUNTER.increment();
+            return false;
+        }
+        this.foodIndex.remove(f);
+        this.addEventToList(new Pair<>(agent, EventJournal.EAT));
+        fish.addEnergy(Utils.FOOD_ENERGY_INCREASE);
+        this.totalNumberOfFoodEaten.incrementAndGet();
+        this.statistics.ate(fish.incrementFoodEaten());
+        this.addEventToList(new Pair<>(agent, EventJournal.DIGEST));
+        return true;
+    }
+
     @Override
     public boolean canAgentEatFood(String agent, String foodId) {
-        synchronized(this){
-            this.ensureAgentExists(agent);
-            if (!this.food.containsKey(foodId)) {
-                return false;
-            }
-            Fish fish = this.agents.get(agent);
-            Food food = this.food.get(foodId);
-    
-            Vector2D dir = Vector2D.fromPositions(fish.getPosition(), food.getPosition());
-            return dir.getLength() <= fish.getEatingRange() + fish.getSize() / 2;
+        Fish fish = this.getAgent(agent);
+        Food f = this.food.get(foodId);
+        if (f == null) {
+            return false;
         }
+        return distance(fish.getX(), fish.getY(), f.getX(), f.getY()) <= fish.getEatingRange() + fish.getSize() / 2;
     }
 
     @Override
     public void addFish(String agentName, double weight, double energy, double maxEnergy, Position position) {
-        synchronized(this.agents){
-            this.addEventToList(new Pair<>(agentName, "add"));
-            this.agents.put(agentName, new Fish(agentName, weight, energy, maxEnergy, position));
+        this.addEventToList(new Pair<>(agentName, EventJournal.ADD));
+        Fish fish = this.fishStore.add(agentName, weight, energy, maxEnergy, position);
+        Fish previous = this.agents.put(agentName, fish);
+        if (previous != null) {
+            this.statistics.replaced(previous.getNumberOfFoodEaten());
+            this.fishIndex.remove(previous);
+            this.fishStore.remove(previous);
+        } else {
+            this.statistics.added();
+        }
+        this.fishIndex.insert(fish, fish.getX(), fish.getY());
+        synchronized(this.fishIndex){
+            this.maxFishHalfSize = Math.max(this.maxFishHalfSize, fish.getSize() / 2);
         }
     }
 
     @Override
     public void addFood(Position position) {
-        synchronized(this.food){
-            String id = "food" + this.foodId++;
-            this.food.put(id, new Food(id, position, height - FOOD_OFFSET));
-            if(foodId < 0){
-                foodId = 0;
+        String id = "food" + (this.foodId.getAndIncrement() & Long.MAX_VALUE);
+        Food f = new Food(id, position, height - FOOD_OFFSET);
+        this.food.put(id, f);
+        this.foodIndex.insert(f, f.getX(), f.getY());
+    }
+
+    @Override
+    public void addObstacle(Position position, double radius) {
+        Obstacle obstacle = new Obstacle(position.getX(), position.getY(), radius);
+        this.obstacles.add(obstacle);
+        this.obstacleIndex.insert(obstacle, obstacle.getX(), obstacle.getY());
+        synchronized(this.obstacleIndex){
+            this.maxObstacleRadius = Math.max(this.maxObstacleRadius, radius);
+        }
+    }
+
+    @Override
+    public Collection<Food> getNearbyFood(String agent) {
+        Fish fish = this.getAgent(agent);
+        double x = fish.getX();
+        double y = fish.getY();
+        double range = fish.getRange();
+        List<Food> nearby = new ArrayList<>();
+        for (Food f : this.foodIndex.query(x, y, range)) {
+            if (distance(x, y, f.getX(), f.getY()) <= range && !this.isInsideObstacle(f.getX(), f.getY())) {
+                nearby.add(f);
             }
         }
+        return nearby;
     }
 
     @Override
-    public void addObstacle(Position position, double radius) {
-        this.obstacles.add(new Obstacle(position.getX(), position.getY(), radius));
+    public Optional<Food> getClosestFoodThatCanBeEaten(String agent) {
+        Fish fish = this.getAgent(agent);
+        double x = fish.getX();
+        double y = fish.getY();
+        double range = Math.min(fish.getRange(), fish.getEatingRange() + fish.getSize() / 2);
+        Food closest = null;
+        double closestDistance = Double.MAX_VALUE;
+        for (Food f : this.foodIndex.query(x, y, range)) {
+            double d = distance(x, y, f.getX(), f.getY());
+            if (d <= range && d < closestDistance && !this.isInsideObstacle(f.getX(), f.getY())) {
+                closest = f;
+                closestDistance = d;
+            }
+        }
+        return Optional.ofNullable(closest);
     }
 
     @Override
-    public boolean isAgentCloseToBorder(String agent, Direction dir) {
-        synchronized(this.agents){
-            this.ensureAgentExists(agent);
-            Fish fish = this.agents.get(agent);
-            Position fishPosition = fish.getPosition();
-            switch (dir) {
-                case LEFT:
-                    return fishPosition.getX() <= fish.getObstacleRange() + fish.getSize() / 2;
-                case RIGHT:
-                    return fishPosition.getX() >= this.width - fish.getObstacleRange() - fish.getSize() / 2;
-                case TOP:
-                    return fishPosition.getY() <= fish.getObstacleRange() + fish.getSize() / 2;
-                default:
-                    return fishPosition.getY() >= this.height - fish.getObstacleRange() - fish.getSize() / 2;   
+    public Collection<Obstacle> getNearbyObstacles(String agent) {
+        Fish fish = this.getAgent(agent);
+        double x = fish.getX();
+        double y = fish.getY();
+        double reach = fish.getSize() / 2 + fish.getObstacleRange();
+        List<Obstacle> nearby = new ArrayList<>();
+        for (Obstacle o : this.obstacleIndex.query(x, y, reach + this.maxObstacleRadius)) {
+            if (distance(x, y, o.getX(), o.getY()) <= reach + o.getRadius()) {
+                nearby.add(o);
+            }
+        }
+        return nearby;
+    }
+
+    @Override
+    public Collection<Fish> getNearbyFish(String agent) {
+        Fish fish = this.getAgent(agent);
+        double x = fish.getX();
+        double y = fish.getY();
+        double reach = fish.getSize() / 2 + fish.getObstacleRange();
+        List<Fish> nearby = new ArrayList<>();
+        for (Fish other : this.fishIndex.query(x, y, reach + this.maxFishHalfSize)) {
+            if (other != fish && distance(x, y, other.getX(), other.getY()) <= reach + other.getSize() / 2) {
+                nearby.add(other);
+            }
+        }
+        return nearby;
+    }
+
+    @Override
+    public List<Obstacle> getNearestObstacles(String agent, int k) {
+        Fish fish = this.getAgent(agent);
+        double x = fish.getX();
+        double y = fish.getY();
+        double reach = fish.getSize() / 2 + fish.getObstacleRange();
+        return this.obstacleIndex.nearest(x, y, reach + this.maxObstacleRadius, k,
+            o -> distance(x, y, o.getX(), o.getY()) <= reach + o.getRadius(),
+            o -> squaredDistance(x, y, o.getX(), o.getY()));
+    }
+
+    @Override
+    public List<Fish> getNearestFish(String agent, int k) {
+        return this.getNearestFish(agent, k, this.getAgent(agent).getObstacleRange());
+    }
+
+    @Override
+    public List<Fish> getNearestFish(String agent, int k, double range) {
+        Fish fish = this.getAgent(agent);
+        double x = fish.getX();
+        double y = fish.getY();
+        double reach = fish.getSize() / 2 + range;
+        return this.fishIndex.nearest(x, y, reach + this.maxFishHalfSize, k,
+            other -> other != fish && distance(x, y, other.getX(), other.getY()) <= reach + other.getSize() / 2,
+            other -> squaredDistance(x, y, other.getX(), other.getY()));
+    }
+
+    @Override
+    public long getPerceptionVersion(String agent) {
+        return this.getPerceptionVersion(agent, this.getAgent(agent).getObstacleRange());
+    }
+
+    @Override
+    public long getPerceptionVersion(String agent, double fishRange) {
+        Fish fish = this.getAgent(agent);
+        double x = fish.getX();
+        double y = fish.getY();
+        double reach = fish.getSize() / 2 + fish.getObstacleRange();
+        double fishReach = fish.getSize() / 2 + Math.max(fishRange, fish.getObstacleRange());
+        return this.fishIndex.version(x, y, fishReach + this.maxFishHalfSize)
+            + this.foodIndex.version(x, y, fish.getRange())
+            + this.obstacleIndex.version(x, y, Math.max(fish.getRange(), reach) + this.maxObstacleRadius);
+    }
+
+    /**
+     * Checks whether a point lies strictly inside any obstacle, using the obstacle index.
+     */
+    private boolean isInsideObstacle(double x, double y) {
+        for (Obstacle o : this.obstacleIndex.query(x, y, this.maxObstacleRadius)) {
+            if (distance(x, y, o.getX(), o.getY()) < o.getRadius()) {
+                return true;
             }
         }
+        return false;
+    }
+
+    private static double squaredDistance(double x1, double y1, double x2, double y2) {
+        double dx = x2 - x1;
+        double dy = y2 - y1;
+        return dx * dx + dy * dy;
+    }
+
+    private static double distance(double x1, double y1, double x2, double y2) {
+        double dx = x2 - x1;
+        double dy = y2 - y1;
+        return Math.sqrt(dx * dx + dy * dy);
+    }
+
+    @Override
+    public boolean isAgentCloseToBorder(String agent, Direction dir) {
+        Fish fish = this.getAgent(agent);
+        double x = fish.getX();
+        double y = fish.getY();
+        switch (dir) {
+            case LEFT:
+                return x <= fish.getObstacleRange() + fish.getSize() / 2;
+            case RIGHT:
+                return x >= this.width - fish.getObstacleRange() - fish.getSize() / 2;
+            case TOP:
+                return y <= fish.getObstacleRange() + fish.getSize() / 2;
+            default:
+                return y >= this.height - fish.getObstacleRange() - fish.getSize() / 2;
+        }
     }
 
     @Override
     public int getNumberOfFoodEaten() {
-        return this.totalNumberOfFoodEaten;
+        return this.totalNumberOfFoodEaten.get();
     }
 
     @Override
@@ -264,84 +427,59 @@ public class AquariumModelImpl implements AquariumModel {
 
     @Override
     public boolean isAgentCloseToOtherAgent(String agent1, String agent2) {
-        synchronized(this.agents){
-            Fish fish1 = this.agents.get(agent1);
-            Fish fish2 = this.agents.get(agent2);
-    
-            ensureAgentExists(agent1);
-            if (fish2 == null) {
-                return false;
-            }
+        Fish fish1 = this.getAgent(agent1);
+        Fish fish2 = this.agents.get(agent2);
+        if (fish2 == null) {
+            return false;
+        }
 
-            if(agent1 == agent2){
-                return true;
-            }
-            
-            Vector2D dir = Vector2D.fromPositions(fish1.getPosition(), fish2.getPosition());
-            return dir.getLength() <= fish1.getSize() / 2 + fish1.getObstacleRange() + fish2.getSize() / 2;
+        if(agent1 == agent2){
+            return true;
         }
+
+        return distance(fish1.getX(), fish1.getY(), fish2.getX(), fish2.getY()) <= fish1.getSize() / 2 + fish1.getObstacleRange() + fish2.getSize() / 2;
     }
 
     @Override
-    public double getFairnessIndex() {
-        synchronized(this.agents){
-            if(this.agents.size() < 2){
-                return Double.NaN;
-            }
-            long maxNumberOfFoodEaten = this.agents.values().stream().mapToLong(f -> f.getNumberOfFoodEaten()).max().getAsLong();
-            if(maxNumberOfFoodEaten == 0){
-                return 1;
-            }
-            var mean = 1.0 * this.totalNumberOfFoodEaten / this.agents.size();
-            var variance = this.agents.values().stream()
-                .mapToDouble(f -> Math.pow(f.getNumberOfFoodEaten() - mean, 2))
-                .sum() / (this.agents.size() - 1);
-            return Math.exp(-variance / (3 * maxNumberOfFoodEaten));
-        }
+    public FishStatistics getStatistics() {
+        return this.statistics.get();
     }
 
     @Override
     public String verifyEvents() {
-        synchronized (this.events) {
-            Map<String, List<String>> groupedEvents = new HashMap<>();
-            for (Pair<String, String> event : events) {
-                groupedEvents.computeIfAbsent(event.getFirst(), k -> new ArrayList<>()).add(event.getSecond());
-            }
-
-            for (Map.Entry<String, List<String>> entry : groupedEvents.entrySet()) {
-                List<String> fishEvents = entry.getValue();
-                if(!fishEvents.get(0).equals("add")){
-                    return "first event was not init";
-                }
-
-                if(!fishEvents.get(fishEvents.size() - 1).equals("die")){
-                    return "last event was not die";
-                }
-                
-                for (int i = 0; i < fishEvents.size() - 1; i++) {
-                    if (fishEvents.get(i).equals("eat")) {
-                        if(!fishEvents.get(i + 1).equals("digest")){
-                            return "a digest event does not follow an eat event";
-                        }
-                    }
-                }
-
-                for (int i = 1; i < fishEvents.size(); i++) {
-                    if (fishEvents.get(i).equals("eat")) {
-                        if(!fishEvents.get(i - 1).equals("food_percept")){
-                            return "a food_percept event does not precede an eat event";
-                        }
-                    }
-                }
-            }
-        }
-        return "";
+        return this.journal.verify();
     }
 
     @Override
     public void addEventToList(Pair<String, String> event) {
-        synchronized (this.events) {
-            this.events.add(event);
-        }
+        this.journal.record(event.getFirst(), event.getSecond());
+    }
+
+    @Override
+    public void recordFrame(TrajectoryRecorder recorder, long tick) throws IOException {
+        recorder.record(tick, this.fishStore, this.food.values());
+    }
+
+    @Override
+    public void publishFrame(long tick) {
+        FrameSnapshot frame = this.frames.beginWrite(tick, this.getNumberOfFoodEaten());
+        this.fishStore.forEach(frame::addFish);
+        this.food.values().forEach(frame::addFood);
+        this.obstacles.forEach(frame::addObstacle);
+        this.frames.publish();
+    }
+
+    @Override
+    public FrameSnapshot getLatestFrame() {
+        return this.frames.latest();
+    }
+
+    /**
+     * Retrieves the journal validating the events of the agents.
+     *
+     * @return The event journal.
+     */
+    public EventJournal getEventJournal() {
+        return this.journal;
     }
 }
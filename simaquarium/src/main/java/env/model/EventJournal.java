@@ -0,0 +1,162 @@
+package env.model;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The `EventJournal` class validates the lifecycle of every agent while the events happen, instead of storing
+ * them all and checking them at the end.
+ * Each agent is tracked by a tiny state machine following the protocol add → food_percept → eat → digest → die,
+ * so memory grows with the number of agents rather than with the length of the run.
+ * Optionally, the most recent events are also kept verbatim in a fixed-size ring buffer, for debugging.
+ */
+public class EventJournal {
+    public static final String ADD = "add";
+    public static final String FOOD_PERCEPT = "food_percept";
+    public static final String EAT = "eat";
+    public static final String DIGEST = "digest";
+    public static final String DIE = "die";
+    public static final String RAW_LOG_CAPACITY_PROPERTY = "simaquarium.journal";
+
+    private static final int FIRST_NOT_ADD = 1;
+    private static final int EAT_NOT_FOLLOWED_BY_DIGEST = 2;
+    private static final int EAT_NOT_PRECEDED_BY_PERCEPT = 4;
+
+    private final Map<String, Track> tracks = new ConcurrentHashMap<>();
+    // The ring buffer, as two parallel columns rather than an array of generic pairs.
+    private final String[] rawAgents;
+    private final String[] rawEvents;
+    private final AtomicLong recorded = new AtomicLong();
+
+    /**
+     * The `Track` class is the state of an agent: its last event and the violations seen so far.
+     */
+    private static final class Track {
+        private String last;
+        private int violations;
+    }
+
+    /**
+     * Constructs a journal without raw log.
+     */
+    public EventJournal() {
+        this(0);
+    }
+
+    /**
+     * Constructs a journal keeping the given number of most recent events verbatim.
+     *
+     * @param rawLogCapacity The size of the ring buffer of raw events, 0 to disable it.
+     */
+    public EventJournal(int rawLogCapacity) {
+        if (rawLogCapacity < 0) {
+            throw new IllegalArgumentException("Raw log capacity cannot be negative: " + rawLogCapacity);
+        }
+        this.rawAgents = new String[rawLogCapacity];
+        this.rawEvents = new String[rawLogCapacity];
+    }
+
+    /**
+     * Constructs a journal whose raw log capacity is set by the `simaquarium.journal` system property,
+     * e.g. `-Dsimaquarium.journal=1000`.
+     *
+     * @return The journal, without raw log by default.
+     */
+    public static EventJournal fromSystemProperty() {
+        return new EventJournal(Integer.getInteger(RAW_LOG_CAPACITY_PROPERTY, 0));
+    }
+
+    /**
+     * Records an event of an agent, advancing its state machine.
+     *
+     * @param agent The name of the agent.
+     * @param event The type of the event.
+     */
+    public void record(String agent, String event) {
+        this.tracks.compute(agent, (name, track) -> {
+            if (track == null) {
+                track = new Track();
+                if (!ADD.equals(event)) {
+                    track.violations |= FIRST_NOT_ADD;
+                }
+            }
+            synchronized(track){
+                if (EAT.equals(track.last) && !DIGEST.equals(event)) {
+                    track.violations |= EAT_NOT_FOLLOWED_BY_DIGEST;
+                }
+                if (EAT.equals(event) && track.last != null && !FOOD_PERCEPT.equals(track.last)) {
+                    track.violations |= EAT_NOT_PRECEDED_BY_PERCEPT;
+                }
+                track.last = event;
+            }
+            return track;
+        });
+        if (this.rawAgents.length == 0) {
+            this.recorded.incrementAndGet();
+            return;
+        }
+        synchronized(this.rawAgents){
+            int index = (int) (this.recorded.getAndIncrement() % this.rawAgents.length);
+            this.rawAgents[index] = agent;
+            this.rawEvents[index] = event;
+        }
+    }
+
+    /**
+     * Verifies the events recorded so far: every agent must have been added first and have died last,
+     * and each meal must follow a food percept and be followed by its digestion.
+     *
+     * @return An empty string if the protocol was respected, the description of a violation otherwise.
+     */
+    public String verify() {
+        for (Track track : this.tracks.values()) {
+            synchronized(track){
+                if ((track.violations & FIRST_NOT_ADD) != 0) {
+                    return "first event was not init";
+                }
+                if (!DIE.equals(track.last)) {
+                    return "last event was not die";
+                }
+                if ((track.violations & EAT_NOT_FOLLOWED_BY_DIGEST) != 0) {
+                    return "a digest event does not follow an eat event";
+                }
+                if ((track.violations & EAT_NOT_PRECEDED_BY_PERCEPT) != 0) {
+                    return "a food_percept event does not precede an eat event";
+                }
+            }
+        }
+        return "";
+    }
+
+    /**
+     * Retrieves the most recent events kept by the raw log, oldest first.
+     *
+     * @return The recent events, empty if the raw log is disabled.
+     */
+    public List<Pair<String, String>> getRecentEvents() {
+        List<Pair<String, String>> events = new ArrayList<>();
+        if (this.rawAgents.length == 0) {
+            return events;
+        }
+        synchronized(this.rawAgents){
+            long recorded = this.recorded.get();
+            for (long i = Math.max(0, recorded - this.rawAgents.length); i < recorded; i++) {
+                int index = (int) (i % this.rawAgents.length);
+                events.add(new Pair<>(this.rawAgents[index], this.rawEvents[index]));
+            }
+        }
+        return events;
+    }
+
+    /**
+     * Retrieves the number of events recorded since the journal was created.
+     *
+     * @return The number of recorded events, including those no longer in the raw log.
+     */
+    public long getRecordedEvents() {
+        return this.recorded.get();
+    }
+}
@@ -1,23 +1,31 @@
 package env.model;
 
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.function.DoubleUnaryOperator;
+
 import utils.Utils;
 
 /**
  * The `Fish` class represents a fish agent in the simulation.
  * It contains attributes and methods to manage the fish's state, movement, and interactions.
+ * A fish is a view over a slot of a `FishStore`: its state lives in the primitive columns of the store.
+ * A fish is mutated by several threads: its moves are applied by the engine thread (or, in lock-step, by the thread
+ * executing the action), and its meals by the thread executing its `eat` action. The counters updated by both, energy
+ * and food eaten, are therefore updated atomically; the position and direction are only written by the moves.
+ * Readers (the view, the environment and the neighbouring agents) do not lock and may observe a slightly stale state.
  */
 public class Fish {
     private static final int MIN_RANGE = 10; // Minimum range for various calculations
-    private String id; // Unique identifier for the fish
-    private double weight; // Weight of the fish in grams, between 30 and 120
-    private double energy; // Current energy level of the fish
-    private double maxEnergy; // Maximum energy level of the fish
-    private Position position; // Current position of the fish
-    private long numberOfFoodEaten; // Number of food items eaten by the fish
-    private Vector2D direction = Vector2D.of(1, 0); // Current direction of the fish
+    private static final VarHandle DOUBLE_ELEMENT = MethodHandles.arrayElementVarHandle(double[].class);
+    private static final VarHandle LONG_ELEMENT = MethodHandles.arrayElementVarHandle(long[].class);
+    private final String id; // Unique identifier for the fish
+    private final int slot; // Slot of the fish in its store, -1 for a standalone fish
+    private final int offset; // Offset of the fish within its chunk
+    private volatile FishStore.Chunk chunk; // Columns holding the state of the fish
 
      /**
-     * Constructs a new `Fish` instance with the specified attributes.
+     * Constructs a new standalone `Fish` instance with the specified attributes.
      * 
      * @param id The unique identifier for the fish.
      * @param weight The weight of the fish in grams.
@@ -26,12 +34,32 @@ public class Fish {
      * @param position The initial position of the fish.
      */
     public Fish(String id, double weight, double energy, double maxEnergy, Position position) {
+        this(id, new FishStore.Chunk(1), 0, -1);
+        this.chunk.set(0, weight, energy, maxEnergy, position.getX(), position.getY());
+    }
+
+    /**
+     * Constructs a view over a slot of a `FishStore`.
+     */
+    Fish(String id, FishStore.Chunk chunk, int offset, int slot) {
         this.id = id;
-        this.weight = weight;
-        this.energy = energy;
-        this.maxEnergy = maxEnergy;
-        this.position = position;
-        this.numberOfFoodEaten = 0;
+        this.chunk = chunk;
+        this.offset = offset;
+        this.slot = slot;
+    }
+
+    /**
+     * Retrieves the slot of the fish in its store.
+     */
+    int getSlot() {
+        return this.slot;
+    }
+
+    /**
+     * Moves the state of the fish to a private chunk, before its slot is reused.
+     */
+    void detach() {
+        this.chunk = this.chunk.copyOf(this.offset);
     }
 
     /**
@@ -49,7 +77,7 @@ public class Fish {
      * @return The x-coordinate.
      */
     public double getX() {
-        return this.position.getX();
+        return this.chunk.x[this.offset];
     }
     
     /**
@@ -58,25 +86,27 @@ public class Fish {
      * @return The y-coordinate.
      */
     public double getY() {
-        return this.position.getY();
+        return this.chunk.y[this.offset];
     }
     
     /**
-     * Retrieves the x-component of the fish's direction.
+     * Retrieves the x-component of the fish's direction, whose length is the fraction of a full step the fish
+     * covered at its last move.
      * 
      * @return The x-component of the direction.
      */
     public double getDirX() {
-        return this.direction.getX();
+        return this.chunk.dirX[this.offset];
     }
     
     /**
-     * Retrieves the y-component of the fish's direction.
+     * Retrieves the y-component of the fish's direction, whose length is the fraction of a full step the fish
+     * covered at its last move.
      * 
      * @return The y-component of the direction.
      */
     public double getDirY() {
-        return this.direction.getY();
+        return this.chunk.dirY[this.offset];
     }
     
     /**
@@ -85,7 +115,7 @@ public class Fish {
      * @return The weight in grams.
      */
     public double getWeight() {
-        return this.weight;
+        return this.chunk.weight[this.offset];
     }
     
     /**
@@ -94,7 +124,7 @@ public class Fish {
      * @return The range of the fish.
      */
     public double getRange() {
-        return MIN_RANGE + this.weight * 2;
+        return MIN_RANGE + this.getWeight() * 2;
     }
     
     /**
@@ -103,7 +133,7 @@ public class Fish {
      * @return The base speed of the fish.
      */
     public double getBaseSpeed() {
-        return Fish.speedFromWeight(this.weight);
+        return Fish.speedFromWeight(this.getWeight());
     }
     
     /**
@@ -112,7 +142,7 @@ public class Fish {
      * @return The current energy level.
      */
     public double getEnergy() {
-        return this.energy;
+        return this.chunk.energy[this.offset];
     }
 
     /**
@@ -130,7 +160,7 @@ public class Fish {
      * @return The direction as a `Vector2D` object.
      */
     public Vector2D getDirection() {
-        return Vector2D.of(this.direction.getX(), this.direction.getY());
+        return Vector2D.of(this.getDirX(), this.getDirY());
     }
 
     /**
@@ -140,11 +170,32 @@ public class Fish {
      * @param speed The speed at which the fish moves.
      */
     public void moveTowards(Position target, Speed speed) {
-        this.direction = Vector2D.fromPositions(this.position, target).normalize();
-        this.position.setX(this.position.getX() + this.direction.getX() * this.getBaseSpeed() * speed.getSpeed());
-        this.position.setY(this.position.getY() + this.direction.getY() * this.getBaseSpeed() * speed.getSpeed());
+        this.moveTowards(target, speed, 1);
+    }
+
+    /**
+     * Moves the fish towards a target position at a fraction of a specified speed. The direction of the fish is
+     * scaled by that fraction, so that it tells how fast the fish went as well as where.
+     * 
+     * @param target The target position.
+     * @param speed The speed at which the fish moves.
+     * @param throttle The fraction of the step at that speed the fish covers, from 0 to 1.
+     */
+    public void moveTowards(Position target, Speed speed, double throttle) {
+        FishStore.Chunk c = this.chunk;
+        int i = this.offset;
+        double dx = target.getX() - c.x[i];
+        double dy = target.getY() - c.y[i];
+        double length = Math.sqrt(dx * dx + dy * dy);
+        double dirX = length == 0 ? 0 : dx / length * throttle;
+        double dirY = length == 0 ? 0 : dy / length * throttle;
+        double step = this.getBaseSpeed() * speed.getSpeed();
+        c.dirX[i] = dirX;
+        c.dirY[i] = dirY;
+        c.x[i] += dirX * step;
+        c.y[i] += dirY * step;
 
-        this.decreaseEnergy(speed.getSpeed() * Utils.MOVEMENT_MULTIPLIER * this.weight);
+        this.decreaseEnergy(speed.getSpeed() * Utils.MOVEMENT_MULTIPLIER * this.getWeight());
     }
 
     /**
@@ -163,7 +214,8 @@ public class Fish {
      * @param energy The amount of energy to add.
      */
     public void addEnergy(double energy) {
-        this.energy = Math.min(this.maxEnergy, this.energy + energy);
+        double maxEnergy = this.getMaxEnergy();
+        this.updateEnergy(e -> Math.min(maxEnergy, e + energy));
     }
 
     /**
@@ -172,7 +224,19 @@ public class Fish {
      * @param energy The amount of energy to subtract.
      */
     public void decreaseEnergy(double energy) {
-        this.energy = Math.max(0, this.energy - energy);
+        this.updateEnergy(e -> Math.max(0, e - energy));
+    }
+
+    /**
+     * Updates the energy of the fish atomically, since moves are applied by the engine thread while meals are
+     * applied by the thread executing the `eat` action.
+     */
+    private void updateEnergy(DoubleUnaryOperator update) {
+        double[] column = this.chunk.energy;
+        double current;
+        do {
+            current = (double) DOUBLE_ELEMENT.getVolatile(column, this.offset);
+        } while (!DOUBLE_ELEMENT.compareAndSet(column, this.offset, current, update.applyAsDouble(current)));
     }
 
     /**
@@ -203,10 +267,12 @@ public class Fish {
     }
 
     /**
-     * Increments the number of food items eaten by the fish.
+     * Increments the number of food items eaten by the fish, atomically.
+     *
+     * @return The number of food items eaten before.
      */
-    public void incrementFoodEaten() {
-        this.numberOfFoodEaten++;
+    public long incrementFoodEaten() {
+        return (long) LONG_ELEMENT.getAndAdd(this.chunk.foodEaten, this.offset, 1L);
     }
 
     /**
@@ -215,7 +281,7 @@ public class Fish {
      * @return The number of food items eaten.
      */
     public long getNumberOfFoodEaten() {
-        return this.numberOfFoodEaten;
+        return this.chunk.foodEaten[this.offset];
     }
 
     /**
@@ -224,6 +290,6 @@ public class Fish {
      * @return The maximum energy level.
      */
     public double getMaxEnergy(){
-        return this.maxEnergy;
+        return this.chunk.maxEnergy[this.offset];
     }
 }
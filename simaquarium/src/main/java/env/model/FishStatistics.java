@@ -0,0 +1,103 @@
+package env.model;
+
+/**
+ * The `FishStatistics` class is an immutable summary of the population of an aquarium: how many fish were added and
+ * are still alive, and the count, sum, sum of squares and maximum of the food they have eaten.
+ * Every derived statistic is computed from these aggregates in constant time.
+ */
+public final class FishStatistics {
+    static final FishStatistics EMPTY = new FishStatistics(0, 0, 0, 0, 0);
+
+    private final int fishAdded;
+    private final int fishAlive;
+    private final long foodEatenSum;
+    private final long foodEatenSumOfSquares;
+    private final long foodEatenMax;
+
+    FishStatistics(int fishAdded, int fishAlive, long foodEatenSum, long foodEatenSumOfSquares, long foodEatenMax) {
+        this.fishAdded = fishAdded;
+        this.fishAlive = fishAlive;
+        this.foodEatenSum = foodEatenSum;
+        this.foodEatenSumOfSquares = foodEatenSumOfSquares;
+        this.foodEatenMax = foodEatenMax;
+    }
+
+    /**
+     * Retrieves how many fish were ever added, counting a fish added again under the same name once.
+     *
+     * @return The number of fish added.
+     */
+    public int getFishAdded() {
+        return this.fishAdded;
+    }
+
+    public int getFishAlive() {
+        return this.fishAlive;
+    }
+
+    /**
+     * Retrieves the share of the fish added that are still alive.
+     *
+     * @return The survival rate, between 0 and 1, or NaN if no fish was added.
+     */
+    public double getSurvivalRate() {
+        return this.fishAdded == 0 ? Double.NaN : (double) this.fishAlive / this.fishAdded;
+    }
+
+    /**
+     * Retrieves the number of food items eaten by the fish alive, which excludes what dead fish ate.
+     *
+     * @return The sum of the food eaten by the fish alive.
+     */
+    public long getFoodEatenSum() {
+        return this.foodEatenSum;
+    }
+
+    public long getFoodEatenMax() {
+        return this.foodEatenMax;
+    }
+
+    /**
+     * Retrieves the mean number of food items eaten by the fish alive.
+     *
+     * @return The mean, or NaN if no fish is alive.
+     */
+    public double getFoodEatenMean() {
+        return this.fishAlive == 0 ? Double.NaN : (double) this.foodEatenSum / this.fishAlive;
+    }
+
+    /**
+     * Retrieves the sample variance of the number of food items eaten by the fish alive.
+     *
+     * @return The variance, or NaN if fewer than two fish are alive.
+     */
+    public double getFoodEatenVariance() {
+        if (this.fishAlive < 2) {
+            return Double.NaN;
+        }
+        // The sums are exact, so the textbook formula only rounds once; the clamp guards against that rounding.
+        double squaredDeviations = this.foodEatenSumOfSquares - (double) this.foodEatenSum * this.foodEatenSum / this.fishAlive;
+        return Math.max(0, squaredDeviations) / (this.fishAlive - 1);
+    }
+
+    /**
+     * Calculates the fairness index, exp(-variance / (3 * max)) of the food eaten by the fish alive.
+     *
+     * @return The fairness index, 1 when no fish has eaten yet, or NaN if fewer than two fish are alive.
+     */
+    public double getFairnessIndex() {
+        if (this.fishAlive < 2) {
+            return Double.NaN;
+        }
+        if (this.foodEatenMax == 0) {
+            return 1;
+        }
+        return Math.exp(-this.getFoodEatenVariance() / (3 * this.foodEatenMax));
+    }
+
+    @Override
+    public String toString() {
+        return "FishStatistics [fishAdded=" + this.fishAdded + ", fishAlive=" + this.fishAlive
+            + ", foodEatenSum=" + this.foodEatenSum + ", foodEatenMax=" + this.foodEatenMax + "]";
+    }
+}
@@ -0,0 +1,98 @@
+package env.model;
+
+import java.util.Arrays;
+
+/**
+ * The `FishStatisticsAccumulator` class maintains the {@link FishStatistics} of a population incrementally as fish
+ * are added, eat and die. Updates are serialized on the accumulator and publish a new immutable summary, so
+ * readers never lock anything.
+ * The maximum is tracked with a histogram of the food eaten per fish, so that it can go down when the fish that ate
+ * the most dies.
+ */
+class FishStatisticsAccumulator {
+    private volatile FishStatistics statistics = FishStatistics.EMPTY;
+    private int[] histogram = new int[16];
+    private int fishAdded;
+    private int fishAlive;
+    private long sum;
+    private long sumOfSquares;
+    private int max;
+
+    /**
+     * Retrieves the latest summary.
+     *
+     * @return The statistics, read without locking.
+     */
+    FishStatistics get() {
+        return this.statistics;
+    }
+
+    /**
+     * Records a new fish, which has not eaten anything yet.
+     */
+    synchronized void added() {
+        this.fishAdded++;
+        this.enter(0);
+        this.publish();
+    }
+
+    /**
+     * Records a fish replaced by another one with the same name, which is not counted as a new fish.
+     *
+     * @param foodEaten The number of food items the replaced fish had eaten.
+     */
+    synchronized void replaced(long foodEaten) {
+        this.leave(foodEaten);
+        this.enter(0);
+        this.publish();
+    }
+
+    /**
+     * Records the death of a fish.
+     *
+     * @param foodEaten The number of food items the fish had eaten.
+     */
+    synchronized void removed(long foodEaten) {
+        this.leave(foodEaten);
+        this.publish();
+    }
+
+    /**
+     * Records a fish eating one more food item. Two meals of the same fish may be recorded in either order: the
+     * summary is right again once both are.
+     *
+     * @param foodEatenBefore The number of food items the fish had eaten before.
+     */
+    synchronized void ate(long foodEatenBefore) {
+        this.leave(foodEatenBefore);
+        this.enter(foodEatenBefore + 1);
+        this.publish();
+    }
+
+    private void enter(long foodEaten) {
+        int value = (int) foodEaten;
+        if (value >= this.histogram.length) {
+            this.histogram = Arrays.copyOf(this.histogram, Math.max(value + 1, this.histogram.length * 2));
+        }
+        this.histogram[value]++;
+        this.fishAlive++;
+        this.sum += value;
+        this.sumOfSquares += (long) value * value;
+        this.max = Math.max(this.max, value);
+    }
+
+    private void leave(long foodEaten) {
+        int value = (int) foodEaten;
+        this.histogram[value]--;
+        this.fishAlive--;
+        this.sum -= value;
+        this.sumOfSquares -= (long) value * value;
+        while (this.max > 0 && this.histogram[this.max] == 0) {
+            this.max--;
+        }
+    }
+
+    private void publish() {
+        this.statistics = new FishStatistics(this.fishAdded, this.fishAlive, this.sum, this.sumOfSquares, this.max);
+    }
+}
@@ -0,0 +1,176 @@
+package env.model;
+
+import java.util.Arrays;
+import java.util.function.Consumer;
+
+/**
+ * The `FishStore` class keeps the state of every fish in primitive columns (structure of arrays), so that scans
+ * over the population walk contiguous memory instead of chasing one object per fish.
+ * Each fish gets a dense slot; a `Fish` is just a view over its slot. Slots freed by dead fish are reused.
+ *
+ * Columns are split in fixed-size chunks that are never reallocated: growing the store only appends chunks,
+ * so a view can keep a direct reference to its chunk and writes are never lost to a concurrent resize.
+ */
+public class FishStore {
+    static final int CHUNK_SIZE = 256;
+    private static final int CHUNK_SHIFT = 8;
+
+    private volatile Chunk[] chunks = new Chunk[0];
+    private int[] freeSlots = new int[16];
+    private int freeCount;
+    private int nextSlot;
+    private int size;
+
+    /**
+     * The `Chunk` class holds a fixed number of consecutive slots, one array per column.
+     */
+    static final class Chunk {
+        final double[] x;
+        final double[] y;
+        final double[] dirX;
+        final double[] dirY;
+        final double[] energy;
+        final double[] weight;
+        final double[] maxEnergy;
+        final long[] foodEaten;
+        final Fish[] views;
+
+        Chunk(int size) {
+            this.x = new double[size];
+            this.y = new double[size];
+            this.dirX = new double[size];
+            this.dirY = new double[size];
+            this.energy = new double[size];
+            this.weight = new double[size];
+            this.maxEnergy = new double[size];
+            this.foodEaten = new long[size];
+            this.views = new Fish[size];
+        }
+
+        /**
+         * Copies a slot of this chunk into the same offset of a new chunk, just large enough to hold it.
+         */
+        Chunk copyOf(int offset) {
+            Chunk copy = new Chunk(offset + 1);
+            copy.x[offset] = this.x[offset];
+            copy.y[offset] = this.y[offset];
+            copy.dirX[offset] = this.dirX[offset];
+            copy.dirY[offset] = this.dirY[offset];
+            copy.energy[offset] = this.energy[offset];
+            copy.weight[offset] = this.weight[offset];
+            copy.maxEnergy[offset] = this.maxEnergy[offset];
+            copy.foodEaten[offset] = this.foodEaten[offset];
+            return copy;
+        }
+
+        void set(int offset, double weight, double energy, double maxEnergy, double x, double y) {
+            this.x[offset] = x;
+            this.y[offset] = y;
+            this.dirX[offset] = 1;
+            this.dirY[offset] = 0;
+            this.energy[offset] = energy;
+            this.weight[offset] = weight;
+            this.maxEnergy[offset] = maxEnergy;
+            this.foodEaten[offset] = 0;
+        }
+    }
+
+    /**
+     * Adds a fish to the store, in a free slot if any.
+     *
+     * @param id The unique identifier of the fish.
+     * @param weight The weight of the fish in grams.
+     * @param energy The initial energy level of the fish.
+     * @param maxEnergy The maximum energy level of the fish.
+     * @param position The initial position of the fish.
+     * @return The view over the new fish.
+     */
+    public synchronized Fish add(String id, double weight, double energy, double maxEnergy, Position position) {
+        int slot = this.freeCount > 0 ? this.freeSlots[--this.freeCount] : this.nextSlot++;
+        int chunkIndex = slot >>> CHUNK_SHIFT;
+        Chunk[] current = this.chunks;
+        if (chunkIndex == current.length) {
+            current = Arrays.copyOf(current, current.length + 1);
+            current[chunkIndex] = new Chunk(CHUNK_SIZE);
+            this.chunks = current;
+        }
+        Chunk chunk = current[chunkIndex];
+        int offset = slot & (CHUNK_SIZE - 1);
+        chunk.set(offset, weight, energy, maxEnergy, position.getX(), position.getY());
+        Fish fish = new Fish(id, chunk, offset, slot);
+        chunk.views[offset] = fish;
+        this.size++;
+        return fish;
+    }
+
+    /**
+     * Removes a fish from the store and frees its slot.
+     * The view keeps working on a private copy of its last state, so stale references never observe
+     * the fish that reuses the slot.
+     *
+     * @param fish The fish to remove.
+     */
+    public synchronized void remove(Fish fish) {
+        int slot = fish.getSlot();
+        if (slot < 0 || slot >= this.nextSlot) {
+            return;
+        }
+        Chunk chunk = this.chunks[slot >>> CHUNK_SHIFT];
+        int offset = slot & (CHUNK_SIZE - 1);
+        if (chunk.views[offset] != fish) {
+            return;
+        }
+        fish.detach();
+        chunk.views[offset] = null;
+        if (this.freeCount == this.freeSlots.length) {
+            this.freeSlots = Arrays.copyOf(this.freeSlots, this.freeCount * 2);
+        }
+        this.freeSlots[this.freeCount++] = slot;
+        this.size--;
+    }
+
+    /**
+     * Retrieves the number of fish in the store.
+     *
+     * @return The number of live fish.
+     */
+    public synchronized int size() {
+        return this.size;
+    }
+
+    /**
+     * Visits every fish in the store, in slot order.
+     *
+     * @param action The action to perform on each fish.
+     */
+    public void forEach(Consumer<Fish> action) {
+        for (Chunk chunk : this.chunks) {
+            for (Fish fish : chunk.views) {
+                if (fish != null) {
+                    action.accept(fish);
+                }
+            }
+        }
+    }
+
+    /**
+     * Retrieves how many pieces of food each fish in the store has eaten, scanning the column directly.
+     *
+     * @return The number of food eaten by every live fish, in slot order.
+     */
+    public long[] foodEatenCounts() {
+        long[] counts = new long[16];
+        int n = 0;
+        for (Chunk chunk : this.chunks) {
+            for (int i = 0; i < CHUNK_SIZE; i++) {
+                if (chunk.views[i] != null) {
+                    if (n == counts.length) {
+                        counts = Arrays.copyOf(counts, n * 2);
+                    }
+                    counts[n++] = chunk.foodEaten[i];
+                }
+            }
+        }
+        return Arrays.copyOf(counts, n);
+    }
+}
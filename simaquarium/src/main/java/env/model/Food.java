@@ -1,6 +1,6 @@
 package env.model;
 
-import utils.Utils;
+import utils.RandomStreams;
 
 /**
  * The `Food` class represents a food item in the simulation.
@@ -22,7 +22,7 @@ public class Food {
     public Food(String id, Position position, double bottom) {
         this.id = id;
         this.position = position;
-        this.foodSinkSpeed = Utils.RAND.nextDouble() * 2 - 1;
+        this.foodSinkSpeed = RandomStreams.current().fresh(id).nextDouble() * 2 - 1;
         this.bottom = bottom;
     }
 
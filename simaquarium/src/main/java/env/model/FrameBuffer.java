@@ -0,0 +1,43 @@
+package env.model;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * The `FrameBuffer` class hands frame snapshots over from the thread taking them to the thread drawing them,
+ * without locks and without allocating a new snapshot per frame.
+ * The writer fills its back snapshot and swaps it with the shared one; the reader swaps its front snapshot with
+ * the shared one only when the latter is newer. With this third, shared slot the writer never fills a snapshot
+ * the reader is still drawing, however slow the reader is.
+ * There must be a single writer thread and a single reader thread.
+ */
+class FrameBuffer {
+    private final AtomicReference<FrameSnapshot> shared = new AtomicReference<>(new FrameSnapshot());
+    private FrameSnapshot back = new FrameSnapshot();
+    private FrameSnapshot front = new FrameSnapshot();
+    private long sequence;
+
+    /**
+     * Retrieves the snapshot the writer should fill next, already reset for the given tick.
+     */
+    FrameSnapshot beginWrite(long tick, int numberOfFoodEaten) {
+        this.back.reset(this.sequence++, tick, numberOfFoodEaten);
+        return this.back;
+    }
+
+    /**
+     * Publishes the snapshot filled since the last call to {@link #beginWrite(long, int)}.
+     */
+    void publish() {
+        this.back = this.shared.getAndSet(this.back);
+    }
+
+    /**
+     * Retrieves the most recent published snapshot, which stays unchanged until the next call.
+     */
+    FrameSnapshot latest() {
+        if (this.shared.get().getSequence() > this.front.getSequence()) {
+            this.front = this.shared.getAndSet(this.front);
+        }
+        return this.front;
+    }
+}
@@ -0,0 +1,175 @@
+package env.model;
+
+import java.util.Arrays;
+
+/**
+ * The `FrameSnapshot` class is a picture of the aquarium taken at the end of a tick, stored in primitive arrays.
+ * A snapshot handed to a reader does not change while the reader holds it, so it can be drawn without
+ * synchronizing with the agents that keep moving the fish in the model.
+ */
+public class FrameSnapshot {
+    private long sequence = -1;
+    private long tick;
+    private int fishCount;
+    private double[] fishX = new double[0];
+    private double[] fishY = new double[0];
+    private double[] fishDirX = new double[0];
+    private double[] fishDirY = new double[0];
+    private double[] fishSize = new double[0];
+    private double[] fishRange = new double[0];
+    private double[] fishEnergy = new double[0];
+    private double[] fishMaxEnergy = new double[0];
+    private int foodCount;
+    private double[] foodX = new double[0];
+    private double[] foodY = new double[0];
+    private int obstacleCount;
+    private double[] obstacleX = new double[0];
+    private double[] obstacleY = new double[0];
+    private double[] obstacleRadius = new double[0];
+    private int numberOfFoodEaten;
+
+    /**
+     * Retrieves the tick the snapshot was taken at.
+     *
+     * @return The tick of the snapshot.
+     */
+    public long getTick() {
+        return this.tick;
+    }
+
+    long getSequence() {
+        return this.sequence;
+    }
+
+    public int getFishCount() {
+        return this.fishCount;
+    }
+
+    public double getFishX(int i) {
+        return this.fishX[i];
+    }
+
+    public double getFishY(int i) {
+        return this.fishY[i];
+    }
+
+    public double getFishDirX(int i) {
+        return this.fishDirX[i];
+    }
+
+    public double getFishDirY(int i) {
+        return this.fishDirY[i];
+    }
+
+    public double getFishSize(int i) {
+        return this.fishSize[i];
+    }
+
+    public double getFishRange(int i) {
+        return this.fishRange[i];
+    }
+
+    public double getFishEnergy(int i) {
+        return this.fishEnergy[i];
+    }
+
+    public double getFishMaxEnergy(int i) {
+        return this.fishMaxEnergy[i];
+    }
+
+    public int getFoodCount() {
+        return this.foodCount;
+    }
+
+    public double getFoodX(int i) {
+        return this.foodX[i];
+    }
+
+    public double getFoodY(int i) {
+        return this.foodY[i];
+    }
+
+    public int getObstacleCount() {
+        return this.obstacleCount;
+    }
+
+    public double getObstacleX(int i) {
+        return this.obstacleX[i];
+    }
+
+    public double getObstacleY(int i) {
+        return this.obstacleY[i];
+    }
+
+    public double getObstacleRadius(int i) {
+        return this.obstacleRadius[i];
+    }
+
+    /**
+     * Retrieves the total number of food pieces eaten when the snapshot was taken.
+     *
+     * @return The number of food eaten.
+     */
+    public int getNumberOfFoodEaten() {
+        return this.numberOfFoodEaten;
+    }
+
+    /**
+     * Starts filling the snapshot again, reusing its arrays.
+     */
+    void reset(long sequence, long tick, int numberOfFoodEaten) {
+        this.sequence = sequence;
+        this.tick = tick;
+        this.numberOfFoodEaten = numberOfFoodEaten;
+        this.fishCount = 0;
+        this.foodCount = 0;
+        this.obstacleCount = 0;
+    }
+
+    void addFish(Fish fish) {
+        if (this.fishCount == this.fishX.length) {
+            int capacity = Math.max(16, this.fishCount * 2);
+            this.fishX = Arrays.copyOf(this.fishX, capacity);
+            this.fishY = Arrays.copyOf(this.fishY, capacity);
+            this.fishDirX = Arrays.copyOf(this.fishDirX, capacity);
+            this.fishDirY = Arrays.copyOf(this.fishDirY, capacity);
+            this.fishSize = Arrays.copyOf(this.fishSize, capacity);
+            this.fishRange = Arrays.copyOf(this.fishRange, capacity);
+            this.fishEnergy = Arrays.copyOf(this.fishEnergy, capacity);
+            this.fishMaxEnergy = Arrays.copyOf(this.fishMaxEnergy, capacity);
+        }
+        int i = this.fishCount++;
+        this.fishX[i] = fish.getX();
+        this.fishY[i] = fish.getY();
+        this.fishDirX[i] = fish.getDirX();
+        this.fishDirY[i] = fish.getDirY();
+        this.fishSize[i] = fish.getSize();
+        this.fishRange[i] = fish.getRange();
+        this.fishEnergy[i] = fish.getEnergy();
+        this.fishMaxEnergy[i] = fish.getMaxEnergy();
+    }
+
+    void addFood(Food food) {
+        if (this.foodCount == this.foodX.length) {
+            int capacity = Math.max(16, this.foodCount * 2);
+            this.foodX = Arrays.copyOf(this.foodX, capacity);
+            this.foodY = Arrays.copyOf(this.foodY, capacity);
+        }
+        int i = this.foodCount++;
+        this.foodX[i] = food.getX();
+        this.foodY[i] = food.getY();
+    }
+
+    void addObstacle(Obstacle obstacle) {
+        if (this.obstacleCount == this.obstacleX.length) {
+            int capacity = Math.max(16, this.obstacleCount * 2);
+            this.obstacleX = Arrays.copyOf(this.obstacleX, capacity);
+            this.obstacleY = Arrays.copyOf(this.obstacleY, capacity);
+            this.obstacleRadius = Arrays.copyOf(this.obstacleRadius, capacity);
+        }
+        int i = this.obstacleCount++;
+        this.obstacleX[i] = obstacle.getX();
+        this.obstacleY[i] = obstacle.getY();
+        this.obstacleRadius[i] = obstacle.getRadius();
+    }
+}
@@ -0,0 +1,324 @@
+package env.model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * The `SpatialGrid` class is a uniform-grid index (spatial hash) over entities placed in the aquarium.
+ * Each entity is bucketed in the square cell containing its position, so that range queries only
+ * visit the cells overlapping the query area instead of scanning every entity.
+ * Cells are hashed by their integer coordinates, which means positions outside the aquarium bounds
+ * are indexed as well.
+ * Only occupied cells are kept, so the grid does not grow with the area the entities have visited over a run.
+ * Changes are counted in a fixed table of counters indexed by a hash of the cell, which lets callers detect
+ * whether anything changed within an area since they last looked at it. Cells sharing a counter may report
+ * a change of their neighbour in the table, but a change is never missed.
+ * The grid is thread-safe: the cell of each entity is updated atomically, while queries are weakly consistent
+ * and may miss an entity that is moving between two cells at the same time.
+ *
+ * @param <T> the type of the indexed entities
+ */
+public class SpatialGrid<T> {
+    private static final int VERSION_BITS = 12;
+    private static final int VERSION_SLOTS = 1 << VERSION_BITS;
+
+    private final double cellSize;
+    private final Map<Long, Set<T>> cells = new ConcurrentHashMap<>();
+    private final Map<T, Long> cellOf = new ConcurrentHashMap<>();
+    private final AtomicLongArray modifications = new AtomicLongArray(VERSION_SLOTS);
+
+    /**
+     * Constructs an empty grid with square cells of the given side.
+     *
+     * @param cellSize the side of each cell, must be positive
+     */
+    public SpatialGrid(double cellSize) {
+        if (cellSize <= 0) {
+            throw new IllegalArgumentException("Cell size must be positive: " + cellSize);
+        }
+        this.cellSize = cellSize;
+    }
+
+    /**
+     * Inserts an entity at the given position, or moves it there if it is already indexed.
+     *
+     * @param item the entity to index
+     * @param x the x-coordinate of the entity
+     * @param y the y-coordinate of the entity
+     */
+    public void insert(T item, double x, double y) {
+        long newKey = key(cellCoord(x), cellCoord(y));
+        this.cellOf.compute(item, (k, oldKey) -> {
+            this.relocate(item, oldKey, newKey);
+            return newKey;
+        });
+    }
+
+    /**
+     * Updates the cell of an entity after its position has changed.
+     * Nothing is reallocated when the entity stays in the same cell, and nothing happens
+     * if the entity is not indexed (e.g. it has just been removed by another thread).
+     *
+     * @param item the entity to update
+     * @param x the new x-coordinate of the entity
+     * @param y the new y-coordinate of the entity
+     */
+    public void move(T item, double x, double y) {
+        long newKey = key(cellCoord(x), cellCoord(y));
+        this.cellOf.computeIfPresent(item, (k, oldKey) -> {
+            this.relocate(item, oldKey, newKey);
+            return newKey;
+        });
+    }
+
+    /**
+     * Removes an entity from the grid, if present.
+     *
+     * @param item the entity to remove
+     */
+    public void remove(T item) {
+        this.cellOf.computeIfPresent(item, (k, oldKey) -> {
+            this.leave(item, oldKey);
+            return null;
+        });
+    }
+
+    /**
+     * Retrieves the entities lying in the cells overlapping the square that bounds the given circle.
+     * The result is a superset of the entities within the radius: callers filter it with their exact distance check.
+     *
+     * @param x the x-coordinate of the centre of the query
+     * @param y the y-coordinate of the centre of the query
+     * @param radius the radius of the query
+     * @return the candidate entities
+     */
+    public List<T> query(double x, double y, double radius) {
+        List<T> result = new ArrayList<>();
+        this.forEachCell(x, y, radius, result::addAll);
+        return result;
+    }
+
+    /**
+     * Retrieves the k entities with the lowest rank among those accepted by the filter, lowest rank first.
+     * Only the cells overlapping the square that bounds the given circle are visited, and candidates go through a
+     * heap holding at most k of them, so the cost does not depend on how many entities are accepted.
+     *
+     * @param x the x-coordinate of the centre of the query
+     * @param y the y-coordinate of the centre of the query
+     * @param radius the radius of the query
+     * @param k the maximum number of entities to retrieve
+     * @param filter the exact check an entity must pass, e.g. a distance check
+     * @param rank the rank of an entity, e.g. its squared distance from the centre
+     * @return at most k entities, in increasing rank
+     */
+    public List<T> nearest(double x, double y, double radius, int k, Predicate<? super T> filter, ToDoubleFunction<? super T> rank) {
+        if (k <= 0) {
+            return Collections.emptyList();
+        }
+        BoundedHeap<T> heap = new BoundedHeap<>(k);
+        this.forEachCell(x, y, radius, cell -> {
+            for (T item : cell) {
+                if (filter.test(item)) {
+                    heap.offer(item, rank.applyAsDouble(item));
+                }
+            }
+        });
+        return heap.toSortedList();
+    }
+
+    private void forEachCell(double x, double y, double radius, Consumer<Set<T>> action) {
+        int minX = cellCoord(x - radius);
+        int maxX = cellCoord(x + radius);
+        int minY = cellCoord(y - radius);
+        int maxY = cellCoord(y + radius);
+
+        if ((long) (maxX - minX + 1) * (maxY - minY + 1) > this.cells.size()) {
+            // Fewer occupied cells than cells in the query area: walk the occupied ones instead.
+            for (Map.Entry<Long, Set<T>> entry : this.cells.entrySet()) {
+                int cx = (int) (entry.getKey() >> 32);
+                int cy = (int) (long) entry.getKey();
+                if (cx >= minX && cx <= maxX && cy >= minY && cy <= maxY) {
+                    action.accept(entry.getValue());
+                }
+            }
+            return;
+        }
+
+        for (int cx = minX; cx <= maxX; cx++) {
+            for (int cy = minY; cy <= maxY; cy++) {
+                Set<T> cell = this.cells.get(key(cx, cy));
+                if (cell != null) {
+                    action.accept(cell);
+                }
+            }
+        }
+    }
+
+    /**
+     * Retrieves the total number of changes undergone by the cells overlapping the square that bounds the given circle.
+     * The value only grows while the area stays the same, and changes whenever an entity enters, leaves or
+     * moves within it.
+     *
+     * @param x the x-coordinate of the centre of the area
+     * @param y the y-coordinate of the centre of the area
+     * @param radius the radius of the area
+     * @return the version of the area, 0 if it never changed
+     */
+    public long version(double x, double y, double radius) {
+        int minX = cellCoord(x - radius);
+        int maxX = cellCoord(x + radius);
+        int minY = cellCoord(y - radius);
+        int maxY = cellCoord(y + radius);
+        long version = 0;
+
+        if ((long) (maxX - minX + 1) * (maxY - minY + 1) > VERSION_SLOTS) {
+            // More cells than counters in the area: every counter may cover it.
+            for (int slot = 0; slot < VERSION_SLOTS; slot++) {
+                version += this.modifications.get(slot);
+            }
+            return version;
+        }
+
+        for (int cx = minX; cx <= maxX; cx++) {
+            for (int cy = minY; cy <= maxY; cy++) {
+                version += this.modifications.get(slot(key(cx, cy)));
+            }
+        }
+        return version;
+    }
+
+    /**
+     * Retrieves the number of indexed entities.
+     *
+     * @return the number of entities in the grid
+     */
+    public int size() {
+        return this.cellOf.size();
+    }
+
+    private void relocate(T item, Long oldKey, long newKey) {
+        if (oldKey != null && oldKey == newKey) {
+            this.touch(newKey);
+            return;
+        }
+        if (oldKey != null) {
+            this.leave(item, oldKey);
+        }
+        // Adding within compute keeps the set from being dropped as empty by a concurrent leave in between.
+        this.cells.compute(newKey, (k, cell) -> {
+            Set<T> items = cell == null ? ConcurrentHashMap.newKeySet() : cell;
+            items.add(item);
+            return items;
+        });
+        this.touch(newKey);
+    }
+
+    private void leave(T item, long oldKey) {
+        this.cells.computeIfPresent(oldKey, (k, cell) -> {
+            cell.remove(item);
+            return cell.isEmpty() ? null : cell;
+        });
+        this.touch(oldKey);
+    }
+
+    private void touch(long key) {
+        this.modifications.incrementAndGet(slot(key));
+    }
+
+    private static int slot(long key) {
+        return (int) ((key * 0x9E3779B97F4A7C15L) >>> (Long.SIZE - VERSION_BITS));
+    }
+
+    int occupiedCells() {
+        return this.cells.size();
+    }
+
+    private int cellCoord(double value) {
+        return (int) Math.floor(value / this.cellSize);
+    }
+
+    private static long key(int cx, int cy) {
+        return ((long) cx << 32) | (cy & 0xffffffffL);
+    }
+
+    /**
+     * A binary max-heap on the rank, keeping the k lowest-ranked entities offered to it.
+     */
+    private static final class BoundedHeap<T> {
+        private final int capacity;
+        private double[] ranks;
+        private Object[] items;
+        private int size;
+
+        BoundedHeap(int capacity) {
+            this.capacity = capacity;
+            // k may be far larger than the number of candidates: the arrays grow on demand up to k.
+            this.ranks = new double[Math.min(capacity, 16)];
+            this.items = new Object[this.ranks.length];
+        }
+
+        void offer(T item, double rank) {
+            if (this.size < this.capacity) {
+                if (this.size == this.ranks.length) {
+                    int length = (int) Math.min(this.capacity, 2L * this.size);
+                    this.ranks = Arrays.copyOf(this.ranks, length);
+                    this.items = Arrays.copyOf(this.items, length);
+                }
+                int i = this.size++;
+                while (i > 0 && this.ranks[(i - 1) / 2] < rank) {
+                    this.set(i, (i - 1) / 2);
+                    i = (i - 1) / 2;
+                }
+                this.ranks[i] = rank;
+                this.items[i] = item;
+            } else if (rank < this.ranks[0]) {
+                this.siftDown(item, rank);
+            }
+        }
+
+        private void siftDown(Object item, double rank) {
+            int i = 0;
+            while (2 * i + 1 < this.size) {
+                int child = 2 * i + 1;
+                if (child + 1 < this.size && this.ranks[child + 1] > this.ranks[child]) {
+                    child++;
+                }
+                if (this.ranks[child] <= rank) {
+                    break;
+                }
+                this.set(i, child);
+                i = child;
+            }
+            this.ranks[i] = rank;
+            this.items[i] = item;
+        }
+
+        private void set(int to, int from) {
+            this.ranks[to] = this.ranks[from];
+            this.items[to] = this.items[from];
+        }
+
+        @SuppressWarnings("unchecked")
+        List<T> toSortedList() {
+            Object[] sorted = new Object[this.size];
+            // Repeatedly moving the maximum to the end empties the heap in decreasing rank.
+            for (int n = this.size - 1; n >= 0; n--) {
+                sorted[n] = this.items[0];
+                this.size = n;
+                if (n > 0) {
+                    this.siftDown(this.items[n], this.ranks[n]);
+                }
+            }
+            return (List<T>) Arrays.asList(sorted);
+        }
+    }
+}
@@ -0,0 +1,180 @@
+package env.model;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+
+/**
+ * The `TrajectoryReader` class reads back a file written by a `TrajectoryRecorder`.
+ * Opening a file only walks the chains of index and names blocks, so any frame can then be read without
+ * scanning the ones before it.
+ * The whole file is mapped at once, which limits the files it can read to 2 GB.
+ */
+public class TrajectoryReader {
+    private final ByteBuffer data;
+    private final TreeMap<Long, Long> frameOffsets = new TreeMap<>();
+    private final List<long[]> nameChanges = new ArrayList<>(); // (offset, slot) pairs, in file order
+    private final List<String> names = new ArrayList<>();
+
+    /**
+     * The `Frame` class is the state of the aquarium at a recorded tick.
+     */
+    public static class Frame {
+        private final long tick;
+        private final String[] fishNames;
+        private final double[] fish;
+        private final double[] food;
+
+        private Frame(long tick, String[] fishNames, double[] fish, double[] food) {
+            this.tick = tick;
+            this.fishNames = fishNames;
+            this.fish = fish;
+            this.food = food;
+        }
+
+        public long getTick() {
+            return this.tick;
+        }
+
+        public int getFishCount() {
+            return this.fishNames.length;
+        }
+
+        public String getName(int i) {
+            return this.fishNames[i];
+        }
+
+        public double getX(int i) {
+            return this.fish[i * 5];
+        }
+
+        public double getY(int i) {
+            return this.fish[i * 5 + 1];
+        }
+
+        public double getDirX(int i) {
+            return this.fish[i * 5 + 2];
+        }
+
+        public double getDirY(int i) {
+            return this.fish[i * 5 + 3];
+        }
+
+        public double getEnergy(int i) {
+            return this.fish[i * 5 + 4];
+        }
+
+        public int getFoodCount() {
+            return this.food.length / 2;
+        }
+
+        public double getFoodX(int i) {
+            return this.food[i * 2];
+        }
+
+        public double getFoodY(int i) {
+            return this.food[i * 2 + 1];
+        }
+    }
+
+    /**
+     * Opens a recorded file.
+     *
+     * @param file The file to read.
+     * @throws IOException If the file cannot be read or is not a trajectory file.
+     */
+    public TrajectoryReader(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            this.data = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        if (this.data.capacity() < TrajectoryRecorder.HEADER_SIZE || this.data.getInt(0) != TrajectoryRecorder.MAGIC) {
+            throw new IOException("Not a trajectory file: " + file);
+        }
+        if (this.data.getInt(4) != TrajectoryRecorder.VERSION) {
+            throw new IOException("Unsupported trajectory version: " + this.data.getInt(4));
+        }
+        for (long index = this.data.getLong(TrajectoryRecorder.LAST_INDEX_OFFSET); index >= 0; index = this.data.getLong((int) index + 8)) {
+            int entries = this.data.getInt((int) index + 16);
+            for (int i = 0; i < entries; i++) {
+                int entry = (int) index + 20 + i * 2 * Long.BYTES;
+                this.frameOffsets.put(this.data.getLong(entry), this.data.getLong(entry + Long.BYTES));
+            }
+        }
+        List<long[]> changes = new ArrayList<>();
+        List<String> changedNames = new ArrayList<>();
+        for (long block = this.data.getLong(TrajectoryRecorder.LAST_NAMES_OFFSET); block >= 0; block = this.data.getLong((int) block + 8)) {
+            int length = this.data.getInt((int) block + 4);
+            byte[] name = new byte[length - Long.BYTES - Integer.BYTES];
+            this.data.get((int) block + 20, name);
+            changes.add(new long[]{block, this.data.getInt((int) block + 16)});
+            changedNames.add(new String(name, StandardCharsets.UTF_8));
+        }
+        for (int i = changes.size() - 1; i >= 0; i--) {
+            this.nameChanges.add(changes.get(i));
+            this.names.add(changedNames.get(i));
+        }
+    }
+
+    /**
+     * Retrieves the ticks of the recorded frames.
+     *
+     * @return The recorded ticks, in increasing order.
+     */
+    public long[] getTicks() {
+        return this.frameOffsets.keySet().stream().mapToLong(Long::longValue).toArray();
+    }
+
+    /**
+     * Reads the latest frame recorded at or before the given tick.
+     *
+     * @param tick The tick to seek to.
+     * @return The frame, empty if no frame was recorded up to that tick.
+     */
+    public Optional<Frame> seek(long tick) {
+        Map.Entry<Long, Long> entry = this.frameOffsets.floorEntry(tick);
+        if (entry == null) {
+            return Optional.empty();
+        }
+        int offset = (int) (long) entry.getValue();
+        int fishCount = this.data.getInt(offset + 16);
+        int foodCount = this.data.getInt(offset + 20);
+        String[] slotNames = this.namesAt(offset);
+        String[] fishNames = new String[fishCount];
+        double[] fish = new double[fishCount * 5];
+        int position = offset + 24;
+        for (int i = 0; i < fishCount; i++) {
+            int slot = this.data.getInt(position);
+            fishNames[i] = slot < slotNames.length ? slotNames[slot] : null;
+            for (int c = 0; c < 5; c++) {
+                fish[i * 5 + c] = this.data.getDouble(position + Integer.BYTES + c * Double.BYTES);
+            }
+            position += TrajectoryRecorder.FISH_RECORD_SIZE;
+        }
+        double[] food = new double[foodCount * 2];
+        for (int i = 0; i < food.length; i++) {
+            food[i] = this.data.getDouble(position + i * Double.BYTES);
+        }
+        return Optional.of(new Frame(entry.getKey(), fishNames, fish, food));
+    }
+
+    private String[] namesAt(long offset) {
+        String[] slotNames = new String[0];
+        for (int i = 0; i < this.nameChanges.size() && this.nameChanges.get(i)[0] < offset; i++) {
+            int slot = (int) this.nameChanges.get(i)[1];
+            if (slot >= slotNames.length) {
+                slotNames = Arrays.copyOf(slotNames, slot + 1);
+            }
+            slotNames[slot] = this.names.get(i);
+        }
+        return slotNames;
+    }
+}
@@ -0,0 +1,235 @@
+package env.model;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Collection;
+
+/**
+ * The `TrajectoryRecorder` class persists the state of the aquarium at every tick in a compact binary file,
+ * for offline analysis and replay.
+ * The file is written through memory-mapped chunks of a `FileChannel`, so recording a frame is a plain memory copy.
+ *
+ * Layout, all values big-endian:
+ * - a header of {@link #HEADER_SIZE} bytes: magic, version, index interval, reserved int, offset of the last
+ *   index block, offset of the last names block, end of the data;
+ * - a sequence of blocks, each starting with its type and the length of its payload:
+ *   - {@link #FRAME}: tick, fish count, food count, then a fixed-width record per fish
+ *     (slot, x, y, dirX, dirY, energy) and per piece of food (x, y);
+ *   - {@link #NAMES}: offset of the previous names block, slot, name of the agent now using that slot;
+ *   - {@link #INDEX}: offset of the previous index block, number of entries, then (tick, offset) for each frame
+ *     written since the previous index block.
+ * Index and names blocks are chained backwards from the header, so a reader can seek to any tick without
+ * scanning the frames.
+ */
+public class TrajectoryRecorder implements Closeable {
+    public static final int MAGIC = 0x53415152; // "SAQR"
+    public static final int VERSION = 1;
+    public static final int HEADER_SIZE = 40;
+    public static final int FRAME = 1;
+    public static final int NAMES = 2;
+    public static final int INDEX = 3;
+    public static final int DEFAULT_INDEX_INTERVAL = 256;
+    static final int FISH_RECORD_SIZE = Integer.BYTES + 5 * Double.BYTES;
+    static final int FOOD_RECORD_SIZE = 2 * Double.BYTES;
+    static final int LAST_INDEX_OFFSET = 16;
+    static final int LAST_NAMES_OFFSET = 24;
+    static final int END_OFFSET = 32;
+    private static final long CHUNK_BYTES = 16L << 20;
+
+    private final FileChannel channel;
+    private final MappedByteBuffer header;
+    private final int indexInterval;
+    private final long[] pendingTicks;
+    private final long[] pendingOffsets;
+    private ByteBuffer staging = ByteBuffer.allocate(1 << 16);
+    private MappedByteBuffer chunk;
+    private long chunkStart;
+    private long position = HEADER_SIZE;
+    private int pending;
+    private long lastIndexOffset = -1;
+    private long lastNamesOffset = -1;
+    private String[] namesBySlot = new String[64];
+    private int[] changedSlots = new int[8]; // Slots whose agent changed, flushed right before the next frame
+    private int changedCount;
+    private boolean closed;
+
+    /**
+     * Constructs a recorder writing to the given file, with an index block every {@link #DEFAULT_INDEX_INTERVAL} frames.
+     *
+     * @param file The file to write, truncated if it exists.
+     * @throws IOException If the file cannot be opened or mapped.
+     */
+    public TrajectoryRecorder(Path file) throws IOException {
+        this(file, DEFAULT_INDEX_INTERVAL);
+    }
+
+    /**
+     * Constructs a recorder writing to the given file.
+     *
+     * @param file The file to write, truncated if it exists.
+     * @param indexInterval The number of frames between two index blocks.
+     * @throws IOException If the file cannot be opened or mapped.
+     */
+    public TrajectoryRecorder(Path file, int indexInterval) throws IOException {
+        if (indexInterval <= 0) {
+            throw new IllegalArgumentException("Index interval must be positive: " + indexInterval);
+        }
+        this.indexInterval = indexInterval;
+        this.pendingTicks = new long[indexInterval];
+        this.pendingOffsets = new long[indexInterval];
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+            StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        this.header = this.channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_SIZE);
+        this.header.putInt(MAGIC).putInt(VERSION).putInt(indexInterval).putInt(0)
+            .putLong(this.lastIndexOffset).putLong(this.lastNamesOffset).putLong(this.position);
+        this.map(this.position, CHUNK_BYTES);
+    }
+
+    /**
+     * Records the state of the aquarium at a tick. Frames recorded after the recorder is closed are ignored.
+     *
+     * @param tick The tick of the frame.
+     * @param fish The fish to record.
+     * @param food The food to record.
+     * @throws IOException If the file cannot be extended.
+     */
+    public synchronized void record(long tick, FishStore fish, Collection<Food> food) throws IOException {
+        if (this.closed) {
+            return;
+        }
+        ByteBuffer frame = this.staging;
+        frame.clear();
+        frame.putInt(FRAME).putInt(0).putLong(tick).putInt(0).putInt(0);
+        int[] fishCount = {0};
+        fish.forEach(f -> {
+            int slot = f.getSlot();
+            if (!f.getId().equals(this.nameOf(slot))) {
+                this.rememberName(slot, f.getId());
+            }
+            this.ensureStaging(FISH_RECORD_SIZE);
+            this.staging.putInt(slot).putDouble(f.getX()).putDouble(f.getY())
+                .putDouble(f.getDirX()).putDouble(f.getDirY()).putDouble(f.getEnergy());
+            fishCount[0]++;
+        });
+        int foodCount = 0;
+        for (Food f : food) {
+            this.ensureStaging(FOOD_RECORD_SIZE);
+            this.staging.putDouble(f.getX()).putDouble(f.getY());
+            foodCount++;
+        }
+        frame = this.staging;
+        frame.putInt(4, frame.position() - 2 * Integer.BYTES);
+        frame.putInt(16, fishCount[0]);
+        frame.putInt(20, foodCount);
+        this.flushNames();
+        this.pendingTicks[this.pending] = tick;
+        this.pendingOffsets[this.pending] = this.position;
+        this.pending++;
+        frame.flip();
+        this.write(frame);
+        if (this.pending == this.indexInterval) {
+            this.writeIndex();
+        }
+        this.header.putLong(END_OFFSET, this.position);
+    }
+
+    /**
+     * Writes the pending index entries and releases the file.
+     *
+     * @throws IOException If the file cannot be written.
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        if (this.closed) {
+            return;
+        }
+        this.closed = true;
+        if (this.pending > 0) {
+            this.writeIndex();
+        }
+        this.header.putLong(END_OFFSET, this.position);
+        this.chunk.force();
+        this.header.force();
+        try {
+            this.channel.truncate(this.position);
+        } catch (IOException e) {
+            // Some platforms cannot truncate a mapped file: readers rely on the end offset in the header anyway.
+        }
+        this.channel.close();
+    }
+
+    private String nameOf(int slot) {
+        return slot < this.namesBySlot.length ? this.namesBySlot[slot] : null;
+    }
+
+    private void rememberName(int slot, String name) {
+        if (slot >= this.namesBySlot.length) {
+            this.namesBySlot = Arrays.copyOf(this.namesBySlot, Math.max(slot + 1, this.namesBySlot.length * 2));
+        }
+        this.namesBySlot[slot] = name;
+        if (this.changedCount == this.changedSlots.length) {
+            this.changedSlots = Arrays.copyOf(this.changedSlots, this.changedCount * 2);
+        }
+        this.changedSlots[this.changedCount++] = slot;
+    }
+
+    private void flushNames() throws IOException {
+        for (int i = 0; i < this.changedCount; i++) {
+            int slot = this.changedSlots[i];
+            byte[] name = this.namesBySlot[slot].getBytes(StandardCharsets.UTF_8);
+            ByteBuffer block = ByteBuffer.allocate(2 * Integer.BYTES + Long.BYTES + Integer.BYTES + name.length);
+            block.putInt(NAMES).putInt(block.capacity() - 2 * Integer.BYTES)
+                .putLong(this.lastNamesOffset).putInt(slot).put(name);
+            block.flip();
+            this.lastNamesOffset = this.position;
+            this.write(block);
+        }
+        this.changedCount = 0;
+        this.header.putLong(LAST_NAMES_OFFSET, this.lastNamesOffset);
+    }
+
+    private void writeIndex() throws IOException {
+        int payload = Long.BYTES + Integer.BYTES + this.pending * 2 * Long.BYTES;
+        ByteBuffer block = ByteBuffer.allocate(2 * Integer.BYTES + payload);
+        block.putInt(INDEX).putInt(payload).putLong(this.lastIndexOffset).putInt(this.pending);
+        for (int i = 0; i < this.pending; i++) {
+            block.putLong(this.pendingTicks[i]).putLong(this.pendingOffsets[i]);
+        }
+        block.flip();
+        this.lastIndexOffset = this.position;
+        this.write(block);
+        this.pending = 0;
+        this.header.putLong(LAST_INDEX_OFFSET, this.lastIndexOffset);
+    }
+
+    private void ensureStaging(int bytes) {
+        if (this.staging.remaining() < bytes) {
+            ByteBuffer larger = ByteBuffer.allocate(Math.max(this.staging.capacity() * 2, this.staging.position() + bytes));
+            this.staging.flip();
+            larger.put(this.staging);
+            this.staging = larger;
+        }
+    }
+
+    private void write(ByteBuffer block) throws IOException {
+        int length = block.remaining();
+        if (this.position + length > this.chunkStart + this.chunk.capacity()) {
+            this.map(this.position, Math.max(CHUNK_BYTES, length));
+        }
+        this.chunk.position((int) (this.position - this.chunkStart));
+        this.chunk.put(block);
+        this.position += length;
+    }
+
+    private void map(long start, long size) throws IOException {
+        this.chunk = this.channel.map(FileChannel.MapMode.READ_WRITE, start, size);
+        this.chunkStart = start;
+    }
+}
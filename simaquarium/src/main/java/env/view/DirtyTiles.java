@@ -0,0 +1,113 @@
+package env.view;
+
+import java.awt.Rectangle;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The `DirtyTiles` class tracks the tiles of a view that must be painted again, so that a frame repaints the
+ * surroundings of each moving entity rather than one box bounding all of them, which soon covers the whole view.
+ */
+class DirtyTiles {
+    static final int TILE_SIZE = 32;
+
+    private final int width;
+    private final int height;
+    private final int columns;
+    private final int rows;
+    private final BitSet tiles;
+
+    /**
+     * Constructs a set of tiles, none of them dirty, over a view of the given size.
+     *
+     * @param width The width of the view.
+     * @param height The height of the view.
+     */
+    DirtyTiles(int width, int height) {
+        this.width = Math.max(0, width);
+        this.height = Math.max(0, height);
+        this.columns = (this.width + TILE_SIZE - 1) / TILE_SIZE;
+        this.rows = (this.height + TILE_SIZE - 1) / TILE_SIZE;
+        this.tiles = new BitSet(this.columns * this.rows);
+    }
+
+    /**
+     * Marks as dirty the tiles overlapping an area. The parts of the area outside the view are ignored.
+     *
+     * @param minX The left side of the area.
+     * @param minY The top side of the area.
+     * @param maxX The right side of the area.
+     * @param maxY The bottom side of the area.
+     */
+    void add(double minX, double minY, double maxX, double maxY) {
+        // One more pixel on each side covers the truncation of the coordinates when drawing.
+        int fromColumn = Math.max(0, (int) Math.floor((minX - 1) / TILE_SIZE));
+        int toColumn = Math.min(this.columns - 1, (int) Math.floor((maxX + 1) / TILE_SIZE));
+        int fromRow = Math.max(0, (int) Math.floor((minY - 1) / TILE_SIZE));
+        int toRow = Math.min(this.rows - 1, (int) Math.floor((maxY + 1) / TILE_SIZE));
+        for (int row = fromRow; row <= toRow && fromColumn <= toColumn; row++) {
+            this.tiles.set(row * this.columns + fromColumn, row * this.columns + toColumn + 1);
+        }
+    }
+
+    /**
+     * Combines these tiles with others, e.g. the tiles of the previous frame with the ones of the next frame.
+     *
+     * @param other The other tiles.
+     * @return The tiles dirty in either set, all of them if the two sets cover views of different sizes.
+     */
+    DirtyTiles union(DirtyTiles other) {
+        DirtyTiles union = new DirtyTiles(this.width, this.height);
+        if (other.width != this.width || other.height != this.height) {
+            union.tiles.set(0, this.columns * this.rows);
+        } else {
+            union.tiles.or(this.tiles);
+            union.tiles.or(other.tiles);
+        }
+        return union;
+    }
+
+    boolean isEmpty() {
+        return this.tiles.isEmpty();
+    }
+
+    boolean isDirty(int x, int y) {
+        return x >= 0 && y >= 0 && x < this.width && y < this.height
+            && this.tiles.get(y / TILE_SIZE * this.columns + x / TILE_SIZE);
+    }
+
+    /**
+     * Covers the dirty tiles with rectangles. Adjacent dirty tiles of a row form one rectangle, which grows
+     * downwards while the rows below have the same run of dirty tiles.
+     *
+     * @return The rectangles to repaint, empty if no tile is dirty.
+     */
+    List<Rectangle> toRectangles() {
+        List<Rectangle> rectangles = new ArrayList<>();
+        Map<Long, Rectangle> open = new HashMap<>();
+        for (int row = 0; row < this.rows; row++) {
+            int rowStart = row * this.columns;
+            int rowEnd = rowStart + this.columns;
+            Map<Long, Rectangle> next = new HashMap<>();
+            for (int start = this.tiles.nextSetBit(rowStart); start >= 0 && start < rowEnd;
+                    start = this.tiles.nextSetBit(start)) {
+                int end = Math.min(this.tiles.nextClearBit(start), rowEnd);
+                long run = ((long) (start - rowStart) << 32) | (end - rowStart);
+                Rectangle rectangle = open.get(run);
+                if (rectangle != null) {
+                    rectangle.height += TILE_SIZE;
+                } else {
+                    rectangle = new Rectangle((start - rowStart) * TILE_SIZE, row * TILE_SIZE, (end - start) * TILE_SIZE, TILE_SIZE);
+                    rectangles.add(rectangle);
+                }
+                next.put(run, rectangle);
+                start = end;
+            }
+            open = next;
+        }
+        return rectangles;
+    }
+}
@@ -6,27 +6,30 @@ import javax.swing.text.DefaultCaret;
 import env.SimAquariumEnvironment;
 import env.model.AquariumModel;
 import env.model.DomainEvent;
-import env.model.Fish;
-import env.model.Food;
-import env.model.Obstacle;
+import env.model.FrameSnapshot;
 import env.model.Position;
 import jason.runtime.MASConsoleGUI;
 import launcher.SimulationLauncher;
+import utils.RandomStreams;
 import utils.Utils;
 
 import java.awt.*;
 import java.awt.font.TextLayout.CaretPolicy;
+import java.awt.image.BufferedImage;
 import java.text.SimpleDateFormat;
+import java.util.List;
 import java.util.Optional;
-import java.util.Set;
 
 public class FishSimulationApp extends JFrame {
     private DrawPanel drawPanel;
     private JTextArea statsArea;
     private JTextArea eventsArea;
-    private Set<Fish> fishList;
-    private Set<Obstacle> rockList;
-    private Set<Food> foodList;
+    private FrameSnapshot frame;
+    private DirtyTiles drawnTiles;
+    private List<Rectangle> pendingRegions;
+    private Rectangle pendingBounds;
+    private final RenderScheduler renderScheduler;
+    private long lastStatsUpdate;
     private AquariumModel model;
     private JPanel leftPanel;
     private int nFishAlive;
@@ -37,16 +40,19 @@ public class FishSimulationApp extends JFrame {
     private final SimAquariumEnvironment env;
     private static final SimpleDateFormat TIME_FORMATTER = new SimpleDateFormat("HH:mm:ss");
 
-    private static final int FPS = 30;
+    private static final long STATS_REFRESH_MILLIS = 1000;
+    private static final int STROKE_WIDTH = 2;
+    private static final int ENERGY_BAR_WIDTH = 40;
+    private static final int ENERGY_BAR_HEIGHT = 6;
+    private static final Stroke BASIC_STROKE = new BasicStroke(STROKE_WIDTH);
+    private static final Stroke DASHED_STROKE = new BasicStroke(STROKE_WIDTH, BasicStroke.CAP_BUTT, BasicStroke.JOIN_BEVEL, 0, new float[]{9}, 0);
+    private static final Color RANGE_COLOR = new Color(0x006600);
 
     public FishSimulationApp(AquariumModel model, SimAquariumEnvironment env) {
         this.model = model;
-        this.fishList = this.model.getAllAgents();
         this.nFishAlive = -1;
         this.nMaxFish = 1;
         this.lastKnownNumberOfFoodEaten = 0;
-        this.foodList = this.model.getAllFood();
-        this.rockList = this.model.getAllObstacles();
         this.env = env;
         setTitle("Fish Simulation");
         setSize(800, 600);
@@ -134,7 +140,7 @@ public class FishSimulationApp extends JFrame {
 
         feeder.addActionListener(e -> {
             for (int i = 0; i < this.model.getFoodQuantity(); i++) {
-                model.addFood(new Position((Utils.RAND.nextDouble() * 0.8 + 0.1) * drawPanel.getWidth(), 0));
+                model.addFood(new Position((RandomStreams.current().forKey(RandomStreams.VIEW).nextDouble() * 0.8 + 0.1) * drawPanel.getWidth(), 0));
             }
 
             this.notifyModelChanged(Optional.of(DomainEvent.of("Food dropped")));
@@ -142,6 +148,7 @@ public class FishSimulationApp extends JFrame {
 
         viewRange.addActionListener(e -> {
             this.showRanges = !this.showRanges;
+            this.drawnTiles = this.frame == null ? null : movingTiles(this.frame, this.showRanges, drawPanel.getWidth(), drawPanel.getHeight());
             if (this.showRanges) {
                 viewRange.setText("HIDE RANGE");
             } else {
@@ -162,115 +169,244 @@ public class FishSimulationApp extends JFrame {
             
         });
 
-        Thread t = new Thread(new Runnable() {
-            @Override
-            public void run() {
-                while (true) {
-                    long loopStartTime = System.currentTimeMillis();
+        this.renderScheduler = new RenderScheduler(RenderScheduler.DEFAULT_FPS, true, this::refresh);
+        this.renderScheduler.start();
+    }
 
-                    SwingUtilities.invokeLater(() -> drawPanel.repaint());
-                    sync(loopStartTime);
-                }
+    /**
+     * Picks the latest frame published by the model, updates the stats if they changed and repaints what moved.
+     * Runs on the event dispatch thread, at the FPS of the view whatever the pace of the simulation.
+     */
+    private void refresh() {
+        FrameSnapshot latest = this.model.getLatestFrame();
+        if (latest != this.frame) {
+            // Only the tiles where something moved, in the previous frame or in this one, are painted again.
+            this.frame = latest;
+            DirtyTiles tiles = movingTiles(latest, this.showRanges, drawPanel.getWidth(), drawPanel.getHeight());
+            DirtyTiles dirty = this.drawnTiles == null ? tiles : tiles.union(this.drawnTiles);
+            this.drawnTiles = tiles;
+            this.repaintRegions(dirty.toRectangles());
+        }
+        boolean needToUpdate = false;
+        if(this.nFishAlive != this.frame.getFishCount()){
+            needToUpdate = true;
+            this.nFishAlive = this.frame.getFishCount();
+            if(this.nFishAlive > this.nMaxFish){
+                this.nMaxFish = this.nFishAlive;
             }
+        }
+        if(this.lastKnownNumberOfFoodEaten != this.frame.getNumberOfFoodEaten()){
+            this.lastKnownNumberOfFoodEaten = this.frame.getNumberOfFoodEaten();
+            needToUpdate = true;
+        }
 
-            private void sync(long loopStartTime) {
-                double loopSlot = 1.0 / FPS;
-                double endTime = loopStartTime + loopSlot; 
-                while(System.currentTimeMillis() < endTime) {
-                    try {
-                        Thread.sleep(1);
-                    } catch (InterruptedException ie) {}
-                }
-             }
-        });
-        t.start();
+        long now = System.currentTimeMillis();
+        if(needToUpdate || now - this.lastStatsUpdate >= STATS_REFRESH_MILLIS){
+            this.lastStatsUpdate = now;
+            updateStats();
+        }
     }
 
     private void updateStats() {
-        SwingUtilities.invokeLater(() -> {
-            double fairnessIdx = this.model.getFairnessIndex();
-            statsArea.setText("Number of fish: " + this.nFishAlive + "\n"
-                        + "Survival rate: " + Math.floor(1.0 * this.nFishAlive / this.nMaxFish * 100) + "%\n"
-                        + "Food pieces eaten: " + this.lastKnownNumberOfFoodEaten + "\n"
-                        + "Fairness index: " + (Double.isNaN(fairnessIdx) ? "---" : String.format("%.2f", this.model.getFairnessIndex())) + "\n");
-            statsArea.update(statsArea.getGraphics());
-        });
+        double fairnessIdx = this.model.getStatistics().getFairnessIndex();
+        statsArea.setText("Number of fish: " + this.nFishAlive + "\n"
+                    + "Survival rate: " + Math.floor(1.0 * this.nFishAlive / this.nMaxFish * 100) + "%\n"
+                    + "Food pieces eaten: " + this.lastKnownNumberOfFoodEaten + "\n"
+                    + "Fairness index: " + (Double.isNaN(fairnessIdx) ? "---" : String.format("%.2f", fairnessIdx)) + "\n"
+                    + String.format("Rendering: %.0f FPS (target %d), %.1f ms/frame, max %.1f ms\n",
+                        this.renderScheduler.getMeasuredFps(), this.renderScheduler.getCurrentFps(),
+                        this.renderScheduler.getAverageFrameMillis(), this.renderScheduler.getMaxFrameMillis()));
+        statsArea.update(statsArea.getGraphics());
     }
 
-    class DrawPanel extends JPanel {
-        @Override
-        protected void paintComponent(Graphics g) {
-            super.paintComponent(g);
-
-            Stroke basicStroke = new BasicStroke(2);
-            Stroke dashedStroke = new BasicStroke(2, BasicStroke.CAP_BUTT, BasicStroke.JOIN_BEVEL, 0, new float[]{9}, 0);
-
-            Graphics2D g2 = (Graphics2D) g.create();
-            g2.setStroke(basicStroke);
+    /**
+     * Asks for the given regions to be painted again. Swing merges the regions of a component into their bounding
+     * box, so they are kept until the next paint, which then only draws them.
+     */
+    private void repaintRegions(List<Rectangle> regions) {
+        if (regions.isEmpty()) {
+            return;
+        }
+        if (this.pendingRegions == null) {
+            this.pendingRegions = regions;
+        } else {
+            this.pendingRegions.addAll(regions);
+        }
+        for (Rectangle region : regions) {
+            this.pendingBounds = this.pendingBounds == null ? new Rectangle(region) : this.pendingBounds.union(region);
+        }
+        drawPanel.repaint(this.pendingBounds);
+    }
 
-            for (Obstacle rock : rockList) {
-                g2.setColor(Color.DARK_GRAY);
-                g2.fillOval((int) (rock.getX() - rock.getRadius()), (int) (rock.getY() - rock.getRadius()),
-                        (int) rock.getRadius() * 2, (int) rock.getRadius() * 2);
-            }
+    /**
+     * Computes the tiles covered by everything that moves in a frame: fish, with their range and energy bar when
+     * shown, and food. Each entity only marks the tiles around itself.
+     *
+     * @param frame The frame to cover.
+     * @param showRanges True if the ranges of the fish are drawn.
+     * @param width The width of the view.
+     * @param height The height of the view.
+     * @return The covered tiles, none if nothing moves in the frame.
+     */
+    static DirtyTiles movingTiles(FrameSnapshot frame, boolean showRanges, int width, int height) {
+        DirtyTiles tiles = new DirtyTiles(width, height);
+        for (int i = 0; i < frame.getFishCount(); i++) {
+            double extent = fishExtent(frame, i, showRanges);
+            tiles.add(frame.getFishX(i) - extent, frame.getFishY(i) - extent, frame.getFishX(i) + extent, frame.getFishY(i) + extent);
+        }
+        for (int i = 0; i < frame.getFoodCount(); i++) {
+            tiles.add(frame.getFoodX(i) - SpriteCache.FOOD_SIZE / 2, frame.getFoodY(i) - SpriteCache.FOOD_SIZE / 2,
+                frame.getFoodX(i) + SpriteCache.FOOD_SIZE / 2, frame.getFoodY(i) + SpriteCache.FOOD_SIZE / 2);
+        }
+        return tiles;
+    }
 
-            for (Fish fish : fishList) {
-                g2.setColor(Color.ORANGE);
-                g2.fillOval((int) (fish.getX() - fish.getSize() / 2), (int) (fish.getY() - fish.getSize() / 4), (int)fish.getSize(), (int)(fish.getSize()/2));
+    /**
+     * Computes how far from its centre a fish is drawn, with its range and energy bar when shown.
+     */
+    private static double fishExtent(FrameSnapshot frame, int i, boolean showRanges) {
+        double size = frame.getFishSize(i);
+        return showRanges
+            ? Math.max(frame.getFishRange(i) + size / 2, Math.max(ENERGY_BAR_WIDTH / 2, size / 2 + 5 + ENERGY_BAR_HEIGHT)) + STROKE_WIDTH
+            : size / 2;
+    }
 
-                g2.setStroke(dashedStroke);
+    class DrawPanel extends JPanel {
+        private final SpriteCache sprites = new SpriteCache(GraphicsEnvironment.isHeadless() ? null
+            : GraphicsEnvironment.getLocalGraphicsEnvironment().getDefaultScreenDevice().getDefaultConfiguration());
+        private BufferedImage staticLayer;
+        private int staticLayerObstacles = -1;
 
-                if(showRanges){
-                    double fishRange = fish.getRange() + fish.getSize() / 2;
-                    g2.setColor(new Color(0x006600));
-                    g2.drawOval((int) (fish.getX() - fishRange), (int) (fish.getY() - fishRange), (int)(fishRange * 2), (int)(fishRange * 2));
-                    
-                    g2.setStroke(basicStroke);
-                    
-                    g2.setColor(Color.BLUE);
-                    g2.drawLine((int) fish.getX(), (int) fish.getY(), (int) (fish.getX() + fish.getDirX() * fish.getRange() * 0.8),
-                    (int) (fish.getY() + fish.getDirY() * fish.getRange() * 0.8));
+        @Override
+        protected void paintComponent(Graphics g) {
+            long start = System.nanoTime();
+            FrameSnapshot frame = FishSimulationApp.this.frame;
+            List<Rectangle> regions = pendingRegions;
+            Rectangle requested = pendingBounds == null ? null : pendingBounds.intersection(new Rectangle(0, 0, getWidth(), getHeight()));
+            pendingRegions = null;
+            pendingBounds = null;
+            if (frame == null) {
+                super.paintComponent(g);
+            } else if (regions != null && requested.equals(g.getClipBounds())) {
+                // Nothing else asked for this paint: only the dirty regions are drawn, not their bounding box.
+                for (Rectangle region : regions) {
+                    Graphics clipped = g.create();
+                    clipped.clipRect(region.x, region.y, region.width, region.height);
+                    this.paintFrame(clipped, frame);
+                    clipped.dispose();
+                }
+            } else {
+                this.paintFrame(g, frame);
+            }
+            renderScheduler.frameRendered(System.nanoTime() - start);
+        }
 
-                    g2.setColor(Color.RED);
-                    g2.fillRect((int) (fish.getX() - 20), (int)(fish.getY() + fish.getSize() / 2 + 5), 40, 6);
-                    g2.setColor(Color.GREEN);
-                    g2.fillRect((int) (fish.getX() - 20), (int)(fish.getY() + fish.getSize() / 2 + 5), (int)Utils.map(0, fish.getMaxEnergy(), 0, 40, fish.getEnergy()), 6);
+        /**
+         * Renders the background and the obstacles, which never move once the aquarium is initialised, into an
+         * image that every frame then copies.
+         */
+        private BufferedImage staticLayer(FrameSnapshot frame) {
+            if (this.staticLayer == null || this.staticLayer.getWidth() != getWidth() || this.staticLayer.getHeight() != getHeight()
+                    || this.staticLayerObstacles != frame.getObstacleCount()) {
+                this.staticLayer = this.sprites.createImage(Math.max(1, getWidth()), Math.max(1, getHeight()));
+                this.staticLayerObstacles = frame.getObstacleCount();
+                Graphics2D g = this.staticLayer.createGraphics();
+                g.setColor(getBackground());
+                g.fillRect(0, 0, getWidth(), getHeight());
+                g.setColor(Color.DARK_GRAY);
+                for (int i = 0; i < frame.getObstacleCount(); i++) {
+                    double radius = frame.getObstacleRadius(i);
+                    g.fillOval((int) (frame.getObstacleX(i) - radius), (int) (frame.getObstacleY(i) - radius),
+                            (int) radius * 2, (int) radius * 2);
+                }
+                g.dispose();
+            }
+            return this.staticLayer;
+        }
 
+        private void paintFrame(Graphics g, FrameSnapshot frame) {
+            Rectangle clip = g.getClipBounds();
+            if (clip == null) {
+                clip = new Rectangle(0, 0, getWidth(), getHeight());
+            }
+            g.drawImage(this.staticLayer(frame), 0, 0, null);
+
+            for (int i = 0; i < frame.getFishCount(); i++) {
+                double size = frame.getFishSize(i);
+                int left = (int) (frame.getFishX(i) - size / 2);
+                int top = (int) (frame.getFishY(i) - size / 4);
+                if (clip.intersects(left, top, size, size / 2)) {
+                    g.drawImage(this.sprites.fish(size), left, top, null);
                 }
             }
 
-            for (Food food : foodList) {
-                g2.setColor(Color.RED);
-                g2.fillOval((int) food.getX() - 5, (int) food.getY() - 5, 10, 10);
+            if(showRanges){
+                Graphics2D g2 = (Graphics2D) g.create();
+                for (int i = 0; i < frame.getFishCount(); i++) {
+                    double extent = fishExtent(frame, i, true);
+                    if (clip.intersects(frame.getFishX(i) - extent, frame.getFishY(i) - extent, 2 * extent, 2 * extent)) {
+                        this.paintRange(g2, frame, i);
+                    }
+                }
+                g2.dispose();
             }
-        }
-    }
 
-    public void notifyModelChanged(Optional<DomainEvent> event) {
-        this.fishList = this.model.getAllAgents();
-        this.foodList = this.model.getAllFood();
-        this.rockList = this.model.getAllObstacles();
-        boolean needToUpdate = false;
-        if(this.nFishAlive != this.fishList.size()){
-            needToUpdate = true;
-            this.nFishAlive = this.fishList.size();
-            if(this.nFishAlive > this.nMaxFish){
-                this.nMaxFish = this.nFishAlive;
+            BufferedImage foodSprite = this.sprites.food();
+            for (int i = 0; i < frame.getFoodCount(); i++) {
+                int left = (int) frame.getFoodX(i) - SpriteCache.FOOD_SIZE / 2;
+                int top = (int) frame.getFoodY(i) - SpriteCache.FOOD_SIZE / 2;
+                if (clip.intersects(left, top, SpriteCache.FOOD_SIZE, SpriteCache.FOOD_SIZE)) {
+                    g.drawImage(foodSprite, left, top, null);
+                }
             }
         }
-        if(this.lastKnownNumberOfFoodEaten != this.model.getNumberOfFoodEaten()){
-            this.lastKnownNumberOfFoodEaten = this.model.getNumberOfFoodEaten();
-            needToUpdate = true;
-        }
 
-        if(needToUpdate){
-            updateStats();
+        private void paintRange(Graphics2D g2, FrameSnapshot frame, int i) {
+            double x = frame.getFishX(i);
+            double y = frame.getFishY(i);
+            double size = frame.getFishSize(i);
+            double range = frame.getFishRange(i);
+            double fishRange = range + size / 2;
+            g2.setStroke(DASHED_STROKE);
+            g2.setColor(RANGE_COLOR);
+            g2.drawOval((int) (x - fishRange), (int) (y - fishRange), (int)(fishRange * 2), (int)(fishRange * 2));
+
+            g2.setStroke(BASIC_STROKE);
+
+            g2.setColor(Color.BLUE);
+            g2.drawLine((int) x, (int) y, (int) (x + frame.getFishDirX(i) * range * 0.8),
+            (int) (y + frame.getFishDirY(i) * range * 0.8));
+
+            g2.setColor(Color.RED);
+            g2.fillRect((int) (x - ENERGY_BAR_WIDTH / 2), (int)(y + size / 2 + 5), ENERGY_BAR_WIDTH, ENERGY_BAR_HEIGHT);
+            g2.setColor(Color.GREEN);
+            g2.fillRect((int) (x - ENERGY_BAR_WIDTH / 2), (int)(y + size / 2 + 5),
+                (int)Utils.map(0, frame.getFishMaxEnergy(i), 0, ENERGY_BAR_WIDTH, frame.getFishEnergy(i)), ENERGY_BAR_HEIGHT);
         }
+    }
+
+    /**
+     * Reports a change of the model. Positions and stats are picked from the latest frame at the next refresh,
+     * so only the event, if any, is handled here.
+     *
+     * @param event The event to log.
+     */
+    public void notifyModelChanged(Optional<DomainEvent> event) {
         if(event.isPresent()){
-            eventsArea.append(String.format("[%s]: %s\n", TIME_FORMATTER.format(event.get().getTime()), event.get().getDescription()));
+            String line = String.format("[%s]: %s\n", TIME_FORMATTER.format(event.get().getTime()), event.get().getDescription());
+            SwingUtilities.invokeLater(() -> eventsArea.append(line));
         }
     }
 
+    /**
+     * Retrieves the scheduler pacing the frames of the view, e.g. to change its target FPS.
+     *
+     * @return The render scheduler.
+     */
+    public RenderScheduler getRenderScheduler() {
+        return this.renderScheduler;
+    }
+
     public int getPanelWidth() {
         return this.drawPanel.getWidth();
     }
@@ -0,0 +1,204 @@
+package env.view;
+
+import javax.swing.Timer;
+
+/**
+ * The `RenderScheduler` class paces the frames of a view with a Swing `Timer`, so every frame runs on the event
+ * dispatch thread and frames the EDT could not keep up with are coalesced instead of queued.
+ * It keeps statistics about the time spent rendering. In adaptive mode, it lowers the frame rate when frames
+ * take most of their slot, or when the timer fires late because the EDT is busy elsewhere, and raises it back
+ * towards the target once the EDT has caught up.
+ */
+public class RenderScheduler {
+    public static final int DEFAULT_FPS = 30;
+    static final int MIN_FPS = 5;
+    static final double SLOW_FRAME_RATIO = 0.8;
+    static final double FAST_FRAME_RATIO = 0.4;
+    static final double LATE_TICK_RATIO = 0.25;
+    static final double ON_TIME_TICK_RATIO = 0.1;
+    private static final double SMOOTHING = 0.1;
+
+    private Timer timer;
+    private final Runnable onFrame;
+    private int targetFps;
+    private int currentFps;
+    private boolean adaptive;
+    private long framesRendered;
+    private double averageFrameNanos;
+    private long maxFrameNanos;
+    private long lastTickNanos;
+    private boolean ticked;
+    private double averageIntervalNanos;
+    // How much later than scheduled the ticks arrive, measured since the last change of frame rate.
+    private double averageLatenessNanos;
+
+    /**
+     * Constructs a scheduler that is not started yet.
+     *
+     * @param targetFps The frame rate to aim for.
+     * @param adaptive True to lower the frame rate when the EDT falls behind.
+     * @param onFrame The callback run on the EDT at every frame.
+     */
+    public RenderScheduler(int targetFps, boolean adaptive, Runnable onFrame) {
+        if (targetFps <= 0) {
+            throw new IllegalArgumentException("The target FPS must be positive: " + targetFps);
+        }
+        this.onFrame = onFrame;
+        this.targetFps = targetFps;
+        this.currentFps = targetFps;
+        this.adaptive = adaptive;
+    }
+
+    /**
+     * Starts producing frames. The timer is only created here, so that its listener does not capture a scheduler
+     * under construction.
+     */
+    public void start() {
+        if (this.timer == null) {
+            this.timer = new Timer(periodMillis(this.currentFps), e -> this.tick(System.nanoTime()));
+            this.timer.setCoalesce(true);
+        }
+        this.timer.start();
+    }
+
+    /**
+     * Stops producing frames.
+     */
+    public void stop() {
+        if (this.timer != null) {
+            this.timer.stop();
+        }
+    }
+
+    void tick(long now) {
+        if (this.ticked) {
+            long interval = now - this.lastTickNanos;
+            this.averageIntervalNanos = smooth(this.averageIntervalNanos, interval);
+            this.averageLatenessNanos = smooth(this.averageLatenessNanos,
+                    Math.max(0, interval - 1_000_000_000L / this.currentFps));
+            if (this.adaptive) {
+                this.adapt();
+            }
+        }
+        this.ticked = true;
+        this.lastTickNanos = now;
+        this.onFrame.run();
+    }
+
+    /**
+     * Records the time spent rendering a frame. Must be called on the EDT, e.g. at the end of `paintComponent`.
+     *
+     * @param nanos The duration of the frame, in nanoseconds.
+     */
+    public void frameRendered(long nanos) {
+        this.framesRendered++;
+        this.averageFrameNanos = smooth(this.averageFrameNanos, nanos);
+        this.maxFrameNanos = Math.max(this.maxFrameNanos, nanos);
+        if (this.adaptive) {
+            this.adapt();
+        }
+    }
+
+    /**
+     * Adapts the frame rate to both the time spent rendering and the measured interval between ticks, so that the
+     * EDT falling behind for other reasons than painting, e.g. layout or input, also lowers the frame rate.
+     */
+    private void adapt() {
+        double slot = 1e9 / this.currentFps;
+        boolean late = this.averageLatenessNanos > LATE_TICK_RATIO * slot;
+        boolean onTime = this.averageLatenessNanos < ON_TIME_TICK_RATIO * slot;
+        if ((late || this.averageFrameNanos > SLOW_FRAME_RATIO * slot) && this.currentFps > MIN_FPS) {
+            this.setCurrentFps(Math.max(MIN_FPS, this.currentFps * 3 / 4));
+        } else if (onTime && this.averageFrameNanos < FAST_FRAME_RATIO * slot && this.currentFps < this.targetFps) {
+            this.setCurrentFps(Math.min(this.targetFps, this.currentFps + 1));
+        }
+    }
+
+    private void setCurrentFps(int fps) {
+        if (fps != this.currentFps) {
+            // The lateness was measured against the previous period, the next tick starts a new average.
+            this.averageLatenessNanos = 0;
+        }
+        this.currentFps = fps;
+        if (this.timer != null) {
+            this.timer.setDelay(periodMillis(fps));
+        }
+    }
+
+    private static double smooth(double average, long sample) {
+        return average == 0 ? sample : average + SMOOTHING * (sample - average);
+    }
+
+    private static int periodMillis(int fps) {
+        return Math.max(1, 1000 / fps);
+    }
+
+    /**
+     * Sets the frame rate to aim for. Must be called on the EDT.
+     *
+     * @param targetFps The new target frame rate.
+     */
+    public void setTargetFps(int targetFps) {
+        if (targetFps <= 0) {
+            throw new IllegalArgumentException("The target FPS must be positive: " + targetFps);
+        }
+        this.targetFps = targetFps;
+        this.setCurrentFps(targetFps);
+    }
+
+    /**
+     * Enables or disables the adaptive mode. Must be called on the EDT.
+     *
+     * @param adaptive True to lower the frame rate when the EDT falls behind.
+     */
+    public void setAdaptive(boolean adaptive) {
+        this.adaptive = adaptive;
+        if (!adaptive) {
+            this.setCurrentFps(this.targetFps);
+        }
+    }
+
+    public int getTargetFps() {
+        return this.targetFps;
+    }
+
+    /**
+     * Retrieves the frame rate currently scheduled, below the target when the adaptive mode has lowered it.
+     *
+     * @return The scheduled frame rate.
+     */
+    public int getCurrentFps() {
+        return this.currentFps;
+    }
+
+    /**
+     * Retrieves the frame rate actually achieved, from the smoothed interval between frames.
+     *
+     * @return The measured frame rate, 0 before the second frame.
+     */
+    public double getMeasuredFps() {
+        return this.averageIntervalNanos == 0 ? 0 : 1e9 / this.averageIntervalNanos;
+    }
+
+    public long getFramesRendered() {
+        return this.framesRendered;
+    }
+
+    /**
+     * Retrieves the smoothed time spent rendering a frame.
+     *
+     * @return The average frame time, in milliseconds.
+     */
+    public double getAverageFrameMillis() {
+        return this.averageFrameNanos / 1e6;
+    }
+
+    /**
+     * Retrieves the longest time spent rendering a frame.
+     *
+     * @return The maximum frame time, in milliseconds.
+     */
+    public double getMaxFrameMillis() {
+        return this.maxFrameNanos / 1e6;
+    }
+}
@@ -0,0 +1,80 @@
+package env.view;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.GraphicsConfiguration;
+import java.awt.Transparency;
+import java.awt.image.BufferedImage;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * The `SpriteCache` class pre-renders the shapes drawn for every fish and piece of food, so a frame only copies
+ * images instead of rasterizing thousands of ovals.
+ * Fish sprites are keyed by their size in whole pixels, which is also the precision they were drawn with.
+ * It is only used from the event dispatch thread.
+ */
+class SpriteCache {
+    static final int FOOD_SIZE = 10;
+    static final Color FISH_COLOR = Color.ORANGE;
+    static final Color FOOD_COLOR = Color.RED;
+
+    private final GraphicsConfiguration configuration;
+    private final Map<Integer, BufferedImage> fishSprites = new HashMap<>();
+    private BufferedImage foodSprite;
+
+    /**
+     * Constructs a cache whose images are compatible with the given configuration, or plain ARGB images when null.
+     *
+     * @param configuration The configuration of the screen the sprites are drawn to, possibly null.
+     */
+    SpriteCache(GraphicsConfiguration configuration) {
+        this.configuration = configuration;
+    }
+
+    /**
+     * Retrieves the sprite of a fish, an oval as wide as its size and half as tall.
+     *
+     * @param size The size of the fish.
+     * @return The sprite.
+     */
+    BufferedImage fish(double size) {
+        return this.fishSprites.computeIfAbsent((int) size, width -> {
+            BufferedImage sprite = this.createImage(Math.max(1, width), Math.max(1, width / 2));
+            Graphics2D g = sprite.createGraphics();
+            g.setColor(FISH_COLOR);
+            g.fillOval(0, 0, width, width / 2);
+            g.dispose();
+            return sprite;
+        });
+    }
+
+    /**
+     * Retrieves the sprite of a piece of food.
+     *
+     * @return The sprite.
+     */
+    BufferedImage food() {
+        if (this.foodSprite == null) {
+            this.foodSprite = this.createImage(FOOD_SIZE, FOOD_SIZE);
+            Graphics2D g = this.foodSprite.createGraphics();
+            g.setColor(FOOD_COLOR);
+            g.fillOval(0, 0, FOOD_SIZE, FOOD_SIZE);
+            g.dispose();
+        }
+        return this.foodSprite;
+    }
+
+    int size() {
+        return this.fishSprites.size() + (this.foodSprite == null ? 0 : 1);
+    }
+
+    /**
+     * Creates an image compatible with the screen, so drawing it can be accelerated.
+     */
+    BufferedImage createImage(int width, int height) {
+        return this.configuration == null
+            ? new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB)
+            : this.configuration.createCompatibleImage(width, height, Transparency.TRANSLUCENT);
+    }
+}
@@ -0,0 +1,404 @@
+package launcher;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import env.AvoidanceMode;
+import env.SimAquariumEnvironment;
+import env.SimulationClock;
+import env.model.Amount;
+import env.model.AquariumModel;
+import env.model.FishStatistics;
+import jason.JasonException;
+import utils.Utils;
+
+/**
+ * The `ExperimentRunner` class sweeps a grid of simulation parameters and writes one line of results per run.
+ * The Jason runner, the simulation clock and the random streams are global to a JVM, so every run is a separate
+ * JVM with its own model: runs are isolated from each other and several of them run in parallel on the cores.
+ * Runs are reproducible headless simulations, seeded with their repetition number, that last until every fish
+ * is dead or a given number of ticks has elapsed.
+ *
+ * Usage: `ExperimentRunner --agents 10,50 --food LITTLE,NORMAL --obstacles NORMAL --food-energy 20,30
+ * --avoidance STATIC,VELOCITY --repetitions 3 --ticks 3000 --parallelism 4 --output results.csv`
+ */
+public class ExperimentRunner {
+    static final String RESULT_PREFIX = "RESULT ";
+    static final String CSV_HEADER = "agents,food,obstacles,food_energy,avoidance,seed,ticks,survival_rate,fairness_index,food_eaten,runtime_ms";
+    private static final String RUN = "--run";
+    private static final long POLL_MILLIS = 100;
+    private static final long MAX_STARTUP_MILLIS = 60_000;
+
+    /**
+     * The `Parameters` class is a point of the parameter grid, i.e. the settings of a single run.
+     */
+    public static class Parameters {
+        private final int agents;
+        private final Amount food;
+        private final Amount obstacles;
+        private final double foodEnergy;
+        private final AvoidanceMode avoidance;
+        private final long seed;
+
+        public Parameters(int agents, Amount food, Amount obstacles, double foodEnergy, AvoidanceMode avoidance, long seed) {
+            this.agents = agents;
+            this.food = food;
+            this.obstacles = obstacles;
+            this.foodEnergy = foodEnergy;
+            this.avoidance = avoidance;
+            this.seed = seed;
+        }
+
+        public int getAgents() {
+            return this.agents;
+        }
+
+        public Amount getFood() {
+            return this.food;
+        }
+
+        public Amount getObstacles() {
+            return this.obstacles;
+        }
+
+        public double getFoodEnergy() {
+            return this.foodEnergy;
+        }
+
+        public AvoidanceMode getAvoidance() {
+            return this.avoidance;
+        }
+
+        public long getSeed() {
+            return this.seed;
+        }
+    }
+
+    /**
+     * The `Result` class holds the measures of a finished run.
+     */
+    public static class Result {
+        private final Parameters parameters;
+        private final long ticks;
+        private final double survivalRate;
+        private final double fairnessIndex;
+        private final int foodEaten;
+        private final long runtimeMillis;
+
+        public Result(Parameters parameters, long ticks, double survivalRate, double fairnessIndex, int foodEaten, long runtimeMillis) {
+            this.parameters = parameters;
+            this.ticks = ticks;
+            this.survivalRate = survivalRate;
+            this.fairnessIndex = fairnessIndex;
+            this.foodEaten = foodEaten;
+            this.runtimeMillis = runtimeMillis;
+        }
+
+        public Parameters getParameters() {
+            return this.parameters;
+        }
+
+        public long getTicks() {
+            return this.ticks;
+        }
+
+        public double getSurvivalRate() {
+            return this.survivalRate;
+        }
+
+        public double getFairnessIndex() {
+            return this.fairnessIndex;
+        }
+
+        public int getFoodEaten() {
+            return this.foodEaten;
+        }
+
+        public long getRuntimeMillis() {
+            return this.runtimeMillis;
+        }
+
+        /**
+         * Formats the result as a line of the results file, see {@link ExperimentRunner#CSV_HEADER}.
+         *
+         * @return The CSV line, without line terminator.
+         */
+        public String toCsv() {
+            return String.format(Locale.ROOT, "%d,%s,%s,%s,%s,%d,%d,%s,%s,%d,%d",
+                this.parameters.agents, this.parameters.food, this.parameters.obstacles, this.parameters.foodEnergy,
+                this.parameters.avoidance, this.parameters.seed, this.ticks, this.survivalRate,
+                Double.isNaN(this.fairnessIndex) ? "" : Double.toString(this.fairnessIndex), this.foodEaten, this.runtimeMillis);
+        }
+
+        /**
+         * Parses a line written by {@link #toCsv()}.
+         *
+         * @param line The CSV line.
+         * @return The result.
+         */
+        public static Result fromCsv(String line) {
+            String[] f = line.split(",", -1);
+            if (f.length != 11) {
+                throw new IllegalArgumentException("Malformed result: " + line);
+            }
+            Parameters parameters = new Parameters(Integer.parseInt(f[0]), Amount.valueOf(f[1]), Amount.valueOf(f[2]),
+                Double.parseDouble(f[3]), AvoidanceMode.valueOf(f[4]), Long.parseLong(f[5]));
+            return new Result(parameters, Long.parseLong(f[6]), Double.parseDouble(f[7]),
+                f[8].isEmpty() ? Double.NaN : Double.parseDouble(f[8]), Integer.parseInt(f[9]), Long.parseLong(f[10]));
+        }
+    }
+
+    private final int parallelism;
+    private final long maxTicks;
+    private final long timeoutMillis;
+
+    /**
+     * Constructs a runner.
+     *
+     * @param parallelism The number of runs executed at the same time.
+     * @param maxTicks The number of ticks after which a run stops if some fish are still alive.
+     * @param timeoutMillis The wall-clock time after which a run is killed and reported as failed.
+     */
+    public ExperimentRunner(int parallelism, long maxTicks, long timeoutMillis) {
+        if (parallelism <= 0 || maxTicks <= 0 || timeoutMillis <= 0) {
+            throw new IllegalArgumentException("Parallelism, ticks and timeout must be positive");
+        }
+        this.parallelism = parallelism;
+        this.maxTicks = maxTicks;
+        this.timeoutMillis = timeoutMillis;
+    }
+
+    /**
+     * Expands a parameter grid into the list of its points, with the given number of repetitions (seeds) each.
+     *
+     * @param agents The numbers of agents.
+     * @param food The food amounts.
+     * @param obstacles The obstacle amounts.
+     * @param foodEnergy The energy a fish gains by eating a piece of food.
+     * @param avoidance The ways fish avoid each other.
+     * @param repetitions The number of runs of every combination, seeded from 0 to `repetitions - 1`.
+     * @return Every combination of the parameters.
+     */
+    public static List<Parameters> grid(List<Integer> agents, List<Amount> food, List<Amount> obstacles, List<Double> foodEnergy,
+            List<AvoidanceMode> avoidance, int repetitions) {
+        List<Parameters> grid = new ArrayList<>();
+        for (int a : agents) {
+            for (Amount f : food) {
+                for (Amount o : obstacles) {
+                    for (double e : foodEnergy) {
+                        for (AvoidanceMode m : avoidance) {
+                            for (long seed = 0; seed < repetitions; seed++) {
+                                grid.add(new Parameters(a, f, o, e, m, seed));
+                            }
+                        }
+                    }
+                }
+            }
+        }
+        return grid;
+    }
+
+    /**
+     * Runs every point of the grid and writes the results to a CSV file, in the order of the grid.
+     * Runs that fail are reported on the standard error and left out of the file.
+     *
+     * @param grid The runs to execute.
+     * @param output The results file.
+     * @return The results of the successful runs.
+     * @throws IOException If the results file cannot be written.
+     * @throws InterruptedException If interrupted while waiting for the runs.
+     */
+    public List<Result> run(List<Parameters> grid, Path output) throws IOException, InterruptedException {
+        ExecutorService executor = Executors.newFixedThreadPool(this.parallelism);
+        List<Result> results = new ArrayList<>();
+        try {
+            List<Future<Optional<Result>>> futures = new ArrayList<>();
+            for (Parameters parameters : grid) {
+                futures.add(executor.submit(() -> this.runInChildJvm(parameters)));
+            }
+            for (Future<Optional<Result>> future : futures) {
+                try {
+                    future.get().ifPresent(results::add);
+                } catch (ExecutionException e) {
+                    e.getCause().printStackTrace();
+                }
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        if (output.getParent() != null) {
+            Files.createDirectories(output.getParent());
+        }
+        try (Writer writer = Files.newBufferedWriter(output, StandardCharsets.UTF_8)) {
+            writer.write(CSV_HEADER + "\n");
+            for (Result result : results) {
+                writer.write(result.toCsv() + "\n");
+            }
+        }
+        return results;
+    }
+
+    private Optional<Result> runInChildJvm(Parameters p) throws IOException, InterruptedException {
+        String java = Path.of(System.getProperty("java.home"), "bin", "java").toString();
+        Process process = new ProcessBuilder(java,
+                "-D" + Utils.FOOD_ENERGY_INCREASE_PROPERTY + "=" + p.foodEnergy,
+                "-Djava.awt.headless=true",
+                "-cp", System.getProperty("java.class.path"),
+                ExperimentRunner.class.getName(), RUN,
+                Integer.toString(p.agents), p.food.name(), p.obstacles.name(), p.avoidance.name(), Long.toString(p.seed),
+                Long.toString(this.maxTicks))
+            .redirectErrorStream(true)
+            .start();
+        Result result = null;
+        Thread killer = new Thread(() -> {
+            try {
+                if (!process.waitFor(this.timeoutMillis, TimeUnit.MILLISECONDS)) {
+                    process.destroyForcibly();
+                }
+            } catch (InterruptedException e) {
+                process.destroyForcibly();
+            }
+        });
+        killer.setDaemon(true);
+        killer.start();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8))) {
+            // The output of the agents is drained as well, otherwise a full pipe would block the child.
+            for (String line = reader.readLine(); line != null; line = reader.readLine()) {
+                if (line.startsWith(RESULT_PREFIX)) {
+                    result = Result.fromCsv(line.substring(RESULT_PREFIX.length()));
+                }
+            }
+        }
+        process.waitFor();
+        if (result == null) {
+            System.err.println(String.format("Run failed (exit code %d): %s", process.exitValue(), describe(p)));
+        }
+        return Optional.ofNullable(result);
+    }
+
+    private static String describe(Parameters p) {
+        return String.format(Locale.ROOT, "agents=%d food=%s obstacles=%s food_energy=%s avoidance=%s seed=%d",
+            p.agents, p.food, p.obstacles, p.foodEnergy, p.avoidance, p.seed);
+    }
+
+    /**
+     * Runs a single simulation in this JVM.
+     *
+     * @throws JasonException If the simulation does not start in time or some of the fish never join it, since the
+     *                        measures of a smaller population would be mistaken for those of the requested one.
+     */
+    static Result runHere(Parameters p, long maxTicks) throws IOException, JasonException, InterruptedException {
+        long start = System.currentTimeMillis();
+        SimulationLauncher launcher = SimulationLauncher.launchDeterministicInProcess(p.agents, p.food.name(), p.obstacles.name(),
+            SimAquariumEnvironment.DEFAULT_HEADLESS_WIDTH, SimAquariumEnvironment.DEFAULT_HEADLESS_HEIGHT, p.seed, p.avoidance, false);
+        System.err.println("Startup: " + launcher.getStartupReport());
+        SimAquariumEnvironment env = launcher.getEnvironment();
+        AquariumModel model = env.getModel();
+        SimulationClock clock = env.getEngine().getClock();
+        // The lock-step clock only starts ticking once every agent has joined.
+        while ((clock.getTick() == 0 || model.getAllAgents().size() < p.agents)
+                && System.currentTimeMillis() - start < MAX_STARTUP_MILLIS) {
+            Thread.sleep(POLL_MILLIS);
+        }
+        if (clock.getTick() == 0 || model.getAllAgents().size() < p.agents) {
+            throw new JasonException(String.format("Startup failed, %d of %d fish joined by tick %d: %s",
+                model.getAllAgents().size(), p.agents, clock.getTick(), describe(p)));
+        }
+        while (clock.getTick() < maxTicks && model.getStatistics().getFishAlive() > 0) {
+            Thread.sleep(POLL_MILLIS);
+        }
+        FishStatistics statistics = model.getStatistics();
+        double survivalRate = (double) statistics.getFishAlive() / p.agents;
+        return new Result(p, clock.getTick(), survivalRate, statistics.getFairnessIndex(), model.getNumberOfFoodEaten(),
+            System.currentTimeMillis() - start);
+    }
+
+    private static <T> List<T> list(String value, Function<String, T> parser) {
+        return Stream.of(value.split(",")).map(String::trim).map(parser).collect(Collectors.toList());
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (args.length > 0 && RUN.equals(args[0])) {
+            Parameters p = new Parameters(Integer.parseInt(args[1]), Amount.valueOf(args[2]), Amount.valueOf(args[3]),
+                Utils.FOOD_ENERGY_INCREASE, AvoidanceMode.valueOf(args[4]), Long.parseLong(args[5]));
+            // The agent threads would keep the JVM alive after an exception, so the exit is explicit either way.
+            try {
+                Result result = runHere(p, Long.parseLong(args[6]));
+                System.out.println(RESULT_PREFIX + result.toCsv());
+                System.out.flush();
+                System.exit(0);
+            } catch (Exception e) {
+                e.printStackTrace();
+                System.exit(1);
+            }
+        }
+        List<Integer> agents = List.of(10);
+        List<Amount> food = List.of(Amount.NORMAL);
+        List<Amount> obstacles = List.of(Amount.NORMAL);
+        List<Double> foodEnergy = List.of(Utils.FOOD_ENERGY_INCREASE);
+        List<AvoidanceMode> avoidance = List.of(AvoidanceMode.fromSystemProperty());
+        int repetitions = 1;
+        long ticks = 3000;
+        int parallelism = Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        long timeoutMillis = TimeUnit.MINUTES.toMillis(30);
+        Path output = Path.of("results.csv");
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            String value = args[i + 1];
+            switch (args[i]) {
+                case "--agents":
+                    agents = list(value, Integer::parseInt);
+                    break;
+                case "--food":
+                    food = list(value, Amount::valueOf);
+                    break;
+                case "--obstacles":
+                    obstacles = list(value, Amount::valueOf);
+                    break;
+                case "--food-energy":
+                    foodEnergy = list(value, Double::parseDouble);
+                    break;
+                case "--avoidance":
+                    avoidance = list(value, v -> AvoidanceMode.valueOf(v.toUpperCase(Locale.ROOT)));
+                    break;
+                case "--repetitions":
+                    repetitions = Integer.parseInt(value);
+                    break;
+                case "--ticks":
+                    ticks = Long.parseLong(value);
+                    break;
+                case "--parallelism":
+                    parallelism = Integer.parseInt(value);
+                    break;
+                case "--timeout-minutes":
+                    timeoutMillis = TimeUnit.MINUTES.toMillis(Long.parseLong(value));
+                    break;
+                case "--output":
+                    output = Path.of(value);
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown option: " + args[i]);
+            }
+        }
+        List<Parameters> grid = grid(agents, food, obstacles, foodEnergy, avoidance, repetitions);
+        List<Result> results = new ExperimentRunner(parallelism, ticks, timeoutMillis).run(grid, output);
+        System.out.println(String.format("%d of %d runs written to %s", results.size(), grid.size(), output));
+        System.exit(results.size() == grid.size() ? 0 : 1);
+    }
+}
@@ -3,11 +3,28 @@ package launcher;
 import java.io.File;
 import java.io.FileWriter;
 import java.io.IOException;
+import java.io.StringReader;
 import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
+import env.AvoidanceMode;
 import env.SimAquariumEnvironment;
 import jason.JasonException;
+import jason.asSyntax.directives.DirectiveProcessor;
+import jason.asSyntax.directives.Include;
+import jason.infra.local.LocalAgArch;
 import jason.infra.local.RunLocalMAS;
+import jason.mas2j.ClassParameters;
+import jason.mas2j.MAS2JProject;
+import jason.mas2j.parser.ParseException;
+import jason.mas2j.parser.mas2j;
+import jason.runtime.SourcePath;
+import jason.util.Config;
+import utils.SimulationMetrics;
 
 /**
  * The `SimulationLauncher` class is responsible for launching and managing the simulation.
@@ -15,21 +32,118 @@ import jason.infra.local.RunLocalMAS;
  * and configuring the Multi-Agent System (MAS) environment.
  */
 public class SimulationLauncher extends RunLocalMAS{
-    static final String NEW_FILE_NAME = Path.of(".", "tmp", "sim.mas2j").toString();
+    // One file per process, so that simulations launched in parallel from the same directory do not overwrite it.
+    static final String NEW_FILE_NAME = Path.of(".", "tmp", "sim-" + ProcessHandle.current().pid() + ".mas2j").toString();
     static final String MAS_CONTENT = "MAS robots {\r\n" + //
                 "\tinfrastructure: Centralised \r\n" + //
-                "\tenvironment: env.SimAquariumEnvironment(%s, %s) \r\n" + //
-                "\tagents: fish #%d;\r\n" + //
+                "\tenvironment: env.SimAquariumEnvironment(%s) \r\n" + //
+                "\tagents: fish agentClass utils.FishAgent #%d;\r\n" + //
                 "\taslSourcePath: \"src/main/asl\";\r\n" + //
                 "}";
+    static final String CARRIER_PARALLELISM = "jdk.virtualThreadScheduler.parallelism";
+    static final String CARRIER_MAX_POOL_SIZE = "jdk.virtualThreadScheduler.maxPoolSize";
+    // From JEP 491 on, a virtual thread waiting in a monitor, as Jason agents do when they sleep, releases its carrier.
+    static final int VIRTUAL_THREADS_MIN_JAVA_VERSION = 24;
+    // The infrastructure options under which Jason runs the agents on its own executors instead of one thread each.
+    static final String[] SHARED_THREAD_OPTIONS = {"pool", "synch_scheduled", "asynch", "asynch_shared"};
     static SimulationLauncher mas;
+    private final boolean virtualThreads;
+    private final Map<String, Long> startupMillis = new LinkedHashMap<>();
+    private long phaseStart;
 
     /**
      * Default constructor for the `SimulationLauncher` class.
      * Calls the superclass constructor to initialize the base functionality.
      */
     public SimulationLauncher(){
+        this(false);
+    }
+
+    /**
+     * Constructs a launcher running each agent on its own platform thread, as `Centralised` does, or on its own
+     * virtual thread.
+     *
+     * @param virtualThreads True to run the reasoning cycle of every agent on a virtual thread.
+     */
+    SimulationLauncher(boolean virtualThreads){
         super();
+        this.virtualThreads = virtualThreads;
+    }
+
+    /**
+     * Starts the reasoning cycles of the agents. With virtual threads, an agent blocked in the clock or in an
+     * internal action no longer holds an OS thread, so the number of agents is no longer bound by the number of
+     * threads the OS can run.
+     * Each agent is set up as `RunLocalMAS` sets up the agents it gives a thread of their own: it gets the execution
+     * control and the number of cycles per stage given to the infrastructure.
+     */
+    @Override
+    public void startAgs(){
+        if (!this.virtualThreads) {
+            super.startAgs();
+            return;
+        }
+        int[] cycles = cyclesPerStage(this.getProject().getInfrastructure());
+        for (LocalAgArch ag : this.getAgs().values()) {
+            ag.setControlInfraTier(this.getControllerInfraTier());
+            if (ag.getCyclesSense() == -1) {
+                ag.setCyclesSense(cycles[0]);
+            }
+            if (ag.getCyclesDeliberate() == -1) {
+                ag.setCyclesDeliberate(cycles[1]);
+            }
+            if (ag.getCyclesAct() == -1) {
+                ag.setCyclesAct(cycles[2]);
+            }
+            if (ag.getThread() == null) {
+                ag.setThread(Thread.ofVirtual().unstarted(ag));
+            }
+        }
+        for (LocalAgArch ag : this.getAgs().values()) {
+            ag.startThread();
+        }
+    }
+
+    /**
+     * Reads the number of cycles of the sense, deliberate and act stages given to the infrastructure, either one
+     * number for all of them or one number per stage, as `RunLocalMAS` does.
+     */
+    private static int[] cyclesPerStage(ClassParameters infrastructure){
+        int[] cycles = {1, 1, 1};
+        if (infrastructure.hasParameters()) {
+            String[] parameters = infrastructure.getParametersArray();
+            if (parameters.length > 2) {
+                for (int stage = 0; stage < cycles.length; stage++) {
+                    cycles[stage] = Integer.parseInt(infrastructure.getParameter(stage + 1));
+                }
+            } else if (parameters.length > 1) {
+                Arrays.fill(cycles, Integer.parseInt(infrastructure.getParameter(1)));
+            }
+        }
+        return cycles;
+    }
+
+    /**
+     * Checks that the infrastructure lets every agent have a thread of its own, which is what virtual threads
+     * replace. The thread pools of Jason would otherwise be silently ignored.
+     * Also checks that the JVM does not pin a carrier thread for every agent asleep in `LocalAgArch.sleep`, which
+     * waits in a monitor: with a few hundred agents, all the carriers would be pinned and the simulation would stop.
+     *
+     * @throws JasonException If the infrastructure asks for shared threads, or the JVM is older than Java 24.
+     */
+    private void checkVirtualThreadsSupported() throws JasonException{
+        if (Runtime.version().feature() < VIRTUAL_THREADS_MIN_JAVA_VERSION) {
+            throw new JasonException("Virtual threads need Java " + VIRTUAL_THREADS_MIN_JAVA_VERSION
+                + " or later, where agents waiting in a monitor do not pin their carrier thread; running on Java "
+                + Runtime.version().feature());
+        }
+        ClassParameters infrastructure = this.getProject().getInfrastructure();
+        for (String option : SHARED_THREAD_OPTIONS) {
+            if (infrastructure.hasParameter(option)) {
+                throw new JasonException("Virtual threads cannot be used with the '" + option
+                    + "' option of the infrastructure: " + infrastructure);
+            }
+        }
     }
 
     /**
@@ -61,7 +175,220 @@ public class SimulationLauncher extends RunLocalMAS{
      * @throws JasonException If an error occurs while initializing the MAS environment.
      */
     public static SimulationLauncher launchNew(int numberOfAgents, String foodQuantity, String numberOfObstacles) throws IOException, JasonException{
-        String result = String.format(MAS_CONTENT, foodQuantity, numberOfObstacles, numberOfAgents);
+        return launch(numberOfAgents, String.format("%s, %s", foodQuantity, numberOfObstacles));
+    }
+
+    /**
+     * Launches a new simulation without any view, driven by an explicit tick clock.
+     * 
+     * @param numberOfAgents The number of agents (fish) to include in the simulation.
+     * @param foodQuantity The quantity of food in the simulation (e.g., "LITTLE", "NORMAL", "MANY").
+     * @param numberOfObstacles The number of obstacles in the simulation.
+     * @param width The width of the aquarium.
+     * @param height The height of the aquarium.
+     * @param tickMillis The wall-clock duration of a tick, or 0 to run as fast as possible.
+     * @return A new instance of the `SimulationLauncher` representing the launched simulation.
+     * @throws IOException If an error occurs while creating or writing the MAS configuration file.
+     * @throws JasonException If an error occurs while initializing the MAS environment.
+     */
+    public static SimulationLauncher launchHeadless(int numberOfAgents, String foodQuantity, String numberOfObstacles,
+            int width, int height, long tickMillis) throws IOException, JasonException{
+        return launch(numberOfAgents, String.format("%s, %s, %s, %d, %d, %d",
+            foodQuantity, numberOfObstacles, SimAquariumEnvironment.HEADLESS, width, height, tickMillis));
+    }
+
+    /**
+     * Launches a new headless simulation that is reproducible: every random draw comes from streams derived from
+     * the seed, and the agents move in lock-step, so two runs with the same parameters produce the same trajectories.
+     * 
+     * @param numberOfAgents The number of agents (fish) to include in the simulation.
+     * @param foodQuantity The quantity of food in the simulation (e.g., "LITTLE", "NORMAL", "MANY").
+     * @param numberOfObstacles The number of obstacles in the simulation.
+     * @param width The width of the aquarium.
+     * @param height The height of the aquarium.
+     * @param seed The seed of the simulation, between 0 and 2^53 since it is passed as a Jason number.
+     * @return A new instance of the `SimulationLauncher` representing the launched simulation.
+     * @throws IOException If an error occurs while creating or writing the MAS configuration file.
+     * @throws JasonException If an error occurs while initializing the MAS environment.
+     */
+    public static SimulationLauncher launchDeterministic(int numberOfAgents, String foodQuantity, String numberOfObstacles,
+            int width, int height, long seed) throws IOException, JasonException{
+        if (seed < 0 || seed >= 1L << 53) {
+            throw new IllegalArgumentException("Seed out of range: " + seed);
+        }
+        return launch(numberOfAgents, String.format("%s, %s, %s, %d, %d, %d, %d, %d",
+            foodQuantity, numberOfObstacles, SimAquariumEnvironment.HEADLESS, width, height, 0, seed, numberOfAgents));
+    }
+
+    /**
+     * Launches a new headless simulation whose agents each reason on a virtual thread, which lets it run
+     * with tens of thousands of agents. It needs Java 24 or later, see {@link #checkVirtualThreadsSupported()}.
+     * The carrier threads are only configured by the first launch of the JVM that starts a virtual thread.
+     * 
+     * @param numberOfAgents The number of agents (fish) to include in the simulation.
+     * @param foodQuantity The quantity of food in the simulation (e.g., "LITTLE", "NORMAL", "MANY").
+     * @param numberOfObstacles The number of obstacles in the simulation.
+     * @param width The width of the aquarium.
+     * @param height The height of the aquarium.
+     * @param tickMillis The wall-clock duration of a tick, or 0 to run as fast as possible.
+     * @param carrierThreads The number of platform threads carrying the virtual ones, or 0 for one per core.
+     * @return A new instance of the `SimulationLauncher` representing the launched simulation.
+     * @throws IOException If an error occurs while creating or writing the MAS configuration file.
+     * @throws JasonException If an error occurs while initializing the MAS environment.
+     */
+    public static SimulationLauncher launchOnVirtualThreads(int numberOfAgents, String foodQuantity, String numberOfObstacles,
+            int width, int height, long tickMillis, int carrierThreads) throws IOException, JasonException{
+        if (carrierThreads < 0) {
+            throw new IllegalArgumentException("Negative number of carrier threads: " + carrierThreads);
+        }
+        if (carrierThreads > 0) {
+            System.setProperty(CARRIER_PARALLELISM, Integer.toString(carrierThreads));
+            // Carriers blocked in a native call are compensated for, up to this pool size.
+            System.setProperty(CARRIER_MAX_POOL_SIZE, Integer.toString(Math.max(256, carrierThreads)));
+        }
+        return launch(numberOfAgents, String.format("%s, %s, %s, %d, %d, %d",
+            foodQuantity, numberOfObstacles, SimAquariumEnvironment.HEADLESS, width, height, tickMillis), true);
+    }
+
+    private static SimulationLauncher launch(int numberOfAgents, String environmentParameters) throws IOException, JasonException{
+        return launch(numberOfAgents, environmentParameters, false);
+    }
+
+    /**
+     * Launches a new headless simulation like {@link #launchHeadless(int, String, String, int, int, long)}, but
+     * without the temporary project file: the project is built in memory, and the JMX bean, the RMI registry and the
+     * web mind inspector are only started when requested, so that the simulation starts in milliseconds and opens
+     * no network port.
+     * 
+     * @param numberOfAgents The number of agents (fish) to include in the simulation.
+     * @param foodQuantity The quantity of food in the simulation (e.g., "LITTLE", "NORMAL", "MANY").
+     * @param numberOfObstacles The number of obstacles in the simulation.
+     * @param width The width of the aquarium.
+     * @param height The height of the aquarium.
+     * @param tickMillis The wall-clock duration of a tick, or 0 to run as fast as possible.
+     * @param remoteServices True to start the JMX bean, the RMI registry and the web mind inspector as well.
+     * @return A new instance of the `SimulationLauncher` representing the launched simulation.
+     * @throws JasonException If an error occurs while initializing the MAS environment.
+     */
+    public static SimulationLauncher launchHeadlessInProcess(int numberOfAgents, String foodQuantity, String numberOfObstacles,
+            int width, int height, long tickMillis, boolean remoteServices) throws JasonException{
+        return launchInProcess(numberOfAgents, String.format("%s, %s, %s, %d, %d, %d",
+            foodQuantity, numberOfObstacles, SimAquariumEnvironment.HEADLESS, width, height, tickMillis), remoteServices);
+    }
+
+    /**
+     * Launches a new reproducible simulation like {@link #launchDeterministic(int, String, String, int, int, long)},
+     * built in memory as {@link #launchHeadlessInProcess(int, String, String, int, int, long, boolean)} does.
+     * 
+     * @param numberOfAgents The number of agents (fish) to include in the simulation.
+     * @param foodQuantity The quantity of food in the simulation (e.g., "LITTLE", "NORMAL", "MANY").
+     * @param numberOfObstacles The number of obstacles in the simulation.
+     * @param width The width of the aquarium.
+     * @param height The height of the aquarium.
+     * @param seed The seed of the simulation, between 0 and 2^53 since it is passed as a Jason number.
+     * @param remoteServices True to start the JMX bean, the RMI registry and the web mind inspector as well.
+     * @return A new instance of the `SimulationLauncher` representing the launched simulation.
+     * @throws JasonException If an error occurs while initializing the MAS environment.
+     */
+    public static SimulationLauncher launchDeterministicInProcess(int numberOfAgents, String foodQuantity, String numberOfObstacles,
+            int width, int height, long seed, boolean remoteServices) throws JasonException{
+        return launchDeterministicInProcess(numberOfAgents, foodQuantity, numberOfObstacles, width, height, seed,
+            AvoidanceMode.fromSystemProperty(), remoteServices);
+    }
+
+    /**
+     * Launches a new reproducible simulation like
+     * {@link #launchDeterministicInProcess(int, String, String, int, int, long, boolean)}, where fish avoid each other
+     * in the given mode.
+     * 
+     * @param numberOfAgents The number of agents (fish) to include in the simulation.
+     * @param foodQuantity The quantity of food in the simulation (e.g., "LITTLE", "NORMAL", "MANY").
+     * @param numberOfObstacles The number of obstacles in the simulation.
+     * @param width The width of the aquarium.
+     * @param height The height of the aquarium.
+     * @param seed The seed of the simulation, between 0 and 2^53 since it is passed as a Jason number.
+     * @param avoidanceMode How fish perceive, hence avoid, each other.
+     * @param remoteServices True to start the JMX bean, the RMI registry and the web mind inspector as well.
+     * @return A new instance of the `SimulationLauncher` representing the launched simulation.
+     * @throws JasonException If an error occurs while initializing the MAS environment.
+     */
+    public static SimulationLauncher launchDeterministicInProcess(int numberOfAgents, String foodQuantity, String numberOfObstacles,
+            int width, int height, long seed, AvoidanceMode avoidanceMode, boolean remoteServices) throws JasonException{
+        if (seed < 0 || seed >= 1L << 53) {
+            throw new IllegalArgumentException("Seed out of range: " + seed);
+        }
+        return launchInProcess(numberOfAgents, String.format("%s, %s, %s, %d, %d, %d, %d, %d, %s",
+            foodQuantity, numberOfObstacles, SimAquariumEnvironment.HEADLESS, width, height, 0, seed, numberOfAgents,
+            avoidanceMode.name()), remoteServices);
+    }
+
+    /**
+     * Retrieves how long each phase of the launch took, in the order they ran.
+     * 
+     * @return The duration of each phase in milliseconds, by phase name.
+     */
+    public Map<String, Long> getStartupMillis(){
+        return Collections.unmodifiableMap(this.startupMillis);
+    }
+
+    /**
+     * Formats the startup-time breakdown, e.g. "project 2 ms, create 85 ms, start 3 ms (total 90 ms)".
+     * 
+     * @return The startup report.
+     */
+    public String getStartupReport(){
+        StringBuilder report = new StringBuilder();
+        long total = 0;
+        for (Map.Entry<String, Long> phase : this.startupMillis.entrySet()) {
+            if (report.length() > 0) {
+                report.append(", ");
+            }
+            report.append(phase.getKey()).append(' ').append(phase.getValue()).append(" ms");
+            total += phase.getValue();
+        }
+        return report.append(" (total ").append(total).append(" ms)").toString();
+    }
+
+    private void beginPhase(){
+        this.phaseStart = System.nanoTime();
+    }
+
+    private void endPhase(String phase){
+        this.startupMillis.put(phase, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - this.phaseStart));
+    }
+
+    private static SimulationLauncher launchInProcess(int numberOfAgents, String environmentParameters, boolean remoteServices) throws JasonException{
+        mas = new SimulationLauncher();
+        mas.beginPhase();
+        MAS2JProject project;
+        try {
+            project = new mas2j(new StringReader(String.format(MAS_CONTENT, environmentParameters, numberOfAgents))).mas();
+        } catch (ParseException e) {
+            throw new JasonException("Invalid generated project: " + e.getMessage());
+        }
+        // The agent sources are looked up as RunLocalMAS.init looks them up for a project file, the classpath
+        // included, where the build copies the sources as well.
+        project.setupDefault();
+        project.getSourcePaths().addPath(SourcePath.CRPrefix);
+        project.registerDirectives();
+        ((Include) DirectiveProcessor.getDirective("include")).setSourcePath(project.getSourcePaths());
+        project.fixAgentsSrc();
+        mas.setProject(project);
+        mas.endPhase("project");
+        if (remoteServices) {
+            mas.startRemoteServices();
+        } else {
+            // Otherwise every agent would start the web mind inspector as it is created.
+            Config.get().setProperty(Config.START_WEB_MI, "false");
+        }
+        mas.createAndStart(remoteServices);
+        return mas;
+    }
+
+    private static SimulationLauncher launch(int numberOfAgents, String environmentParameters, boolean virtualThreads) throws IOException, JasonException{
+        mas = new SimulationLauncher(virtualThreads);
+        mas.beginPhase();
+        String result = String.format(MAS_CONTENT, environmentParameters, numberOfAgents);
         File f = new File(NEW_FILE_NAME);
         f.getParentFile().mkdirs();
         f.createNewFile();
@@ -72,13 +399,43 @@ public class SimulationLauncher extends RunLocalMAS{
             e.printStackTrace();
         }
         
-        mas = new SimulationLauncher();
         mas.init(new String[]{NEW_FILE_NAME});
-        mas.registerMBean();
-        mas.registerInRMI();
-        mas.registerWebMindInspector();
-        mas.create();
-        mas.start();
+        mas.endPhase("project");
+        mas.startRemoteServices();
+        mas.createAndStart(true);
         return mas;
     }
+
+    private void startRemoteServices(){
+        this.beginPhase();
+        this.registerMBean();
+        this.endPhase("mbean");
+        this.beginPhase();
+        this.registerInRMI();
+        this.endPhase("rmi");
+        this.beginPhase();
+        this.registerWebMindInspector();
+        this.endPhase("mind inspector");
+    }
+
+    private void createAndStart(boolean remoteServices) throws JasonException{
+        if (this.virtualThreads) {
+            this.checkVirtualThreadsSupported();
+        }
+        if (remoteServices || SimulationMetrics.isEnabled()) {
+            this.beginPhase();
+            // Along with the remote services, the bean lets the metrics be turned on while the simulation runs.
+            SimulationMetrics.registerMBean();
+            if (SimulationMetrics.isEnabled()) {
+                SimulationMetrics.logPeriodically(Long.getLong(SimulationMetrics.LOG_PERIOD_PROPERTY, 0));
+            }
+            this.endPhase("metrics");
+        }
+        this.beginPhase();
+        this.create();
+        this.endPhase("create");
+        this.beginPhase();
+        this.start();
+        this.endPhase("start");
+    }
 }
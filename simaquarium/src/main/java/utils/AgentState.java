@@ -0,0 +1,268 @@
+package utils;
+
+import static utils.Utils.termToDouble;
+
+import env.model.Position;
+import env.model.Vector2D;
+import jason.NoValueException;
+import jason.RevisionFailedException;
+import jason.asSemantics.Agent;
+import jason.asSemantics.TransitionSystem;
+import jason.asSemantics.Unifier;
+import jason.asSyntax.ASSyntax;
+import jason.asSyntax.Literal;
+
+/**
+ * The `AgentState` class keeps the beliefs the internal actions of a fish work with — direction, target, energy,
+ * weight and half size — as primitives, so they are neither looked up nor parsed at every `!step`.
+ * The state is the reference: it is loaded from the belief base once, then the beliefs are written from it.
+ * `has_target` and `energy` are written as soon as they change, since plans read them; `direction` is only read
+ * through `utils.move_towards`, so it is written once per move by {@link #syncBeliefs(Agent)}.
+ * The throttle chosen by `utils.steer` is kept here too, though no belief holds it.
+ * A state is held by its {@link FishAgent} and only used by the reasoning cycle of that agent.
+ */
+public final class AgentState {
+    static final String DIRECTION = "direction";
+    static final String HAS_TARGET = "has_target";
+    static final String ENERGY = "energy";
+    static final String WEIGHT = "weight";
+    static final String HALF_SIZE = "half_size";
+    private static final Literal DIRECTION_PATTERN = Literal.parseLiteral("direction(_, _)");
+    private static final Literal HAS_TARGET_PATTERN = Literal.parseLiteral("has_target(_, _)");
+    private static final Literal ENERGY_PATTERN = Literal.parseLiteral("energy(_, _)");
+    private static final Literal WEIGHT_PATTERN = Literal.parseLiteral("weight(_)");
+    private static final Literal HALF_SIZE_PATTERN = Literal.parseLiteral("half_size(_)");
+
+    private final Agent owner;
+    private double directionX = 1;
+    private double directionY;
+    private boolean directionChanged;
+    private Literal directionBelief;
+    private double throttle = 1;
+    private boolean hasTarget;
+    private double targetX;
+    private double targetY;
+    private Literal targetBelief;
+    private double energy;
+    private double maxEnergy;
+    private Literal energyBelief;
+    private double weight;
+    private double halfSize;
+
+    private AgentState(Agent owner) {
+        this.owner = owner;
+    }
+
+    /**
+     * Retrieves the state of the agent running the given reasoning cycle, loading it from its beliefs the first time.
+     *
+     * @param ts The reasoning cycle of the agent.
+     * @return The state of the agent.
+     * @throws IllegalStateException If the agent is not a {@link FishAgent}.
+     */
+    public static AgentState of(TransitionSystem ts) {
+        if (!(ts.getAg() instanceof FishAgent agent)) {
+            throw new IllegalStateException("The internal actions of a fish need a " + FishAgent.class.getName()
+                + ", not a " + ts.getAg().getClass().getName());
+        }
+        return agent.getState();
+    }
+
+    /**
+     * Loads the state of an agent from its beliefs.
+     *
+     * @param agent The agent.
+     * @return The state of the agent.
+     */
+    static AgentState load(Agent agent) {
+        AgentState state = new AgentState(agent);
+        state.load();
+        return state;
+    }
+
+    private void load() {
+        Agent agent = this.owner;
+        Unifier un = new Unifier();
+        this.directionBelief = agent.findBel(DIRECTION_PATTERN, un);
+        this.targetBelief = agent.findBel(HAS_TARGET_PATTERN, un);
+        this.energyBelief = agent.findBel(ENERGY_PATTERN, un);
+        Literal weightBelief = agent.findBel(WEIGHT_PATTERN, un);
+        Literal halfSizeBelief = agent.findBel(HALF_SIZE_PATTERN, un);
+        try {
+            if (this.directionBelief != null) {
+                this.directionX = termToDouble(this.directionBelief.getTerm(0));
+                this.directionY = termToDouble(this.directionBelief.getTerm(1));
+            }
+            if (this.targetBelief != null) {
+                this.hasTarget = true;
+                this.targetX = termToDouble(this.targetBelief.getTerm(0));
+                this.targetY = termToDouble(this.targetBelief.getTerm(1));
+            }
+            if (this.energyBelief != null) {
+                this.energy = termToDouble(this.energyBelief.getTerm(0));
+                this.maxEnergy = termToDouble(this.energyBelief.getTerm(1));
+            }
+            if (weightBelief != null) {
+                this.weight = termToDouble(weightBelief.getTerm(0));
+            }
+            if (halfSizeBelief != null) {
+                this.halfSize = termToDouble(halfSizeBelief.getTerm(0));
+            }
+        } catch (NoValueException e) {
+            throw new IllegalStateException("Malformed belief of " + this.owner.getTS().getAgArch().getAgName(), e);
+        }
+    }
+
+    /**
+     * Sets the body and the energy of a new fish, and adds the matching `weight`, `half_size` and `energy` beliefs.
+     *
+     * @param agent The agent.
+     * @param weight The weight of the fish.
+     * @param halfSize The half size of the fish.
+     * @param energy The initial energy of the fish, also its maximum energy.
+     * @throws RevisionFailedException If the beliefs cannot be added.
+     */
+    public void init(Agent agent, double weight, double halfSize, double energy) throws RevisionFailedException {
+        this.weight = weight;
+        this.halfSize = halfSize;
+        agent.addBel(ASSyntax.createLiteral(WEIGHT, ASSyntax.createNumber(weight)));
+        agent.addBel(ASSyntax.createLiteral(HALF_SIZE, ASSyntax.createNumber(halfSize)));
+        this.maxEnergy = energy;
+        this.setEnergy(agent, energy);
+    }
+
+    public Vector2D getDirection() {
+        return Vector2D.of(this.directionX, this.directionY);
+    }
+
+    public double getDirectionX() {
+        return this.directionX;
+    }
+
+    public double getDirectionY() {
+        return this.directionY;
+    }
+
+    /**
+     * Sets the direction of the fish. The `direction` belief is only updated by {@link #syncBeliefs(Agent)}.
+     *
+     * @param direction The new direction.
+     */
+    public void setDirection(Vector2D direction) {
+        this.setDirection(direction.getX(), direction.getY());
+    }
+
+    public void setDirection(double x, double y) {
+        this.directionX = x;
+        this.directionY = y;
+        this.directionChanged = true;
+    }
+
+    public double getThrottle() {
+        return this.throttle;
+    }
+
+    /**
+     * Sets the fraction of its speed the fish swims at, below 1 when the velocity avoidance slows it down. The
+     * direction keeps the heading, so that the fish resumes it once it may speed up again.
+     *
+     * @param throttle The fraction, between 0 and 1.
+     */
+    public void setThrottle(double throttle) {
+        this.throttle = throttle;
+    }
+
+    public boolean hasTarget() {
+        return this.hasTarget;
+    }
+
+    /**
+     * Retrieves the position of the target relative to the fish.
+     *
+     * @return The target, or null if the fish has none.
+     */
+    public Position getTarget() {
+        return this.hasTarget ? new Position(this.targetX, this.targetY) : null;
+    }
+
+    /**
+     * Sets the target of the fish and replaces its `has_target` belief.
+     *
+     * @param agent The agent.
+     * @param x The x-coordinate of the target, relative to the fish.
+     * @param y The y-coordinate of the target, relative to the fish.
+     * @throws RevisionFailedException If the belief cannot be replaced.
+     */
+    public void setTarget(Agent agent, double x, double y) throws RevisionFailedException {
+        this.clearTarget(agent);
+        this.hasTarget = true;
+        this.targetX = x;
+        this.targetY = y;
+        this.targetBelief = ASSyntax.createLiteral(HAS_TARGET, ASSyntax.createNumber(x), ASSyntax.createNumber(y));
+        agent.addBel(this.targetBelief);
+    }
+
+    /**
+     * Removes the target of the fish and its `has_target` belief, if any.
+     *
+     * @param agent The agent.
+     * @throws RevisionFailedException If the belief cannot be removed.
+     */
+    public void clearTarget(Agent agent) throws RevisionFailedException {
+        if (this.targetBelief != null) {
+            agent.delBel(this.targetBelief);
+            this.targetBelief = null;
+        }
+        this.hasTarget = false;
+    }
+
+    public double getEnergy() {
+        return this.energy;
+    }
+
+    public double getMaxEnergy() {
+        return this.maxEnergy;
+    }
+
+    /**
+     * Sets the energy of the fish and replaces its `energy` belief.
+     *
+     * @param agent The agent.
+     * @param energy The new energy.
+     * @throws RevisionFailedException If the belief cannot be replaced.
+     */
+    public void setEnergy(Agent agent, double energy) throws RevisionFailedException {
+        if (this.energyBelief != null) {
+            agent.delBel(this.energyBelief);
+        }
+        this.energy = energy;
+        this.energyBelief = ASSyntax.createLiteral(ENERGY, ASSyntax.createNumber(energy), ASSyntax.createNumber(this.maxEnergy));
+        agent.addBel(this.energyBelief);
+    }
+
+    public double getWeight() {
+        return this.weight;
+    }
+
+    public double getHalfSize() {
+        return this.halfSize;
+    }
+
+    /**
+     * Writes the beliefs that are updated lazily, i.e. the `direction` belief if the direction changed.
+     *
+     * @param agent The agent.
+     * @throws RevisionFailedException If the belief cannot be replaced.
+     */
+    public void syncBeliefs(Agent agent) throws RevisionFailedException {
+        if (!this.directionChanged) {
+            return;
+        }
+        if (this.directionBelief != null) {
+            agent.delBel(this.directionBelief);
+        }
+        this.directionBelief = ASSyntax.createLiteral(DIRECTION, ASSyntax.createNumber(this.directionX), ASSyntax.createNumber(this.directionY));
+        agent.addBel(this.directionBelief);
+        this.directionChanged = false;
+    }
+}
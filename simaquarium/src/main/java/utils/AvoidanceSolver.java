@@ -0,0 +1,372 @@
+package utils;
+
+import java.util.Arrays;
+
+import env.model.Vector2D;
+
+/**
+ * The `AvoidanceSolver` class computes in closed form the heading closest to the current one that does not lead a
+ * fish into an obstacle.
+ * Seen from the fish, an obstacle blocks every heading within asin((radius + half size) / distance) of its bearing,
+ * i.e. up to its tangents: the free headings are the complement of these intervals, and the closest one to the
+ * current heading is either the heading itself or the edge of one of the intervals. Checking each of these
+ * candidates against every interval bounds the cost to O(n²) on the n obstacles a fish perceives, with no iteration.
+ * Moving neighbours are handled like in ORCA (optimal reciprocal collision avoidance) by {@link #solveVelocity}:
+ * each neighbour and each obstacle restricts the velocity of the fish to half-planes, and the velocity closest to
+ * the preferred one within all of them is found by an incremental linear program, which may slow the fish down.
+ * Positions are relative to the fish.
+ */
+public final class AvoidanceSolver {
+    /** How far past a tangent the chosen heading is, so that it does not graze the obstacle. */
+    static final double MARGIN = 1e-6;
+    /** How many ticks ahead collisions with neighbours are avoided. */
+    public static final double TIME_HORIZON = 10;
+    /** How many ticks ahead collisions with obstacles are avoided by {@link #solveVelocity}. */
+    public static final double OBSTACLE_TIME_HORIZON = 2;
+    private static final double EPSILON = 1e-9;
+
+    private final double halfSize;
+    private boolean hasTarget;
+    private double targetX;
+    private double targetY;
+    private double[] bearings = new double[8];
+    private double[] halfWidths = new double[8];
+    private int count;
+    private double[] obstacles = new double[3 * 8];
+    private int obstacleCount;
+    private double[] lines = new double[4 * 8];
+    private int lineCount;
+    private double fleeX;
+    private double fleeY;
+    private double fleeDistance = Double.POSITIVE_INFINITY;
+
+    /**
+     * Constructs a solver for a fish of the given half size, without obstacles.
+     *
+     * @param halfSize The half size of the fish, added to the radius of every obstacle.
+     */
+    public AvoidanceSolver(double halfSize) {
+        this.halfSize = halfSize;
+    }
+
+    /**
+     * Sets the food the fish is heading to: obstacles behind it are ignored.
+     *
+     * @param x The x-coordinate of the target.
+     * @param y The y-coordinate of the target.
+     */
+    public void setTarget(double x, double y) {
+        this.hasTarget = true;
+        this.targetX = x;
+        this.targetY = y;
+    }
+
+    /**
+     * Adds an obstacle.
+     *
+     * @param x The x-coordinate of its center.
+     * @param y The y-coordinate of its center.
+     * @param radius Its radius.
+     */
+    public void addObstacle(double x, double y, double radius) {
+        double distance = Math.hypot(x, y);
+        if (distance < radius) {
+            // The fish is inside: it flees the closest such obstacle, whatever its heading.
+            if (distance < this.fleeDistance) {
+                this.fleeDistance = distance;
+                this.fleeX = -x;
+                this.fleeY = -y;
+            }
+            return;
+        }
+        if (this.hasTarget && this.isTargetInFrontOf(x, y, radius, distance)) {
+            return;
+        }
+        double reach = radius + this.halfSize;
+        this.addBlockedInterval(Math.atan2(y, x), distance <= reach ? Math.PI / 2 : Math.asin(reach / distance));
+        if (this.obstacleCount * 3 == this.obstacles.length) {
+            this.obstacles = Arrays.copyOf(this.obstacles, this.obstacles.length * 2);
+        }
+        this.obstacles[this.obstacleCount * 3] = x;
+        this.obstacles[this.obstacleCount * 3 + 1] = y;
+        this.obstacles[this.obstacleCount * 3 + 2] = reach;
+        this.obstacleCount++;
+    }
+
+    /**
+     * Adds a moving neighbour, to be avoided for {@link #TIME_HORIZON} ticks by {@link #solveVelocity}. Unlike in
+     * ORCA, the fish takes the whole effort rather than half of it, since the neighbour may not perceive it.
+     * Each half-plane of allowed velocities is {v : (v - (velocity + u)) · n >= 0}, where u is the smallest change
+     * of the relative velocity that leaves the velocity obstacle and n its direction. The neighbour gives two of
+     * them, one as if it stayed where it is and one as if it kept its velocity, since it may well change it during
+     * the tick; the first one comes first, so that it is the one kept when they cannot both be met.
+     * Neighbours should be added from the closest one, since the ones that cannot be avoided with the closer
+     * ones are given up.
+     *
+     * @param x The x-coordinate of the neighbour.
+     * @param y The y-coordinate of the neighbour.
+     * @param radius The radius of the neighbour.
+     * @param vx The x-component of the velocity of the neighbour, per tick.
+     * @param vy The y-component of the velocity of the neighbour, per tick.
+     * @param velocity The current velocity of the fish, per tick.
+     */
+    public void addNeighbour(double x, double y, double radius, double vx, double vy, Vector2D velocity) {
+        this.addNeighbourLine(x, y, radius, 0, 0, velocity);
+        this.addNeighbourLine(x, y, radius, vx, vy, velocity);
+    }
+
+    private void addNeighbourLine(double x, double y, double radius, double vx, double vy, Vector2D velocity) {
+        if (this.lineCount * 4 == this.lines.length) {
+            this.lines = Arrays.copyOf(this.lines, this.lines.length * 2);
+        }
+        if (orcaLine(x, y, radius + this.halfSize, velocity.getX() - vx, velocity.getY() - vy, TIME_HORIZON, this.lines, this.lineCount * 4)) {
+            this.lines[this.lineCount * 4] += velocity.getX();
+            this.lines[this.lineCount * 4 + 1] += velocity.getY();
+            this.lineCount++;
+        }
+    }
+
+    /**
+     * Computes the ORCA half-plane of the velocities avoiding a disc for a number of ticks, with the whole effort.
+     *
+     * @param out Where to store u, the change of the relative velocity to the closest point of the border of the
+     *            velocity obstacle, then n, the normal of the half-plane pointing to the allowed side.
+     * @return False if the relative velocity leads straight to the center of an overlapping disc, which gives no
+     *         direction to get apart.
+     */
+    private static boolean orcaLine(double x, double y, double combinedRadius, double relativeVx, double relativeVy,
+            double timeHorizon, double[] out, int at) {
+        double distanceSq = x * x + y * y;
+        double combinedRadiusSq = combinedRadius * combinedRadius;
+        double nx;
+        double ny;
+        double ux;
+        double uy;
+        if (distanceSq > combinedRadiusSq) {
+            // Vector from the center of the cut-off circle of the velocity obstacle to the relative velocity.
+            double wx = relativeVx - x / timeHorizon;
+            double wy = relativeVy - y / timeHorizon;
+            double wLengthSq = wx * wx + wy * wy;
+            double dot = wx * x + wy * y;
+            if (dot < 0 && dot * dot > combinedRadiusSq * wLengthSq) {
+                // Closest to the cut-off circle.
+                double wLength = Math.sqrt(wLengthSq);
+                nx = wx / wLength;
+                ny = wy / wLength;
+                double shift = combinedRadius / timeHorizon - wLength;
+                ux = shift * nx;
+                uy = shift * ny;
+            } else {
+                // Closest to one of the legs of the cone.
+                double leg = Math.sqrt(distanceSq - combinedRadiusSq);
+                double lineX;
+                double lineY;
+                if (x * wy - y * wx > 0) {
+                    lineX = (x * leg - y * combinedRadius) / distanceSq;
+                    lineY = (x * combinedRadius + y * leg) / distanceSq;
+                } else {
+                    lineX = -(x * leg + y * combinedRadius) / distanceSq;
+                    lineY = -(-x * combinedRadius + y * leg) / distanceSq;
+                }
+                double projection = relativeVx * lineX + relativeVy * lineY;
+                ux = projection * lineX - relativeVx;
+                uy = projection * lineY - relativeVy;
+                nx = -lineY;
+                ny = lineX;
+            }
+        } else {
+            // Already overlapping: get apart within the next tick.
+            double wx = relativeVx - x;
+            double wy = relativeVy - y;
+            double wLength = Math.hypot(wx, wy);
+            if (wLength == 0) {
+                return false;
+            }
+            nx = wx / wLength;
+            ny = wy / wLength;
+            double shift = combinedRadius - wLength;
+            ux = shift * nx;
+            uy = shift * ny;
+        }
+        out[at] = ux;
+        out[at + 1] = uy;
+        out[at + 2] = nx;
+        out[at + 3] = ny;
+        return true;
+    }
+
+    private boolean isTargetInFrontOf(double x, double y, double radius, double distance) {
+        return Math.hypot(this.targetX, this.targetY) < distance && Math.hypot(x - this.targetX, y - this.targetY) >= radius;
+    }
+
+    /**
+     * Blocks the headings within an angle of a bearing.
+     *
+     * @param bearing The absolute angle of the center of the interval, in radians.
+     * @param halfWidth Half the angular width of the interval, in radians.
+     */
+    public void addBlockedInterval(double bearing, double halfWidth) {
+        if (this.count == this.bearings.length) {
+            this.bearings = Arrays.copyOf(this.bearings, this.count * 2);
+            this.halfWidths = Arrays.copyOf(this.halfWidths, this.count * 2);
+        }
+        this.bearings[this.count] = bearing;
+        this.halfWidths[this.count] = halfWidth;
+        this.count++;
+    }
+
+    /**
+     * Computes the new direction of the fish, keeping clear of the obstacles only.
+     *
+     * @param direction The current direction of the fish.
+     * @return The direction away from the closest obstacle the fish is inside, or else the current direction
+     *         rotated by the smallest angle that leaves every obstacle aside, or else the opposite direction.
+     *         Its length is the length of the current direction.
+     */
+    public Vector2D solve(Vector2D direction) {
+        if (this.fleeDistance != Double.POSITIVE_INFINITY) {
+            return this.flee(direction);
+        }
+        double heading = direction.angle();
+        if (this.isFree(heading)) {
+            return direction;
+        }
+        // The candidates are the rotations that bring the heading just past either edge of an interval.
+        double best = Double.NaN;
+        for (int i = 0; i < this.count; i++) {
+            double left = wrap(this.bearings[i] + this.halfWidths[i] + MARGIN - heading);
+            double right = wrap(this.bearings[i] - this.halfWidths[i] - MARGIN - heading);
+            if ((Double.isNaN(best) || Math.abs(left) < Math.abs(best)) && this.isFree(heading + left)) {
+                best = left;
+            }
+            if ((Double.isNaN(best) || Math.abs(right) < Math.abs(best)) && this.isFree(heading + right)) {
+                best = right;
+            }
+        }
+        return direction.rotateBy(Double.isNaN(best) ? Math.PI : best);
+    }
+
+    /**
+     * Computes the new velocity of the fish, keeping clear of the obstacles for {@link #OBSTACLE_TIME_HORIZON} ticks
+     * and of the neighbours for {@link #TIME_HORIZON} ticks. The constraints are added one at a time, obstacles
+     * first: while the velocity meets a constraint it is kept, otherwise it moves to the point of the border of the
+     * half-plane closest to the preferred velocity that still meets the previous constraints. A neighbour that cannot
+     * be avoided this way is given up rather than relaxing all of them, and so is everything after an obstacle that
+     * cannot, which keeps the cost to one pass over the previous constraints per neighbour.
+     *
+     * @param preferred The velocity the fish would like to have, whose length is its top speed.
+     * @param velocity The current velocity of the fish, per tick.
+     * @return The velocity away from the closest obstacle the fish is inside, at its top speed, or else the
+     *         velocity closest to the preferred one that meets the constraints, shorter when the fish must slow down.
+     */
+    public Vector2D solveVelocity(Vector2D preferred, Vector2D velocity) {
+        if (this.fleeDistance != Double.POSITIVE_INFINITY) {
+            return this.flee(preferred);
+        }
+        double maxSpeed = preferred.getLength();
+        double[] constraints = new double[(this.obstacleCount + this.lineCount) * 4];
+        int total = 0;
+        for (int i = 0; i < this.obstacleCount; i++) {
+            double x = this.obstacles[i * 3];
+            double y = this.obstacles[i * 3 + 1];
+            if (orcaLine(x, y, this.obstacles[i * 3 + 2], velocity.getX(), velocity.getY(), OBSTACLE_TIME_HORIZON, constraints, total * 4)) {
+                constraints[total * 4] += velocity.getX();
+                constraints[total * 4 + 1] += velocity.getY();
+                total++;
+            }
+        }
+        int obstacleLines = total;
+        System.arraycopy(this.lines, 0, constraints, total * 4, this.lineCount * 4);
+        total += this.lineCount;
+
+        double[] result = {preferred.getX(), preferred.getY()};
+        int kept = 0;
+        for (int i = 0; i < total; i++) {
+            System.arraycopy(constraints, i * 4, constraints, kept * 4, 4);
+            if (isViolated(constraints, kept, result) && !project(constraints, kept, maxSpeed, preferred, result)) {
+                if (i < obstacleLines) {
+                    break;
+                }
+                continue;
+            }
+            kept++;
+        }
+        return Vector2D.of(result[0], result[1]);
+    }
+
+    private static boolean isViolated(double[] lines, int line, double[] velocity) {
+        int at = line * 4;
+        return (velocity[0] - lines[at]) * lines[at + 2] + (velocity[1] - lines[at + 1]) * lines[at + 3] < 0;
+    }
+
+    /**
+     * Moves a velocity to the point of the border of a half-plane closest to the preferred velocity, within the
+     * top speed and the half-planes before it.
+     *
+     * @return False, leaving the velocity as it is, if no such point exists.
+     */
+    private static boolean project(double[] lines, int line, double maxSpeed, Vector2D preferred, double[] velocity) {
+        int at = line * 4;
+        double pointX = lines[at];
+        double pointY = lines[at + 1];
+        // The border runs along (ny, -nx), with the allowed side on its left.
+        double dirX = lines[at + 3];
+        double dirY = -lines[at + 2];
+        double dot = pointX * dirX + pointY * dirY;
+        double discriminant = dot * dot + maxSpeed * maxSpeed - (pointX * pointX + pointY * pointY);
+        if (discriminant < 0) {
+            return false;
+        }
+        double root = Math.sqrt(discriminant);
+        double from = -dot - root;
+        double to = -dot + root;
+        for (int i = 0; i < line; i++) {
+            int other = i * 4;
+            double otherDirX = lines[other + 3];
+            double otherDirY = -lines[other + 2];
+            double denominator = dirX * otherDirY - dirY * otherDirX;
+            double numerator = otherDirX * (pointY - lines[other + 1]) - otherDirY * (pointX - lines[other]);
+            if (Math.abs(denominator) <= EPSILON) {
+                if (numerator < 0) {
+                    return false;
+                }
+                continue;
+            }
+            double t = numerator / denominator;
+            if (denominator >= 0) {
+                to = Math.min(to, t);
+            } else {
+                from = Math.max(from, t);
+            }
+            if (from > to) {
+                return false;
+            }
+        }
+        double t = Math.max(from, Math.min(to, dirX * (preferred.getX() - pointX) + dirY * (preferred.getY() - pointY)));
+        velocity[0] = pointX + t * dirX;
+        velocity[1] = pointY + t * dirY;
+        return true;
+    }
+
+    private Vector2D flee(Vector2D direction) {
+        return this.fleeDistance == 0
+            ? direction.rotateBy(Math.PI)
+            : Vector2D.of(this.fleeX, this.fleeY).normalize().times(direction.getLength());
+    }
+
+    private boolean isFree(double heading) {
+        for (int i = 0; i < this.count; i++) {
+            if (Math.abs(wrap(heading - this.bearings[i])) <= this.halfWidths[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Brings an angle into [-π, π].
+     */
+    static double wrap(double angle) {
+        return Math.IEEEremainder(angle, 2 * Math.PI);
+    }
+}
@@ -0,0 +1,24 @@
+package utils;
+
+import jason.asSemantics.Agent;
+
+/**
+ * The `FishAgent` class is the Jason agent of a fish. It holds the {@link AgentState} its internal actions work with,
+ * so that the state lives and dies with the agent, and two agents never share one even if they have the same name.
+ */
+public class FishAgent extends Agent {
+    private AgentState state;
+
+    /**
+     * Retrieves the state of the fish, loading it from its beliefs the first time.
+     * Only called by the reasoning cycle of the agent.
+     *
+     * @return The state of the fish.
+     */
+    AgentState getState() {
+        if (this.state == null) {
+            this.state = AgentState.load(this);
+        }
+        return this.state;
+    }
+}
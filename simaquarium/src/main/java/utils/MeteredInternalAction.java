@@ -0,0 +1,30 @@
+package utils;
+
+import jason.asSemantics.DefaultInternalAction;
+import jason.asSemantics.TransitionSystem;
+import jason.asSemantics.Unifier;
+import jason.asSyntax.Term;
+
+/**
+ * The `MeteredInternalAction` class is the base of the internal actions of the simulation. It times every execution
+ * in the {@link SimulationMetrics} under "utils.&lt;action name&gt;", and leaves the work itself to
+ * {@link #doExecute(TransitionSystem, Unifier, Term[])}.
+ */
+public abstract class MeteredInternalAction extends DefaultInternalAction {
+    private final SimulationMetrics.Timer timer = SimulationMetrics.timer("utils." + this.getClass().getSimpleName());
+
+    @Override
+    public final Object execute(TransitionSystem ts, Unifier un, Term[] args) throws Exception {
+        long start = SimulationMetrics.start();
+        try {
+            return this.doExecute(ts, un, args);
+        } finally {
+            this.timer.stop(start);
+        }
+    }
+
+    /**
+     * Executes the internal action, as `execute` does for any Jason internal action.
+     */
+    protected abstract Object doExecute(TransitionSystem ts, Unifier un, Term[] args) throws Exception;
+}
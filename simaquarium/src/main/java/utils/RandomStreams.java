@@ -0,0 +1,91 @@
+package utils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The `RandomStreams` class hands out independent random streams derived from a single seed.
+ * Each stream is identified by a key (an agent name, "environment", ...) and its sequence only depends on the seed
+ * and on the key, never on which thread asks for it first: two runs with the same seed draw the same numbers.
+ * Streams are not thread-safe: a keyed stream must only be used by the thread owning that key, which also means
+ * threads never contend on a shared generator.
+ */
+public class RandomStreams {
+    public static final String ENVIRONMENT = "environment";
+    public static final String ENGINE = "engine";
+    public static final String VIEW = "view";
+
+    private static volatile RandomStreams current = new RandomStreams(new SplittableRandom().nextLong());
+
+    private final long seed;
+    private final Map<String, SplittableRandom> streams = new ConcurrentHashMap<>();
+
+    /**
+     * Constructs the streams derived from the given seed.
+     *
+     * @param seed The seed of the whole simulation.
+     */
+    public RandomStreams(long seed) {
+        this.seed = seed;
+    }
+
+    /**
+     * Retrieves the streams of the running simulation.
+     *
+     * @return The current streams.
+     */
+    public static RandomStreams current() {
+        return current;
+    }
+
+    /**
+     * Sets the streams of the running simulation.
+     *
+     * @param streams The new current streams.
+     */
+    public static void setCurrent(RandomStreams streams) {
+        current = streams;
+    }
+
+    /**
+     * Retrieves the seed the streams are derived from.
+     *
+     * @return The seed.
+     */
+    public long getSeed() {
+        return this.seed;
+    }
+
+    /**
+     * Retrieves the stream of a key, created on first use and then shared by every later call.
+     *
+     * @param key The key of the stream, e.g. the name of an agent.
+     * @return The stream of the key.
+     */
+    public SplittableRandom forKey(String key) {
+        return this.streams.computeIfAbsent(key, this::fresh);
+    }
+
+    /**
+     * Creates a new stream for a key, starting from the beginning of its sequence. Useful for one-off draws
+     * (e.g. the sink speed of a piece of food) that should not be remembered.
+     *
+     * @param key The key of the stream.
+     * @return A new stream for the key.
+     */
+    public SplittableRandom fresh(String key) {
+        long hash = 1125899906842597L;
+        for (byte b : key.getBytes(StandardCharsets.UTF_8)) {
+            hash = 31 * hash + b;
+        }
+        return new SplittableRandom(mix(this.seed ^ mix(hash)));
+    }
+
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+}
@@ -0,0 +1,308 @@
+package utils;
+
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+import java.util.logging.Logger;
+
+import javax.management.InstanceAlreadyExistsException;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * The `SimulationMetrics` class collects counters, timers and gauges about the hot paths of the simulation, and
+ * exposes them through a JMX bean and a periodic log dump.
+ * It is disabled unless the `simaquarium.metrics` system property is true or {@link #setEnabled(boolean)} is called:
+ * while disabled, {@link #start()} does not read the clock and recording returns right away, so instrumented code
+ * only pays a volatile read.
+ * Timers keep a histogram with one bucket per power of two nanoseconds, from which percentiles are estimated.
+ */
+public final class SimulationMetrics {
+    public static final String ENABLED_PROPERTY = "simaquarium.metrics";
+    public static final String LOG_PERIOD_PROPERTY = "simaquarium.metrics.logSeconds";
+    public static final String OBJECT_NAME = "simaquarium:type=SimulationMetrics";
+
+    private static final Logger LOGGER = Logger.getLogger(SimulationMetrics.class.getName());
+    private static final Map<String, Counter> COUNTERS = new ConcurrentHashMap<>();
+    private static final Map<String, Timer> TIMERS = new ConcurrentHashMap<>();
+    private static final Map<String, LongSupplier> GAUGES = new ConcurrentHashMap<>();
+    private static volatile boolean enabled = Boolean.getBoolean(ENABLED_PROPERTY);
+    private static ScheduledExecutorService logger;
+    private static ScheduledFuture<?> logging;
+
+    private SimulationMetrics() {
+    }
+
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Enables or disables the recording of counters and timers. Gauges are read on demand and always available.
+     *
+     * @param enabled True to record.
+     */
+    public static void setEnabled(boolean enabled) {
+        SimulationMetrics.enabled = enabled;
+    }
+
+    /**
+     * Retrieves the counter with the given name, creating it on first use.
+     *
+     * @param name The name of the counter, e.g. "model.eat.lost".
+     * @return The counter.
+     */
+    public static Counter counter(String name) {
+        Counter counter = COUNTERS.get(name);
+        return counter != null ? counter : COUNTERS.computeIfAbsent(name, k -> new Counter());
+    }
+
+    /**
+     * Retrieves the timer with the given name, creating it on first use.
+     *
+     * @param name The name of the timer, e.g. "env.getPercepts".
+     * @return The timer.
+     */
+    public static Timer timer(String name) {
+        Timer timer = TIMERS.get(name);
+        return timer != null ? timer : TIMERS.computeIfAbsent(name, k -> new Timer());
+    }
+
+    /**
+     * Registers a gauge, replacing any gauge with the same name.
+     *
+     * @param name The name of the gauge, e.g. "model.fish".
+     * @param value The function reading the current value.
+     */
+    public static void gauge(String name, LongSupplier value) {
+        GAUGES.put(name, value);
+    }
+
+    public static void removeGauge(String name) {
+        GAUGES.remove(name);
+    }
+
+    /**
+     * Starts timing an operation, to be ended with {@link Timer#stop(long)}.
+     *
+     * @return The current time in nanoseconds, or 0 when disabled.
+     */
+    public static long start() {
+        return enabled ? System.nanoTime() : 0;
+    }
+
+    /**
+     * Resets every counter and timer.
+     */
+    public static void reset() {
+        COUNTERS.values().forEach(Counter::reset);
+        TIMERS.values().forEach(Timer::reset);
+    }
+
+    static Map<String, Long> counters() {
+        Map<String, Long> counters = new TreeMap<>();
+        COUNTERS.forEach((name, counter) -> counters.put(name, counter.getCount()));
+        return counters;
+    }
+
+    static Map<String, Long> gauges() {
+        Map<String, Long> gauges = new TreeMap<>();
+        GAUGES.forEach((name, gauge) -> gauges.put(name, gauge.getAsLong()));
+        return gauges;
+    }
+
+    static Map<String, TimerStatistics> timers() {
+        Map<String, TimerStatistics> timers = new TreeMap<>();
+        TIMERS.forEach((name, timer) -> timers.put(name, timer.statistics()));
+        return timers;
+    }
+
+    /**
+     * Formats every metric, one per line and sorted by name.
+     *
+     * @return The report.
+     */
+    public static String report() {
+        StringBuilder report = new StringBuilder();
+        gauges().forEach((name, value) -> report.append(name).append(" = ").append(value).append('\n'));
+        counters().forEach((name, value) -> report.append(name).append(": ").append(value).append('\n'));
+        timers().forEach((name, timer) -> report.append(name).append(": ").append(timer).append('\n'));
+        return report.toString();
+    }
+
+    /**
+     * Registers the JMX bean of the metrics in the platform MBean server, under {@link #OBJECT_NAME}, unless it
+     * already is.
+     */
+    public static void registerMBean() {
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        try {
+            server.registerMBean(new Bean(), new ObjectName(OBJECT_NAME));
+        } catch (InstanceAlreadyExistsException e) {
+            // Registered by an earlier simulation in this JVM.
+        } catch (JMException e) {
+            LOGGER.warning("Cannot register the metrics bean: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Logs the {@link #report()} periodically on a daemon thread, replacing any previous schedule.
+     *
+     * @param periodSeconds The period of the dump in seconds, or 0 to stop dumping.
+     */
+    public static synchronized void logPeriodically(long periodSeconds) {
+        if (logging != null) {
+            logging.cancel(false);
+            logging = null;
+        }
+        if (periodSeconds <= 0) {
+            return;
+        }
+        if (logger == null) {
+            logger = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread thread = new Thread(r, "simaquarium-metrics");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        logging = logger.scheduleAtFixedRate(() -> LOGGER.info("Simulation metrics\n" + report()),
+            periodSeconds, periodSeconds, TimeUnit.SECONDS);
+    }
+
+    /**
+     * The `Counter` class counts events, without contention between the threads incrementing it.
+     */
+    public static final class Counter {
+        private final LongAdder count = new LongAdder();
+
+        public void increment() {
+            if (enabled) {
+                this.count.increment();
+            }
+        }
+
+        public long getCount() {
+            return this.count.sum();
+        }
+
+        void reset() {
+            this.count.reset();
+        }
+    }
+
+    /**
+     * The `Timer` class records the count, total, maximum and distribution of the durations of an operation.
+     */
+    public static final class Timer {
+        private static final int BUCKETS = 64;
+
+        private final LongAdder count = new LongAdder();
+        private final LongAdder totalNanos = new LongAdder();
+        private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+        private final AtomicLongArray histogram = new AtomicLongArray(BUCKETS);
+
+        /**
+         * Records the duration of an operation started with {@link SimulationMetrics#start()}.
+         *
+         * @param start The value returned by `start`, 0 when the metrics were disabled.
+         */
+        public void stop(long start) {
+            if (start != 0) {
+                this.record(System.nanoTime() - start);
+            }
+        }
+
+        void record(long nanos) {
+            this.count.increment();
+            this.totalNanos.add(nanos);
+            this.maxNanos.accumulate(nanos);
+            this.histogram.incrementAndGet(bucket(nanos));
+        }
+
+        private static int bucket(long nanos) {
+            return nanos <= 0 ? 0 : BUCKETS - 1 - Long.numberOfLeadingZeros(nanos);
+        }
+
+        /**
+         * Estimates a percentile as the upper bound of the bucket it falls in, so within a factor of two.
+         */
+        long percentileNanos(double quantile) {
+            long[] counts = new long[BUCKETS];
+            long total = 0;
+            for (int i = 0; i < BUCKETS; i++) {
+                counts[i] = this.histogram.get(i);
+                total += counts[i];
+            }
+            long rank = (long) Math.ceil(quantile * total);
+            long seen = 0;
+            for (int i = 0; i < BUCKETS; i++) {
+                seen += counts[i];
+                if (seen >= rank && seen > 0) {
+                    return Math.min(this.maxNanos.get(), (2L << i) - 1);
+                }
+            }
+            return 0;
+        }
+
+        TimerStatistics statistics() {
+            return new TimerStatistics(this.count.sum(), this.totalNanos.sum(), this.maxNanos.get(),
+                this.percentileNanos(0.5), this.percentileNanos(0.99));
+        }
+
+        void reset() {
+            this.count.reset();
+            this.totalNanos.reset();
+            this.maxNanos.reset();
+            for (int i = 0; i < BUCKETS; i++) {
+                this.histogram.set(i, 0);
+            }
+        }
+    }
+
+    private static final class Bean implements SimulationMetricsMXBean {
+        @Override
+        public boolean isEnabled() {
+            return SimulationMetrics.isEnabled();
+        }
+
+        @Override
+        public void setEnabled(boolean enabled) {
+            SimulationMetrics.setEnabled(enabled);
+        }
+
+        @Override
+        public Map<String, Long> getCounters() {
+            return counters();
+        }
+
+        @Override
+        public Map<String, Long> getGauges() {
+            return gauges();
+        }
+
+        @Override
+        public Map<String, TimerStatistics> getTimers() {
+            return timers();
+        }
+
+        @Override
+        public void reset() {
+            SimulationMetrics.reset();
+        }
+
+        @Override
+        public String report() {
+            return SimulationMetrics.report();
+        }
+    }
+}
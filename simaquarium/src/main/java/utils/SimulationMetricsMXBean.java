@@ -0,0 +1,31 @@
+package utils;
+
+import java.util.Map;
+
+/**
+ * The `SimulationMetricsMXBean` interface is the JMX view of the {@link SimulationMetrics}, so they can be watched
+ * and toggled from JConsole or VisualVM while a simulation runs.
+ */
+public interface SimulationMetricsMXBean {
+
+    /** @return True if counters and timers are being recorded. */
+    boolean isEnabled();
+
+    /** @param enabled True to record counters and timers. */
+    void setEnabled(boolean enabled);
+
+    /** @return The value of every counter, by name. */
+    Map<String, Long> getCounters();
+
+    /** @return The current value of every gauge, by name. */
+    Map<String, Long> getGauges();
+
+    /** @return The statistics of every timer, by name. */
+    Map<String, TimerStatistics> getTimers();
+
+    /** Resets every counter and timer. */
+    void reset();
+
+    /** @return Every metric formatted one per line. */
+    String report();
+}
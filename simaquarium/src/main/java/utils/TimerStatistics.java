@@ -0,0 +1,62 @@
+package utils;
+
+import java.util.Locale;
+
+import javax.management.ConstructorParameters;
+
+/**
+ * The `TimerStatistics` class is an immutable summary of a {@link SimulationMetrics.Timer}. Its percentiles are
+ * estimated from a power-of-two histogram, so they are only accurate within a factor of two.
+ */
+public final class TimerStatistics {
+    private final long count;
+    private final long totalNanos;
+    private final long maxNanos;
+    private final long p50Nanos;
+    private final long p99Nanos;
+
+    @ConstructorParameters({"count", "totalNanos", "maxNanos", "p50Nanos", "p99Nanos"})
+    public TimerStatistics(long count, long totalNanos, long maxNanos, long p50Nanos, long p99Nanos) {
+        this.count = count;
+        this.totalNanos = totalNanos;
+        this.maxNanos = maxNanos;
+        this.p50Nanos = p50Nanos;
+        this.p99Nanos = p99Nanos;
+    }
+
+    public long getCount() {
+        return this.count;
+    }
+
+    public long getTotalNanos() {
+        return this.totalNanos;
+    }
+
+    public long getMaxNanos() {
+        return this.maxNanos;
+    }
+
+    public long getP50Nanos() {
+        return this.p50Nanos;
+    }
+
+    public long getP99Nanos() {
+        return this.p99Nanos;
+    }
+
+    /**
+     * Retrieves the mean duration.
+     *
+     * @return The mean in nanoseconds, 0 if nothing was recorded.
+     */
+    public double getMeanNanos() {
+        return this.count == 0 ? 0 : (double) this.totalNanos / this.count;
+    }
+
+    @Override
+    public String toString() {
+        return String.format(Locale.ROOT, "count=%d total=%.1fms mean=%.1fus p50<=%.1fus p99<=%.1fus max=%.1fus",
+            this.count, this.totalNanos / 1e6, this.getMeanNanos() / 1e3, this.p50Nanos / 1e3, this.p99Nanos / 1e3,
+            this.maxNanos / 1e3);
+    }
+}
@@ -1,7 +1,5 @@
 package utils;
 
-import java.util.Random;
-
 import env.model.Direction;
 import env.model.Pair;
 import env.model.Position;
@@ -20,13 +18,13 @@ import jason.asSyntax.Term;
  * These methods are used to perform common operations such as parsing terms,
  * converting between data types, and performing mathematical calculations.
  * 
- * The class also includes constants for random number generation, movement scaling,
- * and energy increase values.
+ * The class also includes constants for movement scaling and energy increase values.
  */
 public class Utils {
-    public static final Random RAND = new Random();
     public static final double MOVEMENT_MULTIPLIER = 1.0 / 200;
-    public static final double FOOD_ENERGY_INCREASE = 30.0;
+    public static final String FOOD_ENERGY_INCREASE_PROPERTY = "simaquarium.foodEnergyIncrease";
+    // Overridable per JVM, so that experiments can sweep it (see `launcher.ExperimentRunner`).
+    public static final double FOOD_ENERGY_INCREASE = Double.parseDouble(System.getProperty(FOOD_ENERGY_INCREASE_PROPERTY, "30.0"));
 
     /**
      * Converts a `Term` to a `ListTerm`.
@@ -0,0 +1,22 @@
+package utils;
+
+import static utils.Utils.termToDouble;
+
+import jason.asSemantics.TransitionSystem;
+import jason.asSemantics.Unifier;
+import jason.asSyntax.Term;
+
+/**
+ * The `add_energy` class is a custom internal action for agents in the simulation.
+ * It adds the given amount to the energy of the agent, e.g. after eating, and updates its `energy` belief.
+ * Unlike `-+energy(E + FE, ME)` in a plan, it starts from the current energy rather than from the energy the plan
+ * was selected with, so the moves made meanwhile are not forgotten.
+ */
+public class add_energy extends MeteredInternalAction {
+    @Override
+    protected Object doExecute(TransitionSystem ts, Unifier un, Term[] args) throws Exception {
+        AgentState state = AgentState.of(ts);
+        state.setEnergy(ts.getAg(), state.getEnergy() + termToDouble(args[0]));
+        return true;
+    }
+}
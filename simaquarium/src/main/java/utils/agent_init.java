@@ -1,29 +1,26 @@
 package utils;
 
 import jason.asSemantics.Agent;
-import jason.asSemantics.DefaultInternalAction;
 import jason.asSemantics.TransitionSystem;
 import jason.asSemantics.Unifier;
-import jason.asSyntax.Literal;
+import jason.asSyntax.ASSyntax;
 import jason.asSyntax.Term;
 
 /**
  * The `agent_init` class is a custom internal action for initializing an agent in the simulation.
  * It sets up the agent's initial beliefs, such as weight, size, energy, and food energy.
  */
-public class agent_init extends DefaultInternalAction {
+public class agent_init extends MeteredInternalAction {
     private static final int MIN_WEIGHT = 30;
     private static final int MAX_WEIGHT = 120;
 
     @Override
-    public Object execute(TransitionSystem ts, Unifier un, Term[] args) throws Exception {
+    protected Object doExecute(TransitionSystem ts, Unifier un, Term[] args) throws Exception {
         Agent currentAgent = ts.getAg();
-        double weight = Utils.map(0, 1, MIN_WEIGHT, MAX_WEIGHT, Utils.RAND.nextDouble());
+        double weight = Utils.map(0, 1, MIN_WEIGHT, MAX_WEIGHT, RandomStreams.current().forKey(ts.getAgArch().getAgName()).nextDouble());
         double energy = weight * 5;
-        currentAgent.addBel(Literal.parseLiteral(String.format("weight(%f)", weight)));
-        currentAgent.addBel(Literal.parseLiteral(String.format("half_size(%f)", Math.max(10, weight / 4))));
-        currentAgent.addBel(Literal.parseLiteral(String.format("energy(%f, %f)", energy, energy)));
-        currentAgent.addBel(Literal.parseLiteral(String.format("food_energy(%f)", Utils.FOOD_ENERGY_INCREASE)));
+        AgentState.of(ts).init(currentAgent, weight, Math.max(10, weight / 4), energy);
+        currentAgent.addBel(ASSyntax.createLiteral("food_energy", ASSyntax.createNumber(Utils.FOOD_ENERGY_INCREASE)));
         return true;
     }
 }
@@ -2,16 +2,13 @@ package utils;
 
 import static utils.Utils.*;
 
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
-import java.util.Optional;
 
-import env.model.Pair;
+import env.model.Fish;
 import env.model.Position;
+import env.model.Speed;
 import env.model.Vector2D;
-import jason.asSemantics.Agent;
-import jason.asSemantics.DefaultInternalAction;
+import jason.NoValueException;
 import jason.asSemantics.TransitionSystem;
 import jason.asSemantics.Unifier;
 import jason.asSyntax.Literal;
@@ -20,147 +17,67 @@ import jason.asSyntax.Term;
 /**
  * The `avoid_obstacles` class is a custom internal action for agents in the simulation.
  * It allows agents to detect and avoid obstacles in their path by adjusting their direction.
- * The class uses vector calculations to determine the position and orientation of obstacles
- * relative to the agent and modifies the agent's direction accordingly.
+ * It turns the agent's direction by the smallest angle that clears every obstacle, computed from the tangents
+ * to the obstacles rather than by rotating and testing again.
  */
-public class avoid_obstacles extends DefaultInternalAction {
+public class avoid_obstacles extends MeteredInternalAction {
 
-    /**
-     * Calculates the angle between the fish's direction and the direction towards an obstacle.
-     * 
-     * @param fishDir The direction vector of the fish.
-     * @param obstaclePos The position of the obstacle.
-     * @return The angle in radians between the fish's direction and the obstacle.
-     */
-    private double getAngleBetweenDirectionAndObstacle(Vector2D fishDir, Position obstaclePos) {
-        Vector2D dirToObstacle = Vector2D.fromPositions(Position.zero(), obstaclePos);
-        return Vector2D.angleBetween(fishDir, dirToObstacle);
+    @Override
+    protected Object doExecute(TransitionSystem ts, Unifier un, Term[] args) throws Exception {
+        AgentState state = AgentState.of(ts);
+        state.setDirection(avoid(state.getDirection(), state, termToList(args[0])));
+        return true;
     }
 
     /**
-     * Checks if a position is inside an obstacle based on its radius.
+     * Turns a direction to the closest heading that leads into no obstacle, or away from an obstacle the fish is
+     * inside, with an {@link AvoidanceSolver}. Obstacles behind the food the fish is heading to are ignored.
      * 
-     * @param obstaclePos The position of the obstacle.
-     * @param obstacleRadius The radius of the obstacle.
-     * @return True if the position is inside the obstacle, false otherwise.
+     * @param fishDir The direction of the fish.
+     * @param state The state of the fish.
+     * @param obstacles The `obstacle(X, Y, Radius)` terms of the obstacles close to the fish, relative to it.
+     * @return The new direction.
+     * @throws NoValueException If an obstacle term is malformed.
      */
-    private boolean isInsideObstacle(Position obstaclePos, double obstacleRadius) {
-        Vector2D dirToObstacle = Vector2D.fromPositions(Position.zero(), obstaclePos);
-        return dirToObstacle.getLength() < obstacleRadius;
+    static Vector2D avoid(Vector2D fishDir, AgentState state, List<Term> obstacles) throws NoValueException {
+        return solver(state, obstacles).solve(fishDir);
     }
 
     /**
-     * Checks if an obstacle is in the path of the fish based on its direction.
+     * Picks the velocity closest to a direction at the normal speed of the fish that keeps clear of the obstacles
+     * and of where the given neighbours are going, slowing down if need be, with
+     * {@link AvoidanceSolver#solveVelocity(Vector2D, Vector2D)}.
      * 
-     * @param fishDir The direction vector of the fish.
-     * @param fishHalfSize The half size of the fish.
-     * @param obstaclePos The position of the obstacle.
-     * @param obstacleRadius The radius of the obstacle.
-     * @return True if the obstacle is in the fish's path, false otherwise.
+     * @param fishDir The direction the fish would like to swim in.
+     * @param state The state of the fish, whose direction and throttle give its current velocity.
+     * @param obstacles The `obstacle(X, Y, Radius)` terms of the obstacles close to the fish, relative to it.
+     * @param neighbours The `fish(X, Y, Radius, VX, VY)` terms of the fish close to the fish, relative to it,
+     *                   from the closest one.
+     * @return The new direction, whose length is the fraction of its speed the fish keeps, from 0 to 1.
+     * @throws NoValueException If an obstacle or neighbour term is malformed.
      */
-    private boolean isObstacleOnPath(Vector2D fishDir, double fishHalfSize, Position obstaclePos, double obstacleRadius) {
-        Vector2D dirToObstacle = Vector2D.fromPositions(Position.zero(), obstaclePos);
-        if (isInsideObstacle(obstaclePos, obstacleRadius)) {
-            return true;
-        }
-        if (Math.abs(getAngleBetweenDirectionAndObstacle(fishDir, obstaclePos)) >= Math.PI / 2) { // Obstacle behind fish
-            return false;
+    static Vector2D avoid(Vector2D fishDir, AgentState state, List<Term> obstacles, List<Term> neighbours) throws NoValueException {
+        AvoidanceSolver solver = solver(state, obstacles);
+        double speed = Fish.speedFromWeight(state.getWeight()) * Speed.NORMAL.getSpeed();
+        Vector2D velocity = state.getDirection().normalize().times(speed * state.getThrottle());
+        for (Term neighbour : neighbours) {
+            Literal literal = (Literal) neighbour;
+            solver.addNeighbour(termToDouble(literal.getTerm(0)), termToDouble(literal.getTerm(1)), termToDouble(literal.getTerm(2)),
+                termToDouble(literal.getTerm(3)), termToDouble(literal.getTerm(4)), velocity);
         }
-
-        /*
-         * Projection of the obstacle position onto the fish direction vector.
-         * Simplified version thanks to the fish being at (0,0).
-         */
-        Vector2D projection = fishDir.times(dirToObstacle.times(fishDir) / fishDir.times(fishDir));
-        Vector2D projToObstacle = dirToObstacle.minus(projection);
-        return Math.sqrt(projToObstacle.times(projToObstacle)) <= obstacleRadius + fishHalfSize;
-    }
-
-    /**
-     * Checks if food is in front of an obstacle from the fish's perspective.
-     * 
-     * @param fishDir The direction vector of the fish.
-     * @param foodPos The position of the food.
-     * @param obstaclePos The position of the obstacle.
-     * @param obstacleRadius The radius of the obstacle.
-     * @return True if the food is in front of the obstacle, false otherwise.
-     */
-    private boolean isFoodInFrontOfObstacle(Vector2D fishDir, Position foodPos, Position obstaclePos, double obstacleRadius) {
-        Vector2D dirToFood = Vector2D.fromPositions(Position.zero(), foodPos);
-        Vector2D dirToObstacle = Vector2D.fromPositions(Position.zero(), obstaclePos);
-        Vector2D dirFromFoodToObstacle = Vector2D.fromPositions(foodPos, obstaclePos);
-
-        return dirToFood.getLength() < dirToObstacle.getLength() && dirFromFoodToObstacle.getLength() >= obstacleRadius;
-    }
-
-    /**
-     * Checks if an obstacle is to the left of the fish from its point of view.
-     * 
-     * @param fishDir The direction vector of the fish.
-     * @param obstaclePos The position of the obstacle.
-     * @return True if the obstacle is to the left, false otherwise.
-     */
-    private boolean isObstacleToTheLeft(Vector2D fishDir, Position obstaclePos) {
-        return getAngleBetweenDirectionAndObstacle(fishDir, obstaclePos) >= 0; // A positive angle means the vector is "to the left" of the fish's direction.
+        return solver.solveVelocity(fishDir.normalize().times(speed), velocity).times(1 / speed);
     }
 
-    @Override
-    public Object execute(TransitionSystem ts, Unifier un, Term[] args) throws Exception {
-        Agent currentAgent = ts.getAg();
-        Literal directionAsLiteral = currentAgent.findBel(Literal.parseLiteral("direction(_, _)"), un);
-        Vector2D fishDir = literalToVector2D(directionAsLiteral);
-
-        List<Pair<Position, Double>> coordinatesList = termToList(args[0]).stream().map(t -> literalToPositionAndRadius((Literal)t)).toList();
-        
-        Literal hasTargLiteral = currentAgent.findBel(Literal.parseLiteral("has_target(_, _)"), un);
-        Optional<Position> targetPos = Optional.ofNullable(hasTargLiteral).map(Utils::literalToPosition);
-
-        Literal sizeBelief = currentAgent.findBel(Literal.parseLiteral("half_size(_)"), un);
-        double halfSize = termToDouble(sizeBelief.getTerm(0));
-
-        int maxLoops = 50;
-        Map<Position, Integer> obstacleEncounters = new HashMap<>();
-        boolean rotated;
-        do {
-            rotated = false;
-            var dir = fishDir;
-            
-            Optional<Pair<Position, Double>> closestObstacleOnPath = coordinatesList.stream()
-                .filter(p -> isObstacleOnPath(dir, halfSize, p.getFirst(), p.getSecond()))
-                .min((p1, p2) -> Double.compare(Position.zero().distanceFrom(p1.getFirst()), Position.zero().distanceFrom(p2.getFirst())));
-
-            if (closestObstacleOnPath.isEmpty()) {
-                maxLoops--;
-                continue;
-            }
-            
-            Position obstaclePos = closestObstacleOnPath.get().getFirst();
-            double obstacleRadius = closestObstacleOnPath.get().getSecond();
-
-            if (isInsideObstacle(obstaclePos, obstacleRadius)) {
-                fishDir = Vector2D.fromPositions(Position.zero(), obstaclePos).rotateBy(Math.PI);
-                break;
-            }
-
-            if(targetPos.isEmpty() || !isFoodInFrontOfObstacle(fishDir, targetPos.get(), obstaclePos, obstacleRadius)){                
-                Integer occurrences = obstacleEncounters.get(obstaclePos);
-                if (occurrences == null) {
-                    occurrences = 1;
-                    obstacleEncounters.put(obstaclePos, 1);
-                } else {
-                    obstacleEncounters.put(obstaclePos, occurrences + 1);
-                }
-                double angle = Math.toRadians(3) * occurrences;
-
-                fishDir = isObstacleToTheLeft(fishDir, obstaclePos) ? fishDir.rotateBy(-angle) : fishDir.rotateBy(angle);
-                rotated = true;
-            }
-            maxLoops--;
-        } while (rotated && maxLoops > 0);
-
-        currentAgent.delBel(directionAsLiteral);
-        currentAgent.addBel(Literal.parseLiteral(String.format("direction(%f, %f)", fishDir.getX(), fishDir.getY())));
-        
-        return true;
+    private static AvoidanceSolver solver(AgentState state, List<Term> obstacles) throws NoValueException {
+        AvoidanceSolver solver = new AvoidanceSolver(state.getHalfSize());
+        Position target = state.getTarget();
+        if (target != null) {
+            solver.setTarget(target.getX(), target.getY());
+        }
+        for (Term obstacle : obstacles) {
+            Literal literal = (Literal) obstacle;
+            solver.addObstacle(termToDouble(literal.getTerm(0)), termToDouble(literal.getTerm(1)), termToDouble(literal.getTerm(2)));
+        }
+        return solver;
     }
 }
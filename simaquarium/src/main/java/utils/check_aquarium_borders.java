@@ -1,14 +1,10 @@
 package utils;
 
-import jason.asSemantics.Agent;
-import jason.asSemantics.DefaultInternalAction;
 import jason.asSemantics.TransitionSystem;
 import jason.asSemantics.Unifier;
 import jason.asSyntax.Literal;
 import jason.asSyntax.Term;
 
-import static utils.Utils.literalToVector2D;
-import static utils.Utils.termToDouble;
 import static utils.Utils.literalToDirectionAndDistance;
 import static utils.Utils.termToList;
 
@@ -25,18 +21,28 @@ import env.model.Vector2D;
  * direction to avoid crossing the borders. The class uses vector calculations to determine
  * the agent's position and direction relative to the borders.
  */
-public class check_aquarium_borders extends DefaultInternalAction {
+public class check_aquarium_borders extends MeteredInternalAction {
+    private static final Literal BORDERS_PATTERN = Literal.parseLiteral("borders(_)");
+
     @Override
-    public Object execute(TransitionSystem ts, Unifier un, Term[] args) throws Exception {
-        Agent currentAgent = ts.getAg();
-        Literal directionAsLiteral = currentAgent.findBel(Literal.parseLiteral("direction(_, _)"), un);
-        Vector2D fishDir = literalToVector2D(directionAsLiteral);
-        Literal bordersAsLiteral = currentAgent.findBel(Literal.parseLiteral("borders(_)"), un);
-        Literal hasTargLiteral = currentAgent.findBel(Literal.parseLiteral("has_target(_, _)"), un);
-        List<Term> bordersList = termToList(bordersAsLiteral.getTerm(0));
-        Optional<Position> targetPos = Optional.ofNullable(hasTargLiteral).map(Utils::literalToPosition);
-        Literal sizeBelief = currentAgent.findBel(Literal.parseLiteral("half_size(_)"), un);
-        double halfSize = termToDouble(sizeBelief.getTerm(0));
+    protected Object doExecute(TransitionSystem ts, Unifier un, Term[] args) throws Exception {
+        AgentState state = AgentState.of(ts);
+        Literal bordersAsLiteral = ts.getAg().findBel(BORDERS_PATTERN, new Unifier());
+        state.setDirection(bounce(state.getDirection(), state, termToList(bordersAsLiteral.getTerm(0))));
+        return true;
+    }
+
+    /**
+     * Turns a direction away from the borders a fish is close to, unless its target lies between it and the border.
+     * 
+     * @param fishDir The direction of the fish.
+     * @param state The state of the fish.
+     * @param bordersList The `border(Direction, Distance)` terms of the borders close to the fish.
+     * @return The new direction.
+     */
+    static Vector2D bounce(Vector2D fishDir, AgentState state, List<Term> bordersList) {
+        Optional<Position> targetPos = Optional.ofNullable(state.getTarget());
+        double halfSize = state.getHalfSize();
 
         for (Term border : bordersList) {
             var b = literalToDirectionAndDistance((Literal)border);
@@ -52,9 +58,6 @@ public class check_aquarium_borders extends DefaultInternalAction {
                 fishDir = fishDir.flipHorizontally();
             }
         }
-        currentAgent.delBel(directionAsLiteral);
-        currentAgent.addBel(Literal.parseLiteral(String.format("direction(%f, %f)", fishDir.getX(), fishDir.getY())));
-        
-        return true;
+        return fishDir;
     }
 }
@@ -1,7 +1,5 @@
 package utils;
 
-import jason.asSemantics.Agent;
-import jason.asSemantics.DefaultInternalAction;
 import jason.asSemantics.TransitionSystem;
 import jason.asSemantics.Unifier;
 import jason.asSyntax.Literal;
@@ -18,24 +16,20 @@ import static utils.Utils.*;
  * The class calculates the closest position to the agent's current location and updates
  * the agent's beliefs with the target's coordinates.
  */
-public class find_nearest extends DefaultInternalAction {
+public class find_nearest extends MeteredInternalAction {
     @Override
-    public Object execute(TransitionSystem ts, Unifier un, Term[] args) throws Exception {
-        Agent currentAgent = ts.getAg();
-
+    protected Object doExecute(TransitionSystem ts, Unifier un, Term[] args) throws Exception {
         List<Term> coordinatesList = termToList(args[0]);
         Optional<Position> closestFood = coordinatesList.stream()
             .map(t -> literalToPosition((Literal)t))
             .min((p1, p2) -> Double.compare(Position.zero().distanceFrom(p1), Position.zero().distanceFrom(p2)));
 
-        Literal hasTargetLiteral = currentAgent.findBel(Literal.parseLiteral("has_target(_, _)"), un);
-        if(hasTargetLiteral != null){
-            currentAgent.delBel(hasTargetLiteral);
-        }
-
+        AgentState state = AgentState.of(ts);
         if(closestFood.isPresent()){
-            currentAgent.addBel(Literal.parseLiteral(String.format("has_target(%f, %f)", closestFood.get().getX(), closestFood.get().getY())));
-        } 
+            state.setTarget(ts.getAg(), closestFood.get().getX(), closestFood.get().getY());
+        } else {
+            state.clearTarget(ts.getAg());
+        }
         
         return true;
     }
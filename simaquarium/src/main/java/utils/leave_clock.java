@@ -0,0 +1,19 @@
+package utils;
+
+import env.SimulationClock;
+import jason.asSemantics.TransitionSystem;
+import jason.asSemantics.Unifier;
+import jason.asSyntax.Term;
+
+/**
+ * The `leave_clock` class is a custom internal action for agents in the simulation.
+ * It tells the clock that the agent will not move for a while, e.g. before a `.wait`, so that unpaced ticks do not
+ * wait for it until its next `utils.move_towards`.
+ */
+public class leave_clock extends MeteredInternalAction {
+    @Override
+    protected Object doExecute(TransitionSystem ts, Unifier un, Term[] args) throws Exception {
+        SimulationClock.current().leave(ts.getAgArch().getAgName());
+        return true;
+    }
+}
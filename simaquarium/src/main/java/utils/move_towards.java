@@ -4,34 +4,43 @@ import static utils.Utils.*;
 
 import env.model.Speed;
 import jason.asSemantics.Agent;
-import jason.asSemantics.DefaultInternalAction;
 import jason.asSemantics.TransitionSystem;
 import jason.asSemantics.Unifier;
-import jason.asSyntax.Literal;
 import jason.asSyntax.Term;
 
 /**
- * The `find_nearest` class is a custom internal action for agents in the simulation.
- * It allows agents to find the nearest target (e.g., food) from a list of positions.
- * The class calculates the closest position to the agent's current location and updates
- * the agent's beliefs with the target's coordinates.
+ * The `move_towards` class is a custom internal action for agents in the simulation.
+ * It consumes the energy a move at the given speed costs, writes the direction chosen by the steering actions back
+ * to the agent's beliefs and, when given two more arguments, unifies them with that direction scaled by the throttle
+ * chosen by `utils.steer`, so that the move covers that fraction of a full step.
+ * It then suspends the intention until the next tick, so that a fish moves at most once per tick. Like `.wait`, it
+ * does not block the reasoning thread meanwhile: the intention is pending, and the clock resumes it at the next tick.
  */
-public class move_towards extends DefaultInternalAction {
+public class move_towards extends MeteredInternalAction {
     @Override
-    public Object execute(TransitionSystem ts, Unifier un, Term[] args) throws Exception {
+    public boolean suspendIntention() {
+        return true;
+    }
+
+    @Override
+    public boolean canBeUsedInContext() {
+        return false;
+    }
+
+    @Override
+    protected Object doExecute(TransitionSystem ts, Unifier un, Term[] args) throws Exception {
         Speed speed = termToSpeed(args[0]);
 
         Agent currentAgent = ts.getAg();
-        
-        Literal energyLiteral = currentAgent.findBel(Literal.parseLiteral("energy(_, _)"), un);
-        Literal weightLiteral = currentAgent.findBel(Literal.parseLiteral("weight(_)"), un);
-        double fishEnergy = termToDouble(energyLiteral.getTerm(0));
-        double fishMaxEnergy = termToDouble(energyLiteral.getTerm(1));
-        double weight = termToDouble(weightLiteral.getTerm(0));
-        fishEnergy -= speed.getSpeed() * Utils.MOVEMENT_MULTIPLIER * weight;
-        currentAgent.delBel(energyLiteral);
-        currentAgent.addBel(Literal.parseLiteral(String.format("energy(%f, %f)", Math.max(0, fishEnergy), fishMaxEnergy)));
-        Thread.sleep(100);
+        AgentState state = AgentState.of(ts);
+        double fishEnergy = state.getEnergy() - speed.getSpeed() * Utils.MOVEMENT_MULTIPLIER * state.getWeight();
+        state.setEnergy(currentAgent, Math.max(0, fishEnergy));
+        state.syncBeliefs(currentAgent);
+        if (args.length >= 3 && !(un.unifies(args[1], numberToTerm(state.getDirectionX() * state.getThrottle()))
+                && un.unifies(args[2], numberToTerm(state.getDirectionY() * state.getThrottle())))) {
+            return false;
+        }
+        wait_ticks.suspend(ts, 1);
         return true;
     }
 }
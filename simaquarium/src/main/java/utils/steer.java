@@ -0,0 +1,58 @@
+package utils;
+
+import static utils.Utils.termToList;
+
+import java.util.List;
+
+import env.model.Vector2D;
+import jason.asSemantics.Agent;
+import jason.asSemantics.TransitionSystem;
+import jason.asSemantics.Unifier;
+import jason.asSyntax.Literal;
+import jason.asSyntax.Term;
+
+/**
+ * The `steer` class is a custom internal action for agents in the simulation.
+ * It runs the whole steering of a `!step` in one call: it rotates the direction towards the target like
+ * `utils.rotate_dir`, turns away from the borders like `utils.check_aquarium_borders`, then avoids the obstacles
+ * like `utils.avoid_obstacles`, and stores the resulting direction once.
+ * In the velocity avoidance mode, the other fish come in a `neighbours` percept with their velocity, and are
+ * avoided together with the obstacles by picking a velocity rather than a heading: the fish may slow down, which
+ * `utils.move_towards` applies through the throttle of the state.
+ */
+public class steer extends MeteredInternalAction {
+    private static final Literal BORDERS_PATTERN = Literal.parseLiteral("borders(_)");
+    private static final Literal OBSTACLES_PATTERN = Literal.parseLiteral("obstacles(_)");
+    private static final Literal NEIGHBOURS_PATTERN = Literal.parseLiteral("neighbours(_)");
+
+    @Override
+    protected Object doExecute(TransitionSystem ts, Unifier un, Term[] args) throws Exception {
+        Agent currentAgent = ts.getAg();
+        AgentState state = AgentState.of(ts);
+        Vector2D fishDir = state.getDirection();
+        if (state.hasTarget()) {
+            fishDir = rotate_dir.rotate(fishDir, state);
+        }
+        Literal borders = currentAgent.findBel(BORDERS_PATTERN, new Unifier());
+        List<Term> borderList = borders == null ? List.of() : termToList(borders.getTerm(0));
+        fishDir = check_aquarium_borders.bounce(fishDir, state, borderList);
+        Literal obstacles = currentAgent.findBel(OBSTACLES_PATTERN, new Unifier());
+        Literal neighbours = currentAgent.findBel(NEIGHBOURS_PATTERN, new Unifier());
+        List<Term> obstacleList = obstacles == null ? List.of() : termToList(obstacles.getTerm(0));
+        double throttle = 1;
+        if (neighbours != null) {
+            Vector2D velocity = avoid_obstacles.avoid(fishDir, state, obstacleList, termToList(neighbours.getTerm(0)));
+            throttle = Math.min(1, velocity.getLength());
+            if (throttle > 0) {
+                fishDir = velocity.normalize().times(fishDir.getLength());
+            }
+            // The neighbours may turn the fish back towards a border.
+            fishDir = check_aquarium_borders.bounce(fishDir, state, borderList);
+        } else if (obstacles != null) {
+            fishDir = avoid_obstacles.avoid(fishDir, state, obstacleList);
+        }
+        state.setDirection(fishDir);
+        state.setThrottle(throttle);
+        return true;
+    }
+}
@@ -1,6 +1,5 @@
 package utils;
 
-import jason.asSemantics.DefaultInternalAction;
 import jason.asSemantics.TransitionSystem;
 import jason.asSemantics.Unifier;
 import jason.asSyntax.Term;
@@ -12,10 +11,10 @@ import jason.runtime.RuntimeServicesFactory;
  * It stops the execution of the agent by terminating its runtime.
  * This action is typically used when an agent has completed its tasks or needs to be removed from the simulation.
  */
-public class stop_agent extends DefaultInternalAction{
+public class stop_agent extends MeteredInternalAction{
 
     @Override
-    public Object execute(TransitionSystem ts, Unifier un, Term[] args) throws Exception {
+    protected Object doExecute(TransitionSystem ts, Unifier un, Term[] args) throws Exception {
         RuntimeServices rs = RuntimeServicesFactory.get();
         rs.killAgent(ts.getAgArch().getAgName(), null, 1);
         return true;
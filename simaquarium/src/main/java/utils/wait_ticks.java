@@ -0,0 +1,92 @@
+package utils;
+
+import static utils.Utils.termToDouble;
+
+import env.SimulationClock;
+import jason.JasonException;
+import jason.asSemantics.Circumstance;
+import jason.asSemantics.Intention;
+import jason.asSemantics.TransitionSystem;
+import jason.asSemantics.Unifier;
+import jason.asSyntax.ASSyntax;
+import jason.asSyntax.Structure;
+import jason.asSyntax.Term;
+
+/**
+ * The `wait_ticks` class is a custom internal action for agents in the simulation.
+ * It suspends the intention for the given number of ticks of the simulation clock, e.g. `utils.wait_ticks(10)` while
+ * a fish digests. Unlike `.wait(1000)`, the wait is measured in simulated time: it lasts as many ticks whether the
+ * simulation runs in real time or as fast as possible, and the agent takes its turn in every tick meanwhile, so that
+ * a lock-step run neither stalls on it nor loses its reproducibility.
+ */
+public class wait_ticks extends MeteredInternalAction {
+    private static final Structure RESUMED_BY = ASSyntax.createStructure("tick");
+
+    @Override
+    public int getMinArgs() {
+        return 1;
+    }
+
+    @Override
+    public int getMaxArgs() {
+        return 1;
+    }
+
+    @Override
+    public boolean suspendIntention() {
+        return true;
+    }
+
+    @Override
+    public boolean canBeUsedInContext() {
+        return false;
+    }
+
+    @Override
+    protected Object doExecute(TransitionSystem ts, Unifier un, Term[] args) throws Exception {
+        this.checkArguments(args);
+        int ticks = (int) termToDouble(args[0]);
+        if (ticks <= 0) {
+            throw JasonException.createWrongArgument(this, "the number of ticks must be positive");
+        }
+        suspend(ts, ticks);
+        return true;
+    }
+
+    /**
+     * Makes the selected intention pending and resumes it once the clock has moved the given number of ticks.
+     * At every tick but the last, the agent asks for the next tick again from its own reasoning cycle, during its turn,
+     * as it would after a move. The intention is only resumed if it is still pending then, i.e. it was not dropped in
+     * the meantime.
+     *
+     * @param ts The transition system of the agent.
+     * @param ticks The number of ticks to wait, at least 1.
+     */
+    static void suspend(TransitionSystem ts, int ticks) {
+        Circumstance c = ts.getC();
+        Intention intention = c.getSelectedIntention();
+        String pendingId = intention.getId() + "/tick";
+        c.addPendingIntention(pendingId, intention);
+        resumeAfter(ts, intention, pendingId, ticks);
+    }
+
+    private static void resumeAfter(TransitionSystem ts, Intention intention, String pendingId, int ticks) {
+        Circumstance c = ts.getC();
+        SimulationClock.current().onNextTick(ts.getAgArch().getAgName(), () -> {
+            // The circumstance is only changed by the reasoning cycle of the agent, so the resumption waits for it.
+            ts.runAtBeginOfNextCycle(() -> {
+                if (c.getPendingIntentions().get(pendingId) != intention) {
+                    return;
+                }
+                if (ticks > 1) {
+                    resumeAfter(ts, intention, pendingId, ticks - 1);
+                } else {
+                    c.removePendingIntention(pendingId);
+                    intention.peek().removeCurrentStep();
+                    c.resumeIntention(intention, RESUMED_BY);
+                }
+            });
+            ts.getAgArch().wakeUpSense();
+        });
+    }
+}
@@ -0,0 +1,243 @@
+package env;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+public class SimulationClockTest {
+
+    @Test
+    public void testAdvance() {
+        SimulationClock clock = new SimulationClock(0);
+        clock.advance();
+        assertEquals(1, clock.getTick());
+        assertEquals(SimulationClock.SIMULATED_TICK_MILLIS, clock.getSimulatedMillis());
+    }
+
+    @Test
+    public void testLockStepTakesTurnsInNameOrder() throws InterruptedException {
+        SimulationClock clock = SimulationClock.lockStep(3);
+        List<String> moves = Collections.synchronizedList(new ArrayList<>());
+        List<Thread> agents = new ArrayList<>();
+        for (String name : new String[]{"fish3", "fish1", "fish2"}) {
+            clock.register(name);
+            Thread agent = new Thread(() -> {
+                try {
+                    for (int i = 0; i < 3; i++) {
+                        clock.awaitNextTick(name);
+                        moves.add(name);
+                    }
+                    // Ends the last turn, so that the stop below does not release the others all at once.
+                    clock.awaitNextTick(name);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+            agents.add(agent);
+            agent.start();
+        }
+        Thread engine = new Thread(() -> {
+            try {
+                for (int i = 0; i < 3; i++) {
+                    clock.awaitTickEnd();
+                    clock.advance();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        engine.start();
+        engine.join(5000);
+        for (Thread agent : agents) {
+            agent.join(5000);
+        }
+        clock.stop();
+        assertEquals(List.of("fish1", "fish2", "fish3", "fish1", "fish2", "fish3", "fish1", "fish2", "fish3"), moves);
+    }
+
+    @Test
+    public void testLockStepWaitsForPendingActions() throws InterruptedException {
+        SimulationClock clock = SimulationClock.lockStep(1);
+        clock.register("fish1");
+        clock.actionScheduled("fish1");
+        Thread agent = new Thread(() -> {
+            try {
+                clock.awaitNextTick("fish1");
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        Thread engine = new Thread(() -> {
+            try {
+                clock.awaitTickEnd();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        agent.start();
+        engine.start();
+        engine.join(100);
+        assertTrue("The tick cannot end while an action is pending", engine.isAlive());
+        clock.actionCompleted("fish1");
+        engine.join(5000);
+        assertFalse(engine.isAlive());
+        clock.advance();
+        agent.join(5000);
+        assertFalse(agent.isAlive());
+    }
+
+    @Test
+    public void testEarlyArrivalEndsTickAndKeepsNextOne() throws InterruptedException {
+        SimulationClock clock = new SimulationClock(0, 5000);
+        clock.register("fish1");
+        clock.arrive("fish1");
+        Thread engine = new Thread(() -> {
+            try {
+                clock.awaitTickEnd();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        engine.start();
+        engine.join(1000);
+        assertFalse("An early arrival ends the tick without the grace period", engine.isAlive());
+        clock.advance();
+        Thread agent = new Thread(() -> {
+            try {
+                clock.awaitNextTick("fish1");
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        agent.start();
+        agent.join(1000);
+        assertFalse("The tick after the early arrival has already started", agent.isAlive());
+    }
+
+    @Test
+    public void testAgentsThatLeftDoNotDelayTheTick() throws InterruptedException {
+        SimulationClock clock = new SimulationClock(0, 5000);
+        clock.register("fish1");
+        clock.register("fish2");
+        clock.arrive("fish1");
+        clock.leave("fish2");
+        Thread engine = new Thread(() -> {
+            try {
+                clock.awaitTickEnd();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        engine.start();
+        engine.join(1000);
+        assertFalse("An agent that left the clock is not waited for", engine.isAlive());
+
+        clock.advance();
+        clock.onNextTick("fish2", () -> { });
+        long start = System.nanoTime();
+        Thread next = new Thread(() -> {
+            try {
+                clock.awaitTickEnd();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        next.start();
+        next.join(200);
+        assertTrue("fish1 is waited for again", next.isAlive());
+        clock.stop();
+        next.join();
+        assertTrue(System.nanoTime() - start >= 200_000_000L);
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testNoEarlyArrivalInLockStep() {
+        SimulationClock clock = SimulationClock.lockStep(1);
+        clock.register("fish1");
+        clock.arrive("fish1");
+    }
+
+    @Test
+    public void testOnNextTickCallsBackAtNextTick() {
+        SimulationClock clock = new SimulationClock(0);
+        clock.register("fish1");
+        List<Long> wakeUps = new ArrayList<>();
+        clock.onNextTick("fish1", () -> wakeUps.add(clock.getTick()));
+        assertTrue(wakeUps.isEmpty());
+        clock.advance();
+        assertEquals(List.of(1L), wakeUps);
+        clock.arrive("fish1");
+        clock.advance();
+        clock.onNextTick("fish1", () -> wakeUps.add(clock.getTick()));
+        assertEquals("The tick after the early arrival has already started", List.of(1L, 2L), wakeUps);
+    }
+
+    @Test
+    public void testOnNextTickTakesTurnsInLockStep() {
+        SimulationClock clock = SimulationClock.lockStep(3);
+        List<String> moves = new ArrayList<>();
+        for (String name : new String[]{"fish3", "fish1", "fish2"}) {
+            clock.register(name);
+            clock.onNextTick(name, new Runnable() {
+                @Override
+                public void run() {
+                    moves.add(name);
+                    clock.onNextTick(name, this);
+                }
+            });
+        }
+        for (int i = 0; i < 3; i++) {
+            clock.advance();
+        }
+        assertEquals(List.of("fish1", "fish2", "fish3", "fish1", "fish2", "fish3", "fish1", "fish2", "fish3"), moves);
+    }
+
+    @Test
+    public void testStopReleasesCallbacks() {
+        SimulationClock clock = new SimulationClock(0);
+        clock.register("fish1");
+        List<String> wakeUps = new ArrayList<>();
+        clock.onNextTick("fish1", () -> wakeUps.add("fish1"));
+        clock.stop();
+        assertEquals(List.of("fish1"), wakeUps);
+    }
+
+    @Test
+    public void testLockStepTurnStartsOnceTheCallbackHasRun() throws InterruptedException {
+        SimulationClock clock = SimulationClock.lockStep(1);
+        clock.register("fish1");
+        CountDownLatch callbackStarted = new CountDownLatch(1);
+        CountDownLatch callbackReleased = new CountDownLatch(1);
+        clock.onNextTick("fish1", () -> {
+            callbackStarted.countDown();
+            try {
+                callbackReleased.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        Thread engine = new Thread(clock::advance);
+        engine.start();
+        assertTrue(callbackStarted.await(5, TimeUnit.SECONDS));
+        Thread agent = new Thread(() -> {
+            try {
+                clock.awaitTurn("fish1");
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        agent.start();
+        agent.join(100);
+        assertTrue("The turn starts once the callback is done", agent.isAlive());
+        callbackReleased.countDown();
+        agent.join(5000);
+        assertFalse(agent.isAlive());
+        engine.join(5000);
+    }
+}
@@ -0,0 +1,128 @@
+package env;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import env.model.AquariumModel;
+import env.model.AquariumModelImpl;
+
+public class SimulationEngineTest {
+
+    private AquariumModel model;
+    private SimulationClock clock;
+    private AtomicInteger drops;
+    private SimulationEngine engine;
+
+    @Before
+    public void setUp() {
+        model = new AquariumModelImpl();
+        model.setAquariumDimensions(600, 500);
+        model.setFoodQuantity(5);
+        clock = new SimulationClock(0);
+        drops = new AtomicInteger();
+        engine = new SimulationEngine(model, clock, new Random(1), drops::incrementAndGet);
+    }
+
+    @Test
+    public void testStepAdvancesClock() {
+        engine.step();
+        engine.step();
+        assertEquals(2, clock.getTick());
+        assertEquals(2 * SimulationClock.SIMULATED_TICK_MILLIS, clock.getSimulatedMillis());
+    }
+
+    @Test
+    public void testFoodDroppedOnSimulatedTime() {
+        long ticksToFirstDrop = SimulationEngine.FIRST_FOOD_DROP_MILLIS / SimulationClock.SIMULATED_TICK_MILLIS;
+        for (int i = 0; i < ticksToFirstDrop - 1; i++) {
+            engine.step();
+        }
+        assertEquals(0, model.getAllFood().size());
+        engine.step();
+        assertEquals(5, model.getAllFood().size());
+        assertEquals(1, drops.get());
+    }
+
+    @Test
+    public void testFoodSinks() {
+        model.addFood(new env.model.Position(100, 0));
+        for (int i = 0; i < 10; i++) {
+            engine.step();
+        }
+        assertTrue(model.getAllFood().iterator().next().getY() > 0);
+    }
+
+    @Test
+    public void testPausedEngineDoesNotAdvance() {
+        engine.setPaused(true);
+        for (int i = 0; i < 100; i++) {
+            engine.step();
+        }
+        assertEquals(0, clock.getTick());
+        assertEquals(0, model.getAllFood().size());
+    }
+
+    @Test
+    public void testAgentReleasedOnNextTick() throws InterruptedException {
+        clock.register("Fish1");
+        Thread agent = new Thread(() -> {
+            try {
+                clock.awaitNextTick("Fish1");
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        agent.start();
+        clock.awaitTickEnd();
+        engine.step();
+        agent.join(1000);
+        assertFalse(agent.isAlive());
+    }
+
+    @Test
+    public void testStoppedClockReleasesAgents() throws InterruptedException {
+        clock.stop();
+        clock.awaitNextTick("Fish1");
+        assertTrue(clock.isStopped());
+    }
+
+    @Test
+    public void testEndOfTickTasksRunBeforeAdvance() {
+        long[] seen = new long[1];
+        engine.addEndOfTickTask(() -> seen[0] = clock.getTick());
+        engine.step();
+        engine.step();
+        assertEquals(1, seen[0]);
+    }
+
+    @Test
+    public void testLockStepEngineWaitsForEveryAgentBeforeTheFirstStep() throws InterruptedException {
+        SimulationClock lockStep = SimulationClock.lockStep(2);
+        SimulationEngine lockStepEngine = new SimulationEngine(model, lockStep, new Random(1), drops::incrementAndGet);
+        Thread engineThread = new Thread(lockStepEngine);
+        engineThread.start();
+        try {
+            lockStep.register("Fish1");
+            lockStep.onNextTick("Fish1", () -> { });
+            Thread.sleep(200);
+            assertEquals("The first step waits for the second agent", 0, lockStep.getTick());
+
+            CountDownLatch firstTurn = new CountDownLatch(1);
+            lockStep.register("Fish2");
+            lockStep.onNextTick("Fish1", firstTurn::countDown);
+            lockStep.onNextTick("Fish2", () -> { });
+            assertTrue(firstTurn.await(5, TimeUnit.SECONDS));
+            assertEquals(1, lockStep.getTick());
+        } finally {
+            lockStepEngine.stop();
+            engineThread.join(5000);
+        }
+    }
+}
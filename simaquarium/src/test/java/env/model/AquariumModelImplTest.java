@@ -3,8 +3,12 @@ package env.model;
 import org.junit.Test;
 import static org.junit.Assert.*;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public class AquariumModelImplTest {
 
@@ -100,6 +104,101 @@ public class AquariumModelImplTest {
         assertEquals(1.0, model.getFairnessIndex(), 0.01);
     }
 
+    @Test
+    public void testGetNearbyFish() {
+        AquariumModelImpl model = new AquariumModelImpl();
+        model.addFish("Fish1", 50, 100, 200, new Position(10, 20));
+        model.addFish("Fish2", 60, 120, 240, new Position(12, 22));
+        model.addFish("Fish3", 60, 120, 240, new Position(500, 500));
+        var nearby = model.getNearbyFish("Fish1");
+        assertEquals(1, nearby.size());
+        assertEquals("Fish2", nearby.iterator().next().getId());
+    }
+
+    @Test
+    public void testGetNearbyFoodAfterMove() {
+        AquariumModelImpl model = new AquariumModelImpl();
+        model.setAquariumDimensions(1000, 1000);
+        model.addFish("Fish1", 50, 100, 200, new Position(10, 20));
+        model.addFood(new Position(400, 20));
+        assertTrue(model.getNearbyFood("Fish1").isEmpty());
+        for (int i = 0; i < 60; i++) {
+            model.moveTowards("Fish1", 1, 0, Speed.NORMAL);
+        }
+        assertEquals(1, model.getNearbyFood("Fish1").size());
+    }
+
+    @Test
+    public void testGetClosestFoodThatCanBeEaten() {
+        AquariumModelImpl model = new AquariumModelImpl();
+        model.addFish("Fish1", 50, 100, 200, new Position(10, 20));
+        model.addFood(new Position(12, 22));
+        model.addFood(new Position(80, 20));
+        Optional<Food> closest = model.getClosestFoodThatCanBeEaten("Fish1");
+        assertTrue(closest.isPresent());
+        assertEquals(12, closest.get().getX(), 0.01);
+    }
+
+    @Test
+    public void testGetNearbyObstacles() {
+        AquariumModelImpl model = new AquariumModelImpl();
+        model.addFish("Fish1", 50, 100, 200, new Position(10, 20));
+        model.addObstacle(new Position(30, 20), 5);
+        model.addObstacle(new Position(300, 200), 5);
+        assertEquals(1, model.getNearbyObstacles("Fish1").size());
+    }
+
+    @Test
+    public void testGetPerceptionVersion() {
+        AquariumModelImpl model = new AquariumModelImpl();
+        model.setAquariumDimensions(1000, 1000);
+        model.addFish("Fish1", 50, 100, 200, new Position(10, 20));
+        model.addFish("Fish2", 50, 100, 200, new Position(900, 900));
+        long version = model.getPerceptionVersion("Fish1");
+        model.moveTowards("Fish2", 1, 0, Speed.NORMAL);
+        assertEquals(version, model.getPerceptionVersion("Fish1"));
+        model.addFood(new Position(30, 20));
+        assertTrue(model.getPerceptionVersion("Fish1") > version);
+        version = model.getPerceptionVersion("Fish1");
+        model.moveTowards("Fish1", 1, 0, Speed.NORMAL);
+        assertTrue(model.getPerceptionVersion("Fish1") > version);
+    }
+
+    @Test
+    public void testConcurrentEatClaimsFoodOnce() throws InterruptedException {
+        AquariumModelImpl model = new AquariumModelImpl();
+        model.setAquariumDimensions(1000, 1000);
+        model.addFood(new Position(100, 100));
+        String foodId = model.getAllFood().iterator().next().getId();
+        int fishCount = 8;
+        AtomicInteger eaten = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < fishCount; i++) {
+            String name = "Fish" + i;
+            model.addFish(name, 50, 100, 200, new Position(100, 100));
+            Thread t = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                if (model.eat(name, foodId)) {
+                    eaten.incrementAndGet();
+                }
+            });
+            threads.add(t);
+            t.start();
+        }
+        start.countDown();
+        for (Thread t : threads) {
+            t.join();
+        }
+        assertEquals(1, eaten.get());
+        assertEquals(1, model.getNumberOfFoodEaten());
+        assertTrue(model.getAllFood().isEmpty());
+    }
+
     @Test
     public void testGetFoodByPosition() {
         AquariumModelImpl model = new AquariumModelImpl();
@@ -239,4 +338,47 @@ public class AquariumModelImplTest {
         model.sink(food.getId());
         assertTrue(food.getY() > 20);
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testGetNearestObstacles() {
+        AquariumModelImpl model = new AquariumModelImpl();
+        model.setAquariumDimensions(600, 600);
+        model.addFish("Fish1", 50, 100, 200, new Position(100, 100));
+        model.addObstacle(new Position(130, 100), 5);
+        model.addObstacle(new Position(110, 100), 5);
+        model.addObstacle(new Position(120, 100), 5);
+        model.addObstacle(new Position(500, 500), 5);
+        List<Obstacle> nearest = model.getNearestObstacles("Fish1", 2);
+        assertEquals(2, nearest.size());
+        assertEquals(110, nearest.get(0).getX(), 0.01);
+        assertEquals(120, nearest.get(1).getX(), 0.01);
+        assertEquals(model.getNearbyObstacles("Fish1").size(), model.getNearestObstacles("Fish1", 10).size());
+    }
+
+    @Test
+    public void testGetNearestFish() {
+        AquariumModelImpl model = new AquariumModelImpl();
+        model.setAquariumDimensions(600, 600);
+        model.addFish("Fish1", 50, 100, 200, new Position(100, 100));
+        model.addFish("Fish2", 50, 100, 200, new Position(100, 115));
+        model.addFish("Fish3", 50, 100, 200, new Position(100, 105));
+        List<Fish> nearest = model.getNearestFish("Fish1", 1);
+        assertEquals(1, nearest.size());
+        assertEquals("Fish3", nearest.get(0).getId());
+    }
+
+    @Test
+    public void testGetNearestFishWithinRange() {
+        AquariumModelImpl model = new AquariumModelImpl();
+        model.setAquariumDimensions(600, 600);
+        model.addFish("Fish1", 50, 100, 200, new Position(100, 100));
+        model.addFish("Fish2", 50, 100, 200, new Position(100, 150));
+        assertTrue(model.getNearestFish("Fish1", 8).isEmpty());
+        List<Fish> nearest = model.getNearestFish("Fish1", 8, 40);
+        assertEquals(1, nearest.size());
+        assertEquals("Fish2", nearest.get(0).getId());
+        long version = model.getPerceptionVersion("Fish1", 40);
+        model.moveTowards("Fish2", 1, 0, Speed.NORMAL);
+        assertTrue(model.getPerceptionVersion("Fish1", 40) > version);
+    }
+}
@@ -0,0 +1,86 @@
+package env.model;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+import java.util.List;
+
+public class EventJournalTest {
+
+    private static void recordLifecycle(EventJournal journal, String agent) {
+        journal.record(agent, EventJournal.ADD);
+        journal.record(agent, EventJournal.FOOD_PERCEPT);
+        journal.record(agent, EventJournal.EAT);
+        journal.record(agent, EventJournal.DIGEST);
+        journal.record(agent, EventJournal.FOOD_PERCEPT);
+        journal.record(agent, EventJournal.DIE);
+    }
+
+    @Test
+    public void testValidLifecycle() {
+        EventJournal journal = new EventJournal();
+        recordLifecycle(journal, "F1");
+        recordLifecycle(journal, "F2");
+        assertEquals("", journal.verify());
+        assertEquals(12, journal.getRecordedEvents());
+    }
+
+    @Test
+    public void testFirstEventNotAdd() {
+        EventJournal journal = new EventJournal();
+        journal.record("F1", EventJournal.FOOD_PERCEPT);
+        journal.record("F1", EventJournal.DIE);
+        assertEquals("first event was not init", journal.verify());
+    }
+
+    @Test
+    public void testLastEventNotDie() {
+        EventJournal journal = new EventJournal();
+        journal.record("F1", EventJournal.ADD);
+        assertEquals("last event was not die", journal.verify());
+    }
+
+    @Test
+    public void testEatNotFollowedByDigest() {
+        EventJournal journal = new EventJournal();
+        journal.record("F1", EventJournal.ADD);
+        journal.record("F1", EventJournal.FOOD_PERCEPT);
+        journal.record("F1", EventJournal.EAT);
+        journal.record("F1", EventJournal.DIE);
+        assertEquals("a digest event does not follow an eat event", journal.verify());
+    }
+
+    @Test
+    public void testEatNotPrecededByPercept() {
+        EventJournal journal = new EventJournal();
+        journal.record("F1", EventJournal.ADD);
+        journal.record("F1", EventJournal.EAT);
+        journal.record("F1", EventJournal.DIGEST);
+        journal.record("F1", EventJournal.DIE);
+        assertEquals("a food_percept event does not precede an eat event", journal.verify());
+    }
+
+    @Test
+    public void testRawLogKeepsMostRecentEvents() {
+        EventJournal journal = new EventJournal(2);
+        recordLifecycle(journal, "F1");
+        List<Pair<String, String>> recent = journal.getRecentEvents();
+        assertEquals(2, recent.size());
+        assertEquals(EventJournal.FOOD_PERCEPT, recent.get(0).getSecond());
+        assertEquals(EventJournal.DIE, recent.get(1).getSecond());
+        assertTrue(new EventJournal().getRecentEvents().isEmpty());
+    }
+
+    @Test
+    public void testRawLogCapacityFromSystemProperty() {
+        System.setProperty(EventJournal.RAW_LOG_CAPACITY_PROPERTY, "3");
+        try {
+            EventJournal journal = EventJournal.fromSystemProperty();
+            recordLifecycle(journal, "F1");
+            assertEquals(3, journal.getRecentEvents().size());
+        } finally {
+            System.clearProperty(EventJournal.RAW_LOG_CAPACITY_PROPERTY);
+        }
+        assertTrue(EventJournal.fromSystemProperty().getRecentEvents().isEmpty());
+    }
+}
@@ -0,0 +1,60 @@
+package env.model;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+public class FishStatisticsAccumulatorTest {
+
+    @Test
+    public void testMatchesTwoPassComputation() {
+        FishStatisticsAccumulator accumulator = new FishStatisticsAccumulator();
+        long[] eaten = {3, 0, 5, 1};
+        for (long n : eaten) {
+            accumulator.added();
+        }
+        for (long n : eaten) {
+            for (long i = 0; i < n; i++) {
+                accumulator.ate(i);
+            }
+        }
+        double mean = 9.0 / 4;
+        double squares = 0;
+        for (long n : eaten) {
+            squares += (n - mean) * (n - mean);
+        }
+        FishStatistics statistics = accumulator.get();
+        assertEquals(mean, statistics.getFoodEatenMean(), 1e-9);
+        assertEquals(squares / 3, statistics.getFoodEatenVariance(), 1e-9);
+        assertEquals(Math.exp(-squares / 3 / (3 * 5)), statistics.getFairnessIndex(), 1e-9);
+    }
+
+    @Test
+    public void testMaxDecreasesWhenTheBestFedFishDies() {
+        FishStatisticsAccumulator accumulator = new FishStatisticsAccumulator();
+        accumulator.added();
+        accumulator.added();
+        accumulator.ate(0);
+        accumulator.ate(1);
+        accumulator.ate(0);
+        assertEquals(2, accumulator.get().getFoodEatenMax());
+        accumulator.removed(2);
+        FishStatistics statistics = accumulator.get();
+        assertEquals(1, statistics.getFoodEatenMax());
+        assertEquals(1, statistics.getFishAlive());
+        assertEquals(0.5, statistics.getSurvivalRate(), 0.0);
+        assertTrue(Double.isNaN(statistics.getFairnessIndex()));
+    }
+
+    @Test
+    public void testModelKeepsStatisticsUpToDate() {
+        AquariumModelImpl model = new AquariumModelImpl();
+        model.addFish("Fish1", 50, 100, 200, new Position(10, 20));
+        model.addFish("Fish2", 60, 120, 240, new Position(30, 40));
+        model.addFish("Fish2", 60, 120, 240, new Position(30, 40));
+        assertEquals(2, model.getStatistics().getFishAdded());
+        model.removeAgent("Fish1");
+        assertEquals(1, model.getStatistics().getFishAlive());
+    }
+}
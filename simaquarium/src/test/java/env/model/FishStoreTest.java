@@ -0,0 +1,62 @@
+package env.model;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class FishStoreTest {
+
+    @Test
+    public void testAdd() {
+        FishStore store = new FishStore();
+        Fish fish = store.add("F1", 50, 20, 100, new Position(5, 10));
+        assertEquals(1, store.size());
+        assertEquals("F1", fish.getId());
+        assertEquals(5, fish.getX(), 0.01);
+        assertEquals(10, fish.getY(), 0.01);
+        assertEquals(1, fish.getDirX(), 0.01);
+        assertEquals(20, fish.getEnergy(), 0.01);
+        assertEquals(100, fish.getMaxEnergy(), 0.01);
+    }
+
+    @Test
+    public void testGrowsBeyondChunk() {
+        FishStore store = new FishStore();
+        List<Fish> fish = new ArrayList<>();
+        for (int i = 0; i < FishStore.CHUNK_SIZE * 2 + 1; i++) {
+            fish.add(store.add("F" + i, 50, 20, 100, new Position(i, 0)));
+        }
+        assertEquals(FishStore.CHUNK_SIZE * 2 + 1, store.size());
+        for (int i = 0; i < fish.size(); i++) {
+            assertEquals(i, fish.get(i).getX(), 0.01);
+        }
+    }
+
+    @Test
+    public void testRemoveReusesSlotAndDetachesView() {
+        FishStore store = new FishStore();
+        Fish dead = store.add("F1", 50, 20, 100, new Position(5, 10));
+        store.remove(dead);
+        assertEquals(0, store.size());
+        Fish alive = store.add("F2", 60, 30, 100, new Position(50, 60));
+        alive.moveTowards(new Position(100, 60), Speed.NORMAL);
+        assertEquals(5, dead.getX(), 0.01);
+        assertEquals(20, dead.getEnergy(), 0.01);
+        List<Fish> visited = new ArrayList<>();
+        store.forEach(visited::add);
+        assertEquals(List.of(alive), visited);
+    }
+
+    @Test
+    public void testFoodEatenCounts() {
+        FishStore store = new FishStore();
+        Fish f1 = store.add("F1", 50, 20, 100, new Position(0, 0));
+        Fish f2 = store.add("F2", 50, 20, 100, new Position(0, 0));
+        f1.incrementFoodEaten();
+        f1.incrementFoodEaten();
+        f2.incrementFoodEaten();
+        assertArrayEquals(new long[]{2, 1}, store.foodEatenCounts());
+    }
+}
@@ -23,6 +23,22 @@ public class FishTest {
         assertEquals(0, fish.getEnergy(), 0.01); // Should not go below 0
     }
 
+    @Test
+    public void testConcurrentEnergyUpdatesAreNotLost() throws InterruptedException {
+        Fish fish = new Fish("F1", 50, 5000, 10000, new Position(0, 0));
+        Thread meals = new Thread(() -> {
+            for (int i = 0; i < 2000; i++) {
+                fish.addEnergy(1);
+            }
+        });
+        meals.start();
+        for (int i = 0; i < 2000; i++) {
+            fish.decreaseEnergy(1);
+        }
+        meals.join();
+        assertEquals(5000, fish.getEnergy(), 0.01);
+    }
+
     @Test
     public void testGetBaseSpeed() {
         Fish fish = new Fish("F1", 50, 50, 100, new Position(0, 0));
@@ -138,6 +154,14 @@ public class FishTest {
         assertEquals(0, fish.getY(), 0.01);
     }
 
+    @Test
+    public void testMoveTowardsAtAFractionOfTheSpeed() {
+        Fish fish = new Fish("F1", 50, 50, 100, new Position(0, 0));
+        fish.moveTowards(new Position(10, 0), Speed.NORMAL, 0.5);
+        assertEquals(3, fish.getX(), 0.01);
+        assertEquals(0.5, fish.getDirX(), 0.01); // The direction tells how fast the fish went
+    }
+
     @Test
     public void testSpeedFromWeight() {
         assertEquals(6, Fish.speedFromWeight(50), 0.01); // 300 / weight
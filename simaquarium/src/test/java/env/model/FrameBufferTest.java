@@ -0,0 +1,49 @@
+package env.model;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+public class FrameBufferTest {
+
+    @Test
+    public void testLatestFrame() {
+        AquariumModelImpl model = new AquariumModelImpl();
+        model.setAquariumDimensions(600, 520);
+        model.addFish("F1", 50, 20, 100, new Position(5, 10));
+        model.addFood(new Position(30, 40));
+        model.publishFrame(3);
+        FrameSnapshot frame = model.getLatestFrame();
+        assertEquals(3, frame.getTick());
+        assertEquals(1, frame.getFishCount());
+        assertEquals(5, frame.getFishX(0), 0.01);
+        assertEquals(10, frame.getFishY(0), 0.01);
+        assertEquals(1, frame.getFoodCount());
+        assertEquals(30, frame.getFoodX(0), 0.01);
+    }
+
+    @Test
+    public void testReaderFrameIsNotOverwritten() {
+        AquariumModelImpl model = new AquariumModelImpl();
+        model.setAquariumDimensions(600, 520);
+        model.addFish("F1", 50, 20, 100, new Position(5, 10));
+        model.publishFrame(1);
+        FrameSnapshot frame = model.getLatestFrame();
+        model.getAgent("F1").addEnergy(30);
+        model.publishFrame(2);
+        model.publishFrame(3);
+        assertEquals(1, frame.getTick());
+        assertEquals(20, frame.getFishEnergy(0), 0.01);
+        FrameSnapshot next = model.getLatestFrame();
+        assertEquals(3, next.getTick());
+        assertEquals(50, next.getFishEnergy(0), 0.01);
+    }
+
+    @Test
+    public void testNoOlderFrameWithoutPublish() {
+        FrameBuffer buffer = new FrameBuffer();
+        buffer.beginWrite(7, 0);
+        buffer.publish();
+        assertEquals(7, buffer.latest().getTick());
+        assertEquals(7, buffer.latest().getTick());
+    }
+}
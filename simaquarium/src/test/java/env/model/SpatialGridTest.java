@@ -0,0 +1,137 @@
+package env.model;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+import java.util.List;
+
+public class SpatialGridTest {
+
+    @Test
+    public void testInsertAndQuery() {
+        SpatialGrid<String> grid = new SpatialGrid<>(10);
+        grid.insert("A", 5, 5);
+        grid.insert("B", 95, 95);
+        List<String> result = grid.query(0, 0, 10);
+        assertTrue(result.contains("A"));
+        assertFalse(result.contains("B"));
+        assertEquals(2, grid.size());
+    }
+
+    @Test
+    public void testMove() {
+        SpatialGrid<String> grid = new SpatialGrid<>(10);
+        grid.insert("A", 5, 5);
+        grid.move("A", 95, 95);
+        assertFalse(grid.query(0, 0, 10).contains("A"));
+        assertTrue(grid.query(100, 100, 10).contains("A"));
+        assertEquals(1, grid.size());
+    }
+
+    @Test
+    public void testRemove() {
+        SpatialGrid<String> grid = new SpatialGrid<>(10);
+        grid.insert("A", 5, 5);
+        grid.remove("A");
+        assertTrue(grid.query(5, 5, 10).isEmpty());
+        assertEquals(0, grid.size());
+    }
+
+    @Test
+    public void testMoveAfterRemove() {
+        SpatialGrid<String> grid = new SpatialGrid<>(10);
+        grid.insert("A", 5, 5);
+        grid.remove("A");
+        grid.move("A", 95, 95);
+        assertTrue(grid.query(100, 100, 10).isEmpty());
+        assertEquals(0, grid.size());
+    }
+
+    @Test
+    public void testNegativeCoordinates() {
+        SpatialGrid<String> grid = new SpatialGrid<>(10);
+        grid.insert("A", -15, -25);
+        assertTrue(grid.query(-15, -25, 1).contains("A"));
+        assertFalse(grid.query(15, 25, 1).contains("A"));
+    }
+
+    @Test
+    public void testLargeRadiusQuery() {
+        SpatialGrid<String> grid = new SpatialGrid<>(1);
+        grid.insert("A", 500, 500);
+        grid.insert("B", -500, -500);
+        List<String> result = grid.query(0, 0, 600);
+        assertEquals(2, result.size());
+    }
+
+    @Test
+    public void testVersionChangesOnlyNearby() {
+        SpatialGrid<String> grid = new SpatialGrid<>(10);
+        grid.insert("A", 5, 5);
+        grid.insert("B", 500, 500);
+        long near = grid.version(5, 5, 10);
+        long far = grid.version(500, 500, 10);
+        grid.move("A", 6, 6);
+        assertTrue(grid.version(5, 5, 10) > near);
+        assertEquals(far, grid.version(500, 500, 10));
+    }
+
+    @Test
+    public void testVersionChangesOnRemove() {
+        SpatialGrid<String> grid = new SpatialGrid<>(10);
+        grid.insert("A", 5, 5);
+        long version = grid.version(5, 5, 10);
+        grid.remove("A");
+        assertTrue(grid.version(5, 5, 10) > version);
+    }
+
+    @Test
+    public void testEmptiedCellsAreDropped() {
+        SpatialGrid<String> grid = new SpatialGrid<>(10);
+        grid.insert("A", 5, 5);
+        grid.insert("B", 6, 6);
+        for (int i = 0; i < 100; i++) {
+            grid.move("A", 5 + i * 10, 5);
+        }
+        grid.remove("B");
+        assertEquals(1, grid.occupiedCells());
+        assertTrue(grid.query(995, 5, 1).contains("A"));
+    }
+
+    @Test
+    public void testVersionOfLargeArea() {
+        SpatialGrid<String> grid = new SpatialGrid<>(1);
+        long version = grid.version(0, 0, 1000);
+        grid.insert("A", 500, 500);
+        assertTrue(grid.version(0, 0, 1000) > version);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidCellSize() {
+        new SpatialGrid<String>(0);
+    }
+
+    @Test
+    public void testNearestReturnsClosestInOrder() {
+        SpatialGrid<Integer> grid = new SpatialGrid<>(10);
+        for (int i = 0; i < 50; i++) {
+            grid.insert(i, 50 - i, 0);
+        }
+        List<Integer> nearest = grid.nearest(0, 0, 100, 3, i -> true, i -> 50 - i);
+        assertEquals(List.of(49, 48, 47), nearest);
+    }
+
+    @Test
+    public void testNearestAppliesFilterAndFewerCandidates() {
+        SpatialGrid<Integer> grid = new SpatialGrid<>(10);
+        for (int i = 0; i < 40; i++) {
+            grid.insert(i, i, 0);
+        }
+        List<Integer> nearest = grid.nearest(0, 0, 100, 100, i -> i % 2 == 0, i -> i);
+        assertEquals(20, nearest.size());
+        for (int i = 0; i < nearest.size(); i++) {
+            assertEquals(Integer.valueOf(2 * i), nearest.get(i));
+        }
+        assertTrue(grid.nearest(0, 0, 100, 0, i -> true, i -> i).isEmpty());
+    }
+}
@@ -0,0 +1,61 @@
+package env.model;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+public class TrajectoryRecorderTest {
+
+    @Test
+    public void testRecordAndSeek() throws IOException {
+        Path file = Files.createTempFile("trajectory", ".bin");
+        file.toFile().deleteOnExit();
+        FishStore store = new FishStore();
+        Fish f1 = store.add("F1", 50, 20, 100, new Position(0, 0));
+        store.add("F2", 50, 30, 100, new Position(100, 100));
+        Food food = new Food("food0", new Position(10, 0), 500);
+        try (TrajectoryRecorder recorder = new TrajectoryRecorder(file, 3)) {
+            for (long tick = 1; tick <= 10; tick++) {
+                f1.moveTowards(new Position(1000, 0), Speed.NORMAL);
+                recorder.record(tick, store, List.of(food));
+            }
+        }
+
+        TrajectoryReader reader = new TrajectoryReader(file);
+        assertEquals(10, reader.getTicks().length);
+        TrajectoryReader.Frame frame = reader.seek(4).get();
+        assertEquals(4, frame.getTick());
+        assertEquals(2, frame.getFishCount());
+        assertEquals("F1", frame.getName(0));
+        assertEquals(24, frame.getX(0), 0.01);
+        assertEquals(1, frame.getDirX(0), 0.01);
+        assertEquals("F2", frame.getName(1));
+        assertEquals(30, frame.getEnergy(1), 0.01);
+        assertEquals(1, frame.getFoodCount());
+        assertEquals(10, frame.getFoodX(0), 0.01);
+        assertFalse(reader.seek(0).isPresent());
+        assertEquals(10, reader.seek(100).get().getTick());
+    }
+
+    @Test
+    public void testSlotReuseRenamesFish() throws IOException {
+        Path file = Files.createTempFile("trajectory", ".bin");
+        file.toFile().deleteOnExit();
+        FishStore store = new FishStore();
+        Fish f1 = store.add("F1", 50, 20, 100, new Position(0, 0));
+        try (TrajectoryRecorder recorder = new TrajectoryRecorder(file)) {
+            recorder.record(1, store, List.of());
+            store.remove(f1);
+            store.add("F2", 50, 20, 100, new Position(0, 0));
+            recorder.record(2, store, List.of());
+        }
+
+        TrajectoryReader reader = new TrajectoryReader(file);
+        assertEquals("F1", reader.seek(1).get().getName(0));
+        assertEquals("F2", reader.seek(2).get().getName(0));
+    }
+}
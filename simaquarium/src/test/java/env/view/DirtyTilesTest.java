@@ -0,0 +1,53 @@
+package env.view;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+import java.awt.Rectangle;
+import java.util.List;
+
+public class DirtyTilesTest {
+
+    @Test
+    public void testAddMarksOverlappingTiles() {
+        DirtyTiles tiles = new DirtyTiles(320, 320);
+        tiles.add(40, 40, 50, 50);
+        assertTrue(tiles.isDirty(33, 33));
+        assertTrue(tiles.isDirty(63, 63));
+        assertFalse(tiles.isDirty(64, 40));
+        assertFalse(tiles.isDirty(10, 10));
+    }
+
+    @Test
+    public void testAreasOutsideTheViewAreIgnored() {
+        DirtyTiles tiles = new DirtyTiles(320, 320);
+        tiles.add(-100, -100, -50, -50);
+        tiles.add(400, 400, 500, 500);
+        assertTrue(tiles.isEmpty());
+        assertTrue(tiles.toRectangles().isEmpty());
+    }
+
+    @Test
+    public void testRectanglesMergeRunsAndRows() {
+        DirtyTiles tiles = new DirtyTiles(320, 320);
+        tiles.add(40, 40, 90, 90);
+        tiles.add(250, 250, 260, 260);
+        List<Rectangle> rectangles = tiles.toRectangles();
+        assertEquals(2, rectangles.size());
+        assertEquals(new Rectangle(32, 32, 64, 64), rectangles.get(0));
+        assertEquals(new Rectangle(224, 224, 64, 64), rectangles.get(1));
+    }
+
+    @Test
+    public void testUnion() {
+        DirtyTiles previous = new DirtyTiles(320, 320);
+        previous.add(40, 40, 50, 50);
+        DirtyTiles next = new DirtyTiles(320, 320);
+        next.add(250, 40, 260, 50);
+        DirtyTiles union = next.union(previous);
+        assertTrue(union.isDirty(40, 40));
+        assertTrue(union.isDirty(250, 40));
+        assertFalse(union.isDirty(150, 40));
+        assertTrue(new DirtyTiles(320, 320).union(new DirtyTiles(640, 320)).isDirty(150, 40));
+    }
+}
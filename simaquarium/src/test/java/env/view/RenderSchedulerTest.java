@@ -0,0 +1,76 @@
+package env.view;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+public class RenderSchedulerTest {
+
+    @Test
+    public void testAdaptiveLowersFpsWhenFramesAreSlow() {
+        RenderScheduler scheduler = new RenderScheduler(30, true, () -> { });
+        for (int i = 0; i < 10; i++) {
+            scheduler.frameRendered(50_000_000L);
+        }
+        assertTrue(scheduler.getCurrentFps() < 30);
+        assertTrue(scheduler.getCurrentFps() >= RenderScheduler.MIN_FPS);
+        assertEquals(50, scheduler.getMaxFrameMillis(), 0.01);
+    }
+
+    @Test
+    public void testAdaptiveRecoversTowardsTarget() {
+        RenderScheduler scheduler = new RenderScheduler(30, true, () -> { });
+        for (int i = 0; i < 10; i++) {
+            scheduler.frameRendered(50_000_000L);
+        }
+        for (int i = 0; i < 200; i++) {
+            scheduler.frameRendered(1_000_000L);
+        }
+        assertEquals(30, scheduler.getCurrentFps());
+    }
+
+    @Test
+    public void testFixedFpsWithoutAdaptiveMode() {
+        RenderScheduler scheduler = new RenderScheduler(30, false, () -> { });
+        for (int i = 0; i < 10; i++) {
+            scheduler.frameRendered(50_000_000L);
+        }
+        assertEquals(30, scheduler.getCurrentFps());
+        assertEquals(10, scheduler.getFramesRendered());
+    }
+
+    @Test
+    public void testMeasuredFps() {
+        int[] frames = new int[1];
+        RenderScheduler scheduler = new RenderScheduler(30, false, () -> frames[0]++);
+        scheduler.tick(0);
+        scheduler.tick(100_000_000L);
+        assertEquals(2, frames[0]);
+        assertEquals(10, scheduler.getMeasuredFps(), 0.01);
+    }
+
+    @Test
+    public void testAdaptiveLowersFpsWhenTicksAreLate() {
+        RenderScheduler scheduler = new RenderScheduler(30, true, () -> { });
+        for (int i = 0; i < 20; i++) {
+            scheduler.tick(i * 100_000_000L);
+            scheduler.frameRendered(1_000_000L);
+        }
+        assertTrue(scheduler.getCurrentFps() < 30);
+        assertTrue(scheduler.getCurrentFps() >= RenderScheduler.MIN_FPS);
+    }
+
+    @Test
+    public void testAdaptiveKeepsFpsWhenTicksAreOnTime() {
+        RenderScheduler scheduler = new RenderScheduler(20, true, () -> { });
+        for (int i = 0; i < 20; i++) {
+            scheduler.tick(i * 50_000_000L);
+            scheduler.frameRendered(1_000_000L);
+        }
+        assertEquals(20, scheduler.getCurrentFps());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidFps() {
+        new RenderScheduler(0, false, () -> { });
+    }
+}
@@ -0,0 +1,52 @@
+package env.view;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+import java.awt.image.BufferedImage;
+
+import env.model.AquariumModelImpl;
+import env.model.FrameSnapshot;
+import env.model.Position;
+
+public class SpriteCacheTest {
+
+    @Test
+    public void testFishSpritesAreSharedBySize() {
+        SpriteCache sprites = new SpriteCache(null);
+        BufferedImage sprite = sprites.fish(20.4);
+        assertSame(sprite, sprites.fish(20.9));
+        assertNotSame(sprite, sprites.fish(21));
+        assertEquals(20, sprite.getWidth());
+        assertEquals(10, sprite.getHeight());
+        assertSame(sprites.food(), sprites.food());
+        assertEquals(3, sprites.size());
+    }
+
+    @Test
+    public void testMovingTiles() {
+        AquariumModelImpl model = new AquariumModelImpl();
+        model.setAquariumDimensions(600, 520);
+        model.addFish("F1", 50, 20, 100, new Position(100, 100));
+        model.addFood(new Position(300, 50));
+        model.publishFrame(1);
+        FrameSnapshot frame = model.getLatestFrame();
+        DirtyTiles tiles = FishSimulationApp.movingTiles(frame, false, 600, 520);
+        double halfSize = frame.getFishSize(0) / 2;
+        assertTrue(tiles.isDirty((int) (100 - halfSize), (int) (100 - halfSize / 2)));
+        assertTrue(tiles.isDirty(305, 55));
+        // The tiles between the fish and the food are left alone.
+        assertFalse(tiles.isDirty(200, 75));
+        assertFalse(tiles.isDirty(50, 300));
+        DirtyTiles withRanges = FishSimulationApp.movingTiles(frame, true, 600, 520);
+        assertTrue(withRanges.isDirty((int) (100 - halfSize), (int) (100 - halfSize / 2)));
+        assertTrue(withRanges.isDirty(305, 55));
+    }
+
+    @Test
+    public void testNoMovingTilesWhenEmpty() {
+        AquariumModelImpl model = new AquariumModelImpl();
+        model.publishFrame(1);
+        assertTrue(FishSimulationApp.movingTiles(model.getLatestFrame(), false, 600, 520).isEmpty());
+    }
+}
@@ -0,0 +1,81 @@
+package launcher;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import env.AvoidanceMode;
+import env.model.Amount;
+
+public class ExperimentRunnerTest {
+
+    @Test
+    public void testGrid() {
+        List<ExperimentRunner.Parameters> grid = ExperimentRunner.grid(List.of(10, 50), List.of(Amount.LITTLE, Amount.MANY),
+            List.of(Amount.NORMAL), List.of(20.0, 30.0, 40.0), List.of(AvoidanceMode.STATIC, AvoidanceMode.VELOCITY), 2);
+        assertEquals(2 * 2 * 1 * 3 * 2 * 2, grid.size());
+        assertEquals(10, grid.get(0).getAgents());
+        assertEquals(0, grid.get(0).getSeed());
+        assertEquals(1, grid.get(1).getSeed());
+        assertEquals(AvoidanceMode.VELOCITY, grid.get(2).getAvoidance());
+        assertEquals(30.0, grid.get(4).getFoodEnergy(), 0.0);
+        assertEquals(50, grid.get(grid.size() - 1).getAgents());
+    }
+
+    @Test
+    public void testResultCsvRoundTrip() {
+        ExperimentRunner.Parameters parameters = new ExperimentRunner.Parameters(10, Amount.LITTLE, Amount.MANY, 25.5, AvoidanceMode.VELOCITY, 3);
+        ExperimentRunner.Result result = new ExperimentRunner.Result(parameters, 1200, 0.4, 0.75, 17, 5300);
+        String line = result.toCsv();
+        assertEquals(ExperimentRunner.CSV_HEADER.split(",").length, line.split(",", -1).length);
+        ExperimentRunner.Result parsed = ExperimentRunner.Result.fromCsv(line);
+        assertEquals(Amount.MANY, parsed.getParameters().getObstacles());
+        assertEquals(25.5, parsed.getParameters().getFoodEnergy(), 0.0);
+        assertEquals(AvoidanceMode.VELOCITY, parsed.getParameters().getAvoidance());
+        assertEquals(1200, parsed.getTicks());
+        assertEquals(0.75, parsed.getFairnessIndex(), 0.0);
+        assertEquals(17, parsed.getFoodEaten());
+    }
+
+    @Test
+    public void testUndefinedFairnessIsEmpty() {
+        ExperimentRunner.Parameters parameters = new ExperimentRunner.Parameters(10, Amount.LITTLE, Amount.MANY, 30, AvoidanceMode.STATIC, 0);
+        String line = new ExperimentRunner.Result(parameters, 10, 0, Double.NaN, 0, 1).toCsv();
+        assertTrue(Double.isNaN(ExperimentRunner.Result.fromCsv(line).getFairnessIndex()));
+    }
+
+    @Test
+    public void testRunWritesOneLinePerRun() throws IOException, InterruptedException {
+        Path output = Files.createTempFile("experiment", ".csv");
+        try {
+            List<ExperimentRunner.Parameters> grid = ExperimentRunner.grid(List.of(3), List.of(Amount.NORMAL),
+                List.of(Amount.NORMAL), List.of(30.0), List.of(AvoidanceMode.VELOCITY), 1);
+            List<ExperimentRunner.Result> results = new ExperimentRunner(1, 50, 120000).run(grid, output);
+            assertEquals(1, results.size());
+            assertTrue(results.get(0).getTicks() >= 50);
+            assertTrue(results.get(0).getSurvivalRate() > 0);
+            List<String> lines = Files.readAllLines(output);
+            assertEquals(List.of(ExperimentRunner.CSV_HEADER, results.get(0).toCsv()), lines);
+        } finally {
+            Files.delete(output);
+        }
+    }
+
+    @Test
+    public void testFailedRunIsLeftOut() throws IOException, InterruptedException {
+        Path output = Files.createTempFile("experiment", ".csv");
+        try {
+            List<ExperimentRunner.Parameters> grid = ExperimentRunner.grid(List.of(3), List.of(Amount.NORMAL),
+                List.of(Amount.NORMAL), List.of(30.0), List.of(AvoidanceMode.VELOCITY), 1);
+            // The run is killed long before it can report.
+            assertTrue(new ExperimentRunner(1, 50, 1).run(grid, output).isEmpty());
+            assertEquals(List.of(ExperimentRunner.CSV_HEADER), Files.readAllLines(output));
+        } finally {
+            Files.delete(output);
+        }
+    }
+}
@@ -0,0 +1,151 @@
+package launcher;
+
+import org.junit.After;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BooleanSupplier;
+import java.util.stream.Collectors;
+
+import env.AvoidanceMode;
+import env.SimAquariumEnvironment;
+import env.SimulationClock;
+import env.model.AquariumModel;
+import env.model.Fish;
+import env.model.TrajectoryReader;
+import jason.JasonException;
+import jason.infra.local.LocalAgArch;
+
+public class SimulationLauncherTest {
+
+    private SimulationLauncher launcher;
+
+    @After
+    public void tearDown() throws InterruptedException {
+        if (launcher != null) {
+            stop(launcher);
+        }
+    }
+
+    /**
+     * Stops a simulation and waits for its agents, so that the next one in the same JVM starts from a clean state.
+     */
+    static void stop(SimulationLauncher launcher) throws InterruptedException {
+        launcher.getEnvironment().getEngine().stop();
+        List<LocalAgArch> agents = new ArrayList<>(launcher.getAgs().values());
+        launcher.finish(0, false, 0);
+        for (LocalAgArch agent : agents) {
+            if (agent.getThread() != null) {
+                agent.getThread().join(10000);
+            }
+        }
+    }
+
+    static boolean waitUntil(BooleanSupplier condition, long timeoutMillis) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + timeoutMillis;
+        while (!condition.getAsBoolean()) {
+            if (System.currentTimeMillis() > deadline) {
+                return false;
+            }
+            Thread.sleep(20);
+        }
+        return true;
+    }
+
+    @Test
+    public void testInProcessLaunchCreatesEveryAgent() throws JasonException, InterruptedException {
+        launcher = SimulationLauncher.launchHeadlessInProcess(20, "NORMAL", "NORMAL", 600, 500, 0, false);
+        assertEquals(20, launcher.getAgs().size());
+        AquariumModel model = launcher.getEnvironment().getModel();
+        assertTrue("Every fish joins the aquarium", waitUntil(() -> model.getAllAgents().size() == 20, 10000));
+    }
+
+    @Test
+    public void testVirtualThreadsKeepTicking() throws IOException, JasonException, InterruptedException {
+        // Few carriers, so that agents pinning theirs would soon leave none to the others.
+        launcher = SimulationLauncher.launchOnVirtualThreads(200, "NORMAL", "NORMAL", 1200, 1000, 0, 2);
+        AquariumModel model = launcher.getEnvironment().getModel();
+        SimulationClock clock = launcher.getEnvironment().getEngine().getClock();
+        assertTrue("Every fish joins the aquarium", waitUntil(() -> model.getAllAgents().size() == 200, 120000));
+        long joined = clock.getTick();
+        assertTrue("The simulation keeps ticking", waitUntil(() -> clock.getTick() >= joined + 300, 120000));
+    }
+
+    /**
+     * Runs a reproducible simulation for the given number of ticks and collects the state of every fish at the end
+     * of each tick, while the agents wait for the next one.
+     */
+    private static Map<Long, String> fishStatesPerTick(int agents, long seed, long ticks) throws JasonException, InterruptedException {
+        SimulationLauncher launcher = SimulationLauncher.launchDeterministicInProcess(agents, "NORMAL", "NORMAL", 600, 500, seed, false);
+        Map<Long, String> states = new ConcurrentHashMap<>();
+        try {
+            SimAquariumEnvironment env = launcher.getEnvironment();
+            SimulationClock clock = env.getEngine().getClock();
+            env.getEngine().addEndOfTickTask(() -> states.put(clock.getTick(), env.getModel().getAllAgents().stream()
+                .sorted(Comparator.comparing(Fish::getId))
+                .map(f -> f.getId() + " " + f.getX() + " " + f.getY() + " " + f.getEnergy())
+                .collect(Collectors.joining(", "))));
+            assertTrue("The simulation keeps ticking", waitUntil(() -> clock.getTick() > ticks, 60000));
+        } finally {
+            stop(launcher);
+        }
+        return states;
+    }
+
+    @Test
+    public void testSameSeedGivesSameFishStates() throws JasonException, InterruptedException {
+        long ticks = 100;
+        Map<Long, String> first = fishStatesPerTick(10, 7, ticks);
+        Map<Long, String> second = fishStatesPerTick(10, 7, ticks);
+        // Tick 0 may end before the task is added.
+        for (long tick = 1; tick <= ticks; tick++) {
+            assertNotNull("Missing tick " + tick, first.get(tick));
+            assertEquals("Every fish is in the aquarium from the first tick", 10, first.get(tick).split(", ").length);
+            assertEquals("Fish states at tick " + tick, first.get(tick), second.get(tick));
+        }
+    }
+
+    @Test
+    public void testRecordingFromSystemProperty() throws IOException, JasonException, InterruptedException {
+        Path file = Files.createTempFile("trajectory", ".bin");
+        System.setProperty(SimAquariumEnvironment.RECORD_PROPERTY, file.toString());
+        try {
+            launcher = SimulationLauncher.launchDeterministicInProcess(3, "NORMAL", "NORMAL", 600, 500, 1, false);
+            SimulationClock clock = launcher.getEnvironment().getEngine().getClock();
+            assertTrue("The simulation keeps ticking", waitUntil(() -> clock.getTick() > 10, 60000));
+            launcher.getEnvironment().stopRecording();
+            TrajectoryReader reader = new TrajectoryReader(file);
+            assertTrue("Recorded from the first tick", reader.seek(1).isPresent());
+            assertEquals(3, reader.seek(10).get().getFishCount());
+        } finally {
+            System.clearProperty(SimAquariumEnvironment.RECORD_PROPERTY);
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    public void testPerceivedObstaclesFromSystemProperty() throws JasonException {
+        System.setProperty(SimAquariumEnvironment.PERCEIVED_OBSTACLES_PROPERTY, "3");
+        try {
+            launcher = SimulationLauncher.launchHeadlessInProcess(2, "NORMAL", "NORMAL", 600, 500, 0, false);
+            assertEquals(3, launcher.getEnvironment().getPerceivedObstacles());
+        } finally {
+            System.clearProperty(SimAquariumEnvironment.PERCEIVED_OBSTACLES_PROPERTY);
+        }
+    }
+
+    @Test
+    public void testAvoidanceModeFromEnvironmentArguments() throws JasonException {
+        launcher = SimulationLauncher.launchDeterministicInProcess(2, "NORMAL", "NORMAL", 600, 500, 1, AvoidanceMode.VELOCITY, false);
+        assertEquals(AvoidanceMode.VELOCITY, launcher.getEnvironment().getAvoidanceMode());
+    }
+}
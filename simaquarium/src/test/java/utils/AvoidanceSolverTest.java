@@ -0,0 +1,124 @@
+package utils;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import env.model.Vector2D;
+
+public class AvoidanceSolverTest {
+
+    @Test
+    public void testKeepsHeadingWhenPathIsClear() {
+        AvoidanceSolver solver = new AvoidanceSolver(5);
+        solver.addObstacle(50, 40, 10);
+        Vector2D direction = Vector2D.of(1, 0);
+        assertEquals(direction, solver.solve(direction));
+    }
+
+    @Test
+    public void testTurnsJustPastTheTangent() {
+        AvoidanceSolver solver = new AvoidanceSolver(5);
+        solver.addObstacle(100, 10, 25);
+        Vector2D result = solver.solve(Vector2D.of(2, 0));
+        // The obstacle lies slightly to the left: the fish turns right, to the tangent of the inflated obstacle.
+        double expected = Math.atan2(10, 100) - Math.asin(30 / Math.hypot(100, 10));
+        assertEquals(expected, result.angle(), 1e-5);
+        assertEquals(2, result.getLength(), 1e-9);
+    }
+
+    @Test
+    public void testSkipsHeadingsBlockedByAnotherObstacle() {
+        AvoidanceSolver solver = new AvoidanceSolver(0);
+        solver.addObstacle(100, 0, 20);
+        solver.addObstacle(100, -40, 20);
+        Vector2D result = solver.solve(Vector2D.of(1, 0));
+        assertTrue(result.angle() > 0);
+        assertEquals(Math.asin(20 / 100.0), result.angle(), 1e-5);
+    }
+
+    @Test
+    public void testFleesAnObstacleItIsInside() {
+        AvoidanceSolver solver = new AvoidanceSolver(5);
+        solver.addObstacle(3, 4, 10);
+        Vector2D result = solver.solve(Vector2D.of(1, 0));
+        assertEquals(-0.6, result.getX(), 1e-9);
+        assertEquals(-0.8, result.getY(), 1e-9);
+    }
+
+    @Test
+    public void testIgnoresObstaclesBehindTheTarget() {
+        AvoidanceSolver solver = new AvoidanceSolver(5);
+        solver.setTarget(30, 0);
+        solver.addObstacle(100, 0, 20);
+        Vector2D direction = Vector2D.of(1, 0);
+        assertEquals(direction, solver.solve(direction));
+    }
+
+    @Test
+    public void testTurnsAroundWhenSurrounded() {
+        AvoidanceSolver solver = new AvoidanceSolver(0);
+        for (int i = 0; i < 8; i++) {
+            solver.addBlockedInterval(i * Math.PI / 4, Math.PI / 4);
+        }
+        Vector2D result = solver.solve(Vector2D.of(1, 0));
+        assertEquals(-1, result.getX(), 1e-9);
+    }
+
+    @Test
+    public void testDodgesAnOncomingNeighbour() {
+        AvoidanceSolver solver = new AvoidanceSolver(5);
+        Vector2D velocity = Vector2D.of(2, 0);
+        solver.addNeighbour(30, 0, 5, -2, 0, velocity);
+        Vector2D result = solver.solveVelocity(velocity, velocity);
+        assertTrue(Math.abs(result.getY()) > 0.1);
+        assertTrue(result.getLength() <= 2 + 1e-9);
+    }
+
+    @Test
+    public void testIgnoresANeighbourMovingAway() {
+        AvoidanceSolver solver = new AvoidanceSolver(5);
+        Vector2D velocity = Vector2D.of(1, 0);
+        solver.addNeighbour(30, 0, 5, 3, 0, velocity);
+        assertEquals(velocity, solver.solveVelocity(velocity, velocity));
+    }
+
+    @Test
+    public void testSlowsDownBehindASlowerNeighbour() {
+        AvoidanceSolver solver = new AvoidanceSolver(5);
+        // Obstacles on both sides leave no room to overtake.
+        solver.addObstacle(20, 40, 25);
+        solver.addObstacle(20, -40, 25);
+        Vector2D velocity = Vector2D.of(4, 0);
+        solver.addNeighbour(15, 0, 5, 1, 0, velocity);
+        Vector2D result = solver.solveVelocity(velocity, velocity);
+        assertTrue(result.getLength() < 4);
+        assertTrue(result.getX() >= 0);
+    }
+
+    @Test
+    public void testKeepsClearOfObstaclesWhenAvoidingNeighbours() {
+        AvoidanceSolver solver = new AvoidanceSolver(5);
+        solver.addObstacle(12, 0, 5);
+        Vector2D velocity = Vector2D.of(5, 0);
+        Vector2D result = solver.solveVelocity(velocity, velocity);
+        // Within the obstacle time horizon, the fish does not reach the inflated obstacle.
+        double x = result.getX() * AvoidanceSolver.OBSTACLE_TIME_HORIZON;
+        double y = result.getY() * AvoidanceSolver.OBSTACLE_TIME_HORIZON;
+        assertTrue(Math.hypot(x - 12, y) >= 10 - 1e-6);
+    }
+
+    @Test
+    public void testGivesUpANeighbourThatCannotBeAvoided() {
+        AvoidanceSolver solver = new AvoidanceSolver(5);
+        Vector2D velocity = Vector2D.of(1, 0);
+        // Overlapping neighbours on every side cannot all be left within a tick.
+        for (int i = 0; i < 8; i++) {
+            Vector2D offset = Vector2D.of(6, 0).rotateBy(i * Math.PI / 4);
+            solver.addNeighbour(offset.getX(), offset.getY(), 5, 0, 0, velocity);
+        }
+        Vector2D result = solver.solveVelocity(velocity, velocity);
+        assertTrue(result.getLength() <= 1 + 1e-9);
+    }
+}
@@ -0,0 +1,32 @@
+package utils;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class RandomStreamsTest {
+
+    @Test
+    public void testSameSeedSameStreams() {
+        RandomStreams first = new RandomStreams(42);
+        RandomStreams second = new RandomStreams(42);
+        second.forKey("fish2").nextDouble();
+        for (int i = 0; i < 10; i++) {
+            assertEquals(first.forKey("fish1").nextLong(), second.forKey("fish1").nextLong());
+        }
+    }
+
+    @Test
+    public void testStreamsDifferByKeyAndSeed() {
+        RandomStreams streams = new RandomStreams(42);
+        assertNotEquals(streams.fresh("fish1").nextLong(), streams.fresh("fish2").nextLong());
+        assertNotEquals(streams.fresh("fish1").nextLong(), new RandomStreams(43).fresh("fish1").nextLong());
+    }
+
+    @Test
+    public void testFreshRestartsSequence() {
+        RandomStreams streams = new RandomStreams(7);
+        long first = streams.forKey("food1").nextLong();
+        assertEquals(first, streams.fresh("food1").nextLong());
+    }
+}
@@ -0,0 +1,56 @@
+package utils;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.After;
+import org.junit.Test;
+
+public class SimulationMetricsTest {
+
+    @After
+    public void tearDown() {
+        SimulationMetrics.setEnabled(false);
+        SimulationMetrics.reset();
+    }
+
+    @Test
+    public void testNothingIsRecordedWhenDisabled() {
+        SimulationMetrics.setEnabled(false);
+        SimulationMetrics.Timer timer = SimulationMetrics.timer("test.disabled");
+        long start = SimulationMetrics.start();
+        timer.stop(start);
+        SimulationMetrics.counter("test.disabled").increment();
+        assertEquals(0, start);
+        assertEquals(0, timer.statistics().getCount());
+        assertEquals(0, SimulationMetrics.counter("test.disabled").getCount());
+    }
+
+    @Test
+    public void testTimerPercentilesAreBoundedByTheirBucket() {
+        SimulationMetrics.Timer timer = SimulationMetrics.timer("test.percentiles");
+        for (int i = 0; i < 99; i++) {
+            timer.record(1_000);
+        }
+        timer.record(1_000_000);
+        TimerStatistics statistics = timer.statistics();
+        assertEquals(100, statistics.getCount());
+        assertEquals(1_000_000, statistics.getMaxNanos());
+        assertTrue(statistics.getP50Nanos() >= 1_000 && statistics.getP50Nanos() < 2_000);
+        assertTrue(statistics.getP99Nanos() < 2_000);
+        assertEquals(10_990, statistics.getMeanNanos(), 1e-9);
+    }
+
+    @Test
+    public void testReportListsGaugesCountersAndTimers() {
+        SimulationMetrics.setEnabled(true);
+        SimulationMetrics.gauge("test.gauge", () -> 42);
+        SimulationMetrics.counter("test.counter").increment();
+        SimulationMetrics.timer("test.timer").stop(SimulationMetrics.start());
+        String report = SimulationMetrics.report();
+        SimulationMetrics.removeGauge("test.gauge");
+        assertTrue(report.contains("test.gauge = 42"));
+        assertTrue(report.contains("test.counter: 1"));
+        assertTrue(report.contains("test.timer: count=1"));
+    }
+}